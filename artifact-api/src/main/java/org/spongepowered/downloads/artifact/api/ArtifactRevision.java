@@ -0,0 +1,43 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.artifact.api;
+
+import java.time.Instant;
+
+/**
+ * The revision of an artifact as maintained by the read sides, bumped on
+ * every change to the artifact, its versions, tags or recommendations.
+ * Responses derived from an artifact at a given revision are identical, so
+ * the revision doubles as a strong entity tag for them.
+ *
+ * @param revision The monotonically increasing revision
+ * @param lastModified When the revision was last bumped
+ */
+public record ArtifactRevision(long revision, Instant lastModified) {
+
+    public String etag() {
+        return "\"" + this.revision + "\"";
+    }
+}
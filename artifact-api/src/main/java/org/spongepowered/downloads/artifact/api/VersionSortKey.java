@@ -0,0 +1,294 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.artifact.api;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Generates a byte-comparable sort key for a Maven version string. Comparing
+ * two keys as unsigned bytes (as Postgres does for {@code bytea}) yields the
+ * same ordering as {@link ComparableVersion}, which lets the read side persist
+ * the key next to the version and have the database do ordering, paging and
+ * range lookups instead of sorting every version on the heap.
+ *
+ * <p>The version is tokenized exactly like {@link ComparableVersion} does it,
+ * numbers, qualifiers and sub-lists, and each token is written as a type tag
+ * followed by an order preserving payload. A list is terminated by
+ * {@link #END}, which sits where {@link ComparableVersion} places a "missing"
+ * item, so {@code 1.0-SNAPSHOT < 1.0 < 1.0.1} holds byte-wise as well.
+ *
+ * <p>{@link ComparableVersion} is not strictly transitive for a few exotic
+ * shapes (such as a service pack qualifier separated by a dot compared against
+ * a pre-release sub-list, {@code 1.sp} vs {@code 1-alpha}), those are resolved
+ * in favor of a stable total order.
+ */
+public final class VersionSortKey {
+
+    private static final int STRING_BELOW = 0x01;
+    private static final int RELEASE_BELOW = 0x02;
+    private static final int LIST_BELOW = 0x03;
+    private static final int ZERO_BELOW = 0x04;
+    private static final int END = 0x05;
+    private static final int RELEASE_ABOVE = 0x06;
+    private static final int STRING_ABOVE = 0x07;
+    private static final int LIST_ABOVE = 0x08;
+    private static final int ZERO_ABOVE = 0x09;
+    private static final int NUMBER = 0x0A;
+
+    private static final List<String> QUALIFIERS = List.of("alpha", "beta", "milestone", "rc", "snapshot", "", "sp");
+    private static final int RELEASE_INDEX = QUALIFIERS.indexOf("");
+    private static final int SERVICE_PACK_INDEX = QUALIFIERS.indexOf("sp");
+    private static final Map<String, String> ALIASES = Map.of(
+        "ga", "",
+        "final", "",
+        "release", "",
+        "cr", "rc"
+    );
+
+    private VersionSortKey() {
+    }
+
+    /**
+     * Gets the sort key for the given version.
+     *
+     * @param version The raw maven version, such as {@code 1.16.5-8.0.0-RC3}
+     * @return The byte-comparable key
+     */
+    public static byte[] of(final String version) {
+        final var out = new ByteArrayOutputStream(version.length() * 2 + 1);
+        encode(parse(version), out);
+        return out.toByteArray();
+    }
+
+    private interface Item {
+        /*
+        Mirrors ComparableVersion's Item#compareTo(null), or how the item
+        compares against the padding of a shorter version.
+         */
+        int signAgainstNull();
+
+        boolean isNull();
+    }
+
+    private static final record NumberItem(BigInteger value) implements Item {
+        static final NumberItem ZERO = new NumberItem(BigInteger.ZERO);
+
+        @Override
+        public int signAgainstNull() {
+            return this.value.signum();
+        }
+
+        @Override
+        public boolean isNull() {
+            return this.value.signum() == 0;
+        }
+    }
+
+    private static final record QualifierItem(int index, String value) implements Item {
+
+        static QualifierItem of(final String raw, final boolean followedByDigit) {
+            var value = raw;
+            if (followedByDigit && value.length() == 1) {
+                value = switch (value.charAt(0)) {
+                    case 'a' -> "alpha";
+                    case 'b' -> "beta";
+                    case 'm' -> "milestone";
+                    default -> value;
+                };
+            }
+            value = ALIASES.getOrDefault(value, value);
+            final var index = QUALIFIERS.indexOf(value);
+            return new QualifierItem(index == -1 ? QUALIFIERS.size() : index, value);
+        }
+
+        @Override
+        public int signAgainstNull() {
+            return Integer.compare(this.index, RELEASE_INDEX);
+        }
+
+        @Override
+        public boolean isNull() {
+            return this.index == RELEASE_INDEX;
+        }
+    }
+
+    private static final record ListItem(List<Item> items) implements Item {
+
+        @Override
+        public int signAgainstNull() {
+            return this.items.isEmpty() ? 0 : this.items.get(0).signAgainstNull();
+        }
+
+        @Override
+        public boolean isNull() {
+            return this.items.isEmpty();
+        }
+
+        void normalize() {
+            for (int i = this.items.size() - 1; i >= 0; i--) {
+                final var last = this.items.get(i);
+                if (last.isNull()) {
+                    this.items.remove(i);
+                } else if (!(last instanceof ListItem)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private static ListItem parse(final String rawVersion) {
+        final var version = rawVersion.toLowerCase(Locale.ENGLISH);
+        final var root = new ListItem(new ArrayList<>());
+        final Deque<ListItem> stack = new ArrayDeque<>();
+        stack.push(root);
+        var list = root;
+        var isDigit = false;
+        var startIndex = 0;
+        for (int i = 0; i < version.length(); i++) {
+            final char c = version.charAt(i);
+            if (c == '.' || c == '-') {
+                list.items.add(
+                    i == startIndex ? NumberItem.ZERO : parseItem(isDigit, version.substring(startIndex, i)));
+                startIndex = i + 1;
+                if (c == '-') {
+                    list = push(list, stack);
+                }
+            } else if (Character.isDigit(c)) {
+                if (!isDigit && i > startIndex) {
+                    list.items.add(QualifierItem.of(version.substring(startIndex, i), true));
+                    startIndex = i;
+                    list = push(list, stack);
+                }
+                isDigit = true;
+            } else {
+                if (isDigit && i > startIndex) {
+                    list.items.add(parseItem(true, version.substring(startIndex, i)));
+                    startIndex = i;
+                    list = push(list, stack);
+                }
+                isDigit = false;
+            }
+        }
+        if (version.length() > startIndex) {
+            list.items.add(parseItem(isDigit, version.substring(startIndex)));
+        }
+        while (!stack.isEmpty()) {
+            stack.pop().normalize();
+        }
+        return root;
+    }
+
+    private static ListItem push(final ListItem parent, final Deque<ListItem> stack) {
+        final var child = new ListItem(new ArrayList<>());
+        parent.items.add(child);
+        stack.push(child);
+        return child;
+    }
+
+    private static Item parseItem(final boolean isDigit, final String token) {
+        if (isDigit) {
+            return new NumberItem(new BigInteger(token));
+        }
+        return QualifierItem.of(token, false);
+    }
+
+    private static void encode(final ListItem list, final ByteArrayOutputStream out) {
+        final var items = list.items;
+        for (int i = 0; i < items.size(); i++) {
+            final var item = items.get(i);
+            // An item that compares equal to "nothing" defers to whatever follows it,
+            // so it is placed on the side of END that the next significant item is on.
+            final var sign = item.signAgainstNull() != 0 ? item.signAgainstNull() : deferredSign(items, i + 1);
+            if (item instanceof NumberItem n) {
+                if (n.isNull()) {
+                    out.write(sign < 0 ? ZERO_BELOW : ZERO_ABOVE);
+                } else {
+                    out.write(NUMBER);
+                    writeNumber(n.value, out);
+                }
+            } else if (item instanceof QualifierItem q) {
+                if (q.isNull()) {
+                    out.write(sign < 0 ? RELEASE_BELOW : RELEASE_ABOVE);
+                } else if (sign < 0) {
+                    out.write(STRING_BELOW);
+                    out.write(q.index);
+                } else {
+                    out.write(STRING_ABOVE);
+                    writeQualifier(q, out);
+                }
+            } else if (item instanceof ListItem l) {
+                out.write(sign < 0 ? LIST_BELOW : LIST_ABOVE);
+                encode(l, out);
+            }
+        }
+        out.write(END);
+    }
+
+    private static int deferredSign(final List<Item> items, final int from) {
+        for (int i = from; i < items.size(); i++) {
+            final var sign = items.get(i).signAgainstNull();
+            if (sign != 0) {
+                return sign;
+            }
+        }
+        return 1;
+    }
+
+    private static void writeNumber(final BigInteger value, final ByteArrayOutputStream out) {
+        // Digit count first, then the digits, keeps arbitrary precision numbers ordered
+        final var digits = value.toString().getBytes(StandardCharsets.US_ASCII);
+        if (digits.length < 0xFF) {
+            out.write(digits.length);
+        } else {
+            out.write(0xFF);
+            out.write(digits.length >>> 24);
+            out.write(digits.length >>> 16);
+            out.write(digits.length >>> 8);
+            out.write(digits.length);
+        }
+        out.writeBytes(digits);
+    }
+
+    private static void writeQualifier(final QualifierItem qualifier, final ByteArrayOutputStream out) {
+        if (qualifier.index == SERVICE_PACK_INDEX) {
+            out.write(0x00);
+            return;
+        }
+        // Unknown qualifiers sort after "sp" and lexically amongst themselves
+        out.write(0x01);
+        out.writeBytes(qualifier.value.getBytes(StandardCharsets.UTF_8));
+        out.write(0x00);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.artifact.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public final class VersionSortKeyTest {
+
+    private static final List<String> VERSIONS = List.of(
+        "1", "1.0", "1.0.0", "1.0.1", "1.1", "1.9", "1.10", "2.0", "9.0", "10.0",
+        "1.0-SNAPSHOT", "1.0-alpha", "1.0-alpha1", "1.0-a2", "1.0-beta2", "1.0-b3", "1.0-milestone1",
+        "1.0-RC1", "1.0-RC9", "1.0-RC10", "1.0-cr2",
+        "1.12.2-7.3.0", "1.12.2-7.3.0-RC1723", "1.12.2-2838-7.3.1-RC3482", "1.12.2-7.4.0",
+        "1.16.5-8.0.0", "1.16.5-8.0.0-RC495", "1.16.5-36.0.1", "1.9-4.1.0",
+        "2.0.0-SNAPSHOT", "2.0.0-20210118.163210-1", "2.0.0-20210118.163210-2", "2.0.0-20210119.000000-1",
+        "8.0.0-RC1234567890123", "8.0.0-RC99999999999999999999"
+    );
+
+    @Test
+    public void keysOrderLikeComparableVersion() {
+        for (final String left : VERSIONS) {
+            for (final String right : VERSIONS) {
+                final var expected = Integer.signum(
+                    new ComparableVersion(left).compareTo(new ComparableVersion(right)));
+                final var actual = Integer.signum(
+                    Arrays.compareUnsigned(VersionSortKey.of(left), VersionSortKey.of(right)));
+                assertEquals(expected, actual, () -> left + " <=> " + right);
+            }
+        }
+    }
+}
@@ -58,10 +58,12 @@ public class ArtifactReadside {
             return this.readSide.<DetailsEvent>builder("artifact-details-builder")
                 .setEventHandler(DetailsEvent.ArtifactRegistered.class, (em, event) -> {
                     findOrRegisterArtifact(em, event.coordinates);
+                    touchArtifact(em, event.coordinates);
                 })
                 .setEventHandler(DetailsEvent.ArtifactDetailsUpdated.class, (em, event) -> {
                     final var artifact = findOrRegisterArtifact(em, event.coordinates);
                     artifact.setDisplayName(event.displayName);
+                    touchArtifact(em, event.coordinates);
                 })
                 .build();
         }
@@ -87,6 +89,15 @@ public class ArtifactReadside {
                 });
         }
 
+        // Bumps the revision the query services derive their cache validators from
+        private static void touchArtifact(final EntityManager em, final ArtifactCoordinates coordinates) {
+            em.flush();
+            em.createNativeQuery("select version.touchArtifact(:artifactId, :groupId)")
+                .setParameter("artifactId", coordinates.artifactId)
+                .setParameter("groupId", coordinates.groupId)
+                .getSingleResult();
+        }
+
         @Override
         public PSequence<AggregateEventTag<DetailsEvent>> aggregateTags() {
             return DetailsEvent.TAG.allTags();
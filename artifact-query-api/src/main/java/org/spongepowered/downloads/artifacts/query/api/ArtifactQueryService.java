@@ -34,11 +34,15 @@ public interface ArtifactQueryService extends Service {
 
     ServiceCall<NotUsed, GetArtifactDetailsResponse> getArtifactDetails(String groupId, String artifactId);
 
+    ServiceCall<NotUsed, ArtifactTagFacets> getArtifactTagFacets(String groupId, String artifactId);
+
     @Override
     default Descriptor descriptor() {
         return Service.named("artifact-query")
             .withCalls(
-                Service.restCall(Method.GET, "/api/v2/groups/:groupId/artifacts/:artifactId", this::getArtifactDetails)
+                Service.restCall(Method.GET, "/api/v2/groups/:groupId/artifacts/:artifactId", this::getArtifactDetails),
+                Service.restCall(
+                    Method.GET, "/api/v2/groups/:groupId/artifacts/:artifactId/facets", this::getArtifactTagFacets)
             )
             .withAutoAcl(true);
     }
@@ -0,0 +1,51 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.artifacts.query.api;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.vavr.collection.Map;
+import io.vavr.collection.SortedMap;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+
+/**
+ * The number of versions carrying each value of each tag of an artifact.
+ *
+ * @param coordinates The artifact
+ * @param tags The counts by tag value, by tag name
+ */
+@JsonSerialize
+public record ArtifactTagFacets(
+    ArtifactCoordinates coordinates,
+    Map<String, SortedMap<String, ValueCount>> tags
+) {
+
+    /**
+     * @param versions The number of versions carrying the value
+     * @param recommended How many of those versions are recommended
+     */
+    @JsonSerialize
+    public record ValueCount(int versions, int recommended) {
+    }
+}
@@ -25,17 +25,25 @@
 package org.spongepowered.downloads.artifacts.query.impl;
 
 import akka.NotUsed;
-import com.lightbend.lagom.javadsl.api.ServiceCall;
 import com.lightbend.lagom.javadsl.api.transport.NotFound;
-import com.lightbend.lagom.javadsl.persistence.jpa.JpaSession;
+import com.lightbend.lagom.javadsl.api.transport.RequestHeader;
+import com.lightbend.lagom.javadsl.server.HeaderServiceCall;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifact.api.ArtifactRevision;
 import org.spongepowered.downloads.artifacts.query.api.ArtifactQueryService;
+import org.spongepowered.downloads.artifacts.query.api.ArtifactTagFacets;
 import org.spongepowered.downloads.artifacts.query.api.GetArtifactDetailsResponse;
-import org.spongepowered.downloads.artifacts.query.impl.model.JpaArtifact;
+import org.spongepowered.downloads.artifacts.query.impl.model.ArtifactRow;
+import org.spongepowered.downloads.artifacts.query.impl.model.ArtifactTagFacetRow;
+import org.spongepowered.downloads.artifacts.query.impl.model.ArtifactTagRow;
+import org.spongepowered.downloads.http.ConditionalResponses;
+import org.spongepowered.downloads.replica.ReadOnlySession;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
 import java.util.Locale;
 
-public final record ArtifactQueryServiceImpl(JpaSession session) implements ArtifactQueryService {
+public final record ArtifactQueryServiceImpl(ReadOnlySession session) implements ArtifactQueryService {
 
     @Inject
     public ArtifactQueryServiceImpl {
@@ -43,32 +51,64 @@ public final record ArtifactQueryServiceImpl(JpaSession session) implements Arti
     }
 
     @Override
-    public ServiceCall<NotUsed, GetArtifactDetailsResponse> getArtifactDetails(
+    public HeaderServiceCall<NotUsed, GetArtifactDetailsResponse> getArtifactDetails(
         final String groupId,
         final String artifactId
     ) {
-        return notUsed -> {
+        return (header, notUsed) -> {
             final var sanitizedGroupId = groupId.toLowerCase(Locale.ROOT).trim();
             final var sanitizedArtifactId = artifactId.toLowerCase(Locale.ROOT).trim();
-            return this.session.withTransaction(em ->
-                em.createNamedQuery("Artifact.findByCoordinates", JpaArtifact.class)
+            return this.session.withTransaction(em -> {
+                final var revision = findRevision(em, sanitizedGroupId, sanitizedArtifactId, header);
+                return ConditionalResponses.respond(revision, header, () -> em
+                    .createNamedQuery("Artifact.findRow", ArtifactRow.class)
                     .setParameter("groupId", sanitizedGroupId)
                     .setParameter("artifactId", sanitizedArtifactId)
-                    .getResultList()
-                    .stream()
+                    .getResultStream()
                     .findFirst()
-                    .map(artifact -> {
-                        final var coordinates = artifact.getCoordinates();
-                        final var tags = artifact.getTagValuesForReply();
-                        return new GetArtifactDetailsResponse.RetrievedArtifact(
-                            coordinates, artifact.getDisplayName(),
-                            artifact.getWebsite(),
-                            artifact.getGitRepo(),
-                            artifact.getIssues(),
-                            tags
-                        );
-                    })
+                    .map(artifact -> artifact.asResponse(em
+                        .createNamedQuery("ArtifactTagValue.findRows", ArtifactTagRow.class)
+                        .setParameter("groupId", sanitizedGroupId)
+                        .setParameter("artifactId", sanitizedArtifactId)
+                        .getResultList()))
                     .orElseThrow(() -> new NotFound("group or artifact not found")));
+            });
         };
     }
+
+    @Override
+    public HeaderServiceCall<NotUsed, ArtifactTagFacets> getArtifactTagFacets(
+        final String groupId,
+        final String artifactId
+    ) {
+        return (header, notUsed) -> {
+            final var coordinates = new ArtifactCoordinates(
+                groupId.toLowerCase(Locale.ROOT).trim(), artifactId.toLowerCase(Locale.ROOT).trim());
+            return this.session.withTransaction(em -> {
+                final var revision = findRevision(em, coordinates.groupId, coordinates.artifactId, header);
+                // The counts are maintained by the read side, nothing is counted here
+                return ConditionalResponses.respond(revision, header, () -> ArtifactTagFacetRow.asResponse(
+                    coordinates,
+                    em.createNamedQuery("ArtifactTagFacet.findRows", ArtifactTagFacetRow.class)
+                        .setParameter("groupId", coordinates.groupId)
+                        .setParameter("artifactId", coordinates.artifactId)
+                        .getResultList()
+                ));
+            });
+        };
+    }
+
+    private static ArtifactRevision findRevision(
+        EntityManager em, String groupId, String artifactId, RequestHeader request
+    ) {
+        final var revision = em.createNamedQuery("Artifact.findRevision", ArtifactRevision.class)
+            .setParameter("groupId", groupId)
+            .setParameter("artifactId", artifactId)
+            .getResultStream()
+            .findFirst()
+            .orElseThrow(() -> new NotFound("group or artifact not found"));
+        // A replica behind what the client has already seen hands the request to the primary
+        ReadOnlySession.requireFresh(!ConditionalResponses.precedes(revision, request));
+        return revision;
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.artifacts.query.impl.model;
+
+import io.vavr.collection.SortedSet;
+import io.vavr.collection.TreeMap;
+import io.vavr.collection.TreeSet;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifacts.query.api.GetArtifactDetailsResponse;
+
+import java.util.Comparator;
+
+/**
+ * An artifact projected straight from {@code artifacts}, without its tag
+ * values.
+ */
+public record ArtifactRow(
+    String groupId,
+    String artifactId,
+    String displayName,
+    String website,
+    String gitRepo,
+    String issues
+) {
+
+    public GetArtifactDetailsResponse.RetrievedArtifact asResponse(final Iterable<ArtifactTagRow> tagValues) {
+        var versionedTags = TreeMap.<String, SortedSet<String>>empty();
+        final var comparator = Comparator.comparing(ComparableVersion::new).reversed();
+
+        for (final ArtifactTagRow tagged : tagValues) {
+            versionedTags = versionedTags.put(
+                tagged.tagName(), TreeSet.of(comparator, tagged.tagValue()), SortedSet::addAll);
+        }
+        return new GetArtifactDetailsResponse.RetrievedArtifact(
+            new ArtifactCoordinates(this.groupId, this.artifactId),
+            this.displayName,
+            this.website,
+            this.gitRepo,
+            this.issues,
+            versionedTags
+        );
+    }
+}
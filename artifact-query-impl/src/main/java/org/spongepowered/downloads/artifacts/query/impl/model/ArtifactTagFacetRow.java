@@ -0,0 +1,62 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.artifacts.query.impl.model;
+
+import io.vavr.collection.SortedMap;
+import io.vavr.collection.TreeMap;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifacts.query.api.ArtifactTagFacets;
+
+import java.util.Comparator;
+
+/**
+ * The version counts of a single tag value projected from
+ * {@code versioned_tag_facets}.
+ */
+public record ArtifactTagFacetRow(String tagName, String tagValue, int versionCount, int recommendedCount) {
+
+    public static ArtifactTagFacets asResponse(
+        final ArtifactCoordinates coordinates, final Iterable<ArtifactTagFacetRow> facets
+    ) {
+        var tags = TreeMap.<String, SortedMap<String, ArtifactTagFacets.ValueCount>>empty();
+        // Values equal as versions, such as 1.16 and 1.16.0, are still distinct values
+        final var comparator = Comparator.<String, ComparableVersion>comparing(ComparableVersion::new)
+            .thenComparing(Comparator.naturalOrder())
+            .reversed();
+
+        for (final ArtifactTagFacetRow facet : facets) {
+            tags = tags.put(
+                facet.tagName(),
+                TreeMap.of(
+                    comparator, facet.tagValue(),
+                    new ArtifactTagFacets.ValueCount(facet.versionCount(), facet.recommendedCount())
+                ),
+                SortedMap::merge
+            );
+        }
+        return new ArtifactTagFacets(coordinates, tags);
+    }
+}
@@ -25,39 +25,44 @@
 package org.spongepowered.downloads.artifacts.query.impl.model;
 
 
-import io.vavr.Tuple;
-import io.vavr.Tuple2;
-import io.vavr.collection.Map;
-import io.vavr.collection.SortedSet;
-import io.vavr.collection.TreeMap;
-import io.vavr.collection.TreeSet;
-import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.hibernate.annotations.Immutable;
-import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.Id;
-import javax.persistence.JoinColumn;
-import javax.persistence.JoinColumns;
+import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
-import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import java.io.Serializable;
-import java.util.Comparator;
+import java.time.Instant;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
 
+/**
+ * The mapping of {@code artifacts} the artifact queries are declared on,
+ * queries project into {@link ArtifactRow} rather than hydrating it.
+ */
 @Immutable
 @Entity(name = "Artifact")
 @Table(name = "artifacts",
     schema = "version")
-@NamedQuery(
-    name = "Artifact.findByCoordinates",
-    query = "select a from Artifact a where a.groupId = :groupId and a.artifactId = :artifactId"
-)
+@NamedQueries({
+    @NamedQuery(
+        name = "Artifact.findRow",
+        query = """
+            select new org.spongepowered.downloads.artifacts.query.impl.model.ArtifactRow(
+                a.groupId, a.artifactId, a.displayName, a.website, a.gitRepo, a.issues
+            )
+            from Artifact a where a.groupId = :groupId and a.artifactId = :artifactId
+            """
+    ),
+    @NamedQuery(
+        name = "Artifact.findRevision",
+        query = """
+            select new org.spongepowered.downloads.artifact.api.ArtifactRevision(a.revision, a.lastModified)
+            from Artifact a where a.groupId = :groupId and a.artifactId = :artifactId
+            """
+    )
+})
 public class JpaArtifact implements Serializable {
 
     @Id
@@ -99,43 +104,17 @@ public class JpaArtifact implements Serializable {
         insertable = false)
     private String issues;
 
-    @OneToMany(fetch = FetchType.EAGER,
-        targetEntity = JpaArtifactTagValue.class)
-    @JoinColumns({
-        @JoinColumn(name = "artifact_id",
-            referencedColumnName = "artifact_id"),
-        @JoinColumn(name = "group_id",
-            referencedColumnName = "group_id")
-    })
-    private Set<JpaArtifactTagValue> tagValues;
-
-    public String getGroupId() {
-        return groupId;
-    }
-
-    public String getArtifactId() {
-        return artifactId;
-    }
-
-    public String getDisplayName() {
-        return displayName;
-    }
-
-    public String getWebsite() {
-        return website;
-    }
-
-    public String getGitRepo() {
-        return gitRepo;
-    }
-
-    public String getIssues() {
-        return issues;
-    }
+    @Column(name = "revision",
+        nullable = false,
+        updatable = false,
+        insertable = false)
+    private long revision;
 
-    public Set<JpaArtifactTagValue> getTagValues() {
-        return tagValues;
-    }
+    @Column(name = "last_modified",
+        nullable = false,
+        updatable = false,
+        insertable = false)
+    private Instant lastModified;
 
     @Override
     public boolean equals(final Object o) {
@@ -156,23 +135,4 @@ public class JpaArtifact implements Serializable {
     public int hashCode() {
         return Objects.hash(id, groupId, artifactId, displayName, website, gitRepo, issues);
     }
-
-    public ArtifactCoordinates getCoordinates() {
-        return new ArtifactCoordinates(this.groupId, this.artifactId);
-    }
-
-    public Map<String, SortedSet<String>> getTagValuesForReply() {
-        final var tagValues = this.getTagValues();
-        final var tagTuples = tagValues.stream()
-            .map(value -> Tuple.of(value.getTagName(), value.getTagValue()))
-            .collect(Collectors.toList());
-
-        var versionedTags = TreeMap.<String, SortedSet<String>>empty();
-        final var comparator = Comparator.comparing(ComparableVersion::new).reversed();
-
-        for (final Tuple2<String, String> tagged : tagTuples) {
-            versionedTags = versionedTags.put(tagged._1, TreeSet.of(comparator, tagged._2), SortedSet::addAll);
-        }
-        return versionedTags;
-    }
 }
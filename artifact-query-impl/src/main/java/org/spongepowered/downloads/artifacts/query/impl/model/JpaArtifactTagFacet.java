@@ -0,0 +1,136 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.artifacts.query.impl.model;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The mapping of {@code versioned_tag_facets}, the version counts per tag
+ * value kept up to date by the versions read side. Queries project into
+ * {@link ArtifactTagFacetRow} rather than hydrating it.
+ */
+@Immutable
+@Entity(name = "ArtifactTagFacet")
+@Table(name = "versioned_tag_facets",
+    schema = "version")
+@IdClass(JpaArtifactTagFacet.Identifier.class)
+@NamedQuery(
+    name = "ArtifactTagFacet.findRows",
+    query = """
+        select new org.spongepowered.downloads.artifacts.query.impl.model.ArtifactTagFacetRow(
+            f.tagName, f.tagValue, f.versionCount, f.recommendedCount
+        )
+        from ArtifactTagFacet f where f.groupId = :groupId and f.artifactId = :artifactId
+        """
+)
+public class JpaArtifactTagFacet {
+
+    static final class Identifier implements Serializable {
+        String artifactId;
+        String groupId;
+        String tagName;
+        String tagValue;
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Identifier that = (Identifier) o;
+            return Objects.equals(artifactId, that.artifactId) && Objects.equals(
+                groupId, that.groupId) && Objects.equals(tagName, that.tagName) && Objects.equals(
+                tagValue, that.tagValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(artifactId, groupId, tagName, tagValue);
+        }
+    }
+
+    @Id
+    @Column(name = "artifact_id",
+        insertable = false,
+        updatable = false)
+    private String artifactId;
+
+    @Id
+    @Column(name = "group_id",
+        insertable = false,
+        updatable = false)
+    private String groupId;
+
+    @Id
+    @Column(name = "tag_name",
+        insertable = false,
+        updatable = false)
+    private String tagName;
+
+    @Id
+    @Column(name = "tag_value",
+        insertable = false,
+        updatable = false)
+    private String tagValue;
+
+    @Column(name = "version_count",
+        insertable = false,
+        updatable = false)
+    private int versionCount;
+
+    @Column(name = "recommended_count",
+        insertable = false,
+        updatable = false)
+    private int recommendedCount;
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        JpaArtifactTagFacet that = (JpaArtifactTagFacet) o;
+        return artifactId.equals(that.artifactId) && groupId.equals(that.groupId)
+            && tagName.equals(that.tagName) && tagValue.equals(that.tagValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(artifactId, groupId, tagName, tagValue);
+    }
+}
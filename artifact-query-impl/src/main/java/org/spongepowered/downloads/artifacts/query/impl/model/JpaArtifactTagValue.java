@@ -34,6 +34,7 @@ import javax.persistence.IdClass;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinColumns;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import java.io.Serializable;
 import java.util.Objects;
@@ -43,6 +44,13 @@ import java.util.Objects;
 @Table(name = "artifact_tag_values",
     schema = "version")
 @IdClass(JpaArtifactTagValue.Identifier.class)
+@NamedQuery(
+    name = "ArtifactTagValue.findRows",
+    query = """
+        select new org.spongepowered.downloads.artifacts.query.impl.model.ArtifactTagRow(t.tagName, t.tagValue)
+        from ArtifactTagValue t where t.groupId = :groupId and t.artifactId = :artifactId
+        """
+)
 public class JpaArtifactTagValue {
 
     /*
@@ -0,0 +1,69 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.artifacts.query.impl.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.vavr.collection.List;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifacts.query.api.ArtifactTagFacets;
+
+public final class ArtifactTagFacetRowTest {
+
+    private static final ArtifactCoordinates COORDINATES =
+        new ArtifactCoordinates("org.spongepowered", "spongevanilla");
+
+    @Test
+    public void groupsCountsByTagNewestValueFirst() {
+        final var facets = ArtifactTagFacetRow.asResponse(COORDINATES, List.of(
+            new ArtifactTagFacetRow("minecraft", "1.12.2", 40, 3),
+            new ArtifactTagFacetRow("api", "8.0", 12, 1),
+            new ArtifactTagFacetRow("minecraft", "1.16.5", 25, 2),
+            new ArtifactTagFacetRow("minecraft", "1.9", 4, 0)
+        ));
+
+        assertEquals(COORDINATES, facets.coordinates());
+        assertEquals(List.of("api", "minecraft"), facets.tags().keySet().toList());
+        assertEquals(List.of("1.16.5", "1.12.2", "1.9"), facets.tags().get("minecraft").get().keySet().toList());
+        assertEquals(
+            new ArtifactTagFacets.ValueCount(25, 2), facets.tags().get("minecraft").get().get("1.16.5").get());
+        assertEquals(new ArtifactTagFacets.ValueCount(12, 1), facets.tags().get("api").get().get("8.0").get());
+    }
+
+    @Test
+    public void keepsValuesThatAreEqualAsVersions() {
+        final var facets = ArtifactTagFacetRow.asResponse(COORDINATES, List.of(
+            new ArtifactTagFacetRow("minecraft", "1.16", 2, 0),
+            new ArtifactTagFacetRow("minecraft", "1.16.0", 3, 1),
+            new ArtifactTagFacetRow("minecraft", "1.16.1", 5, 5)
+        ));
+
+        final var values = facets.tags().get("minecraft").get();
+        assertEquals(List.of("1.16.1", "1.16.0", "1.16"), values.keySet().toList());
+        assertEquals(new ArtifactTagFacets.ValueCount(2, 0), values.get("1.16").get());
+        assertEquals(new ArtifactTagFacets.ValueCount(3, 1), values.get("1.16.0").get());
+    }
+}
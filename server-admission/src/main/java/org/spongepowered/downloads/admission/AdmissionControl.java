@@ -0,0 +1,239 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.admission;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import play.inject.ApplicationLifecycle;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides whether a request is admitted, first by a token bucket per client
+ * refilling at {@code rate} tokens a second up to {@code burst}, then by the
+ * number of requests the node handles at once. Buckets whose allowance has
+ * fully recovered are forgotten, a client coming back starts out with a
+ * full bucket all the same. At most {@code max-clients} buckets are kept,
+ * clients showing up while that many are still recovering share a single
+ * bucket until some are forgotten.
+ */
+@Singleton
+public final class AdmissionControl implements AdmissionMXBean {
+
+    private static final String OVERFLOW = "overflow";
+
+    private final AdmissionSettings settings;
+    private final LongSupplier clock;
+    private final double tokensPerNano;
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong sweptAt;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedByRate = new LongAdder();
+    private final LongAdder rejectedByConcurrency = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+
+    @Inject
+    public AdmissionControl(final Config config, final ActorSystem system, final ApplicationLifecycle lifecycle) {
+        this(new AdmissionSettings(config.getConfig("systemofadownload.admission")), System::nanoTime);
+        if (!this.settings.enabled) {
+            return;
+        }
+        final var sweep = system.scheduler().scheduleWithFixedDelay(
+            this.settings.sweepInterval, this.settings.sweepInterval, this::sweep, system.dispatcher());
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name;
+        try {
+            name = new ObjectName("org.spongepowered.downloads:type=Admission");
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the admission metrics", e);
+        }
+        lifecycle.addStopHook(() -> {
+            sweep.cancel();
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // Already gone with the server
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    AdmissionControl(final AdmissionSettings settings, final LongSupplier clock) {
+        this.settings = settings;
+        this.clock = clock;
+        this.tokensPerNano = settings.rate / TimeUnit.SECONDS.toNanos(1);
+        this.sweptAt = new AtomicLong(clock.getAsLong());
+    }
+
+    public boolean enabled() {
+        return this.settings.enabled;
+    }
+
+    /**
+     * Admits a request of the client, which must be followed by
+     * {@link #release()} once it is handled.
+     *
+     * @param client The key telling the client apart from others
+     * @return Empty if the request is admitted, otherwise the seconds after
+     *     which the client should try again
+     */
+    public OptionalLong admit(final String client) {
+        final var now = this.clock.getAsLong();
+        final var bucket = this.bucketOf(client, now);
+        final long wait = bucket.take(now, this.tokensPerNano, this.settings.burst);
+        if (wait > 0) {
+            this.rejectedByRate.increment();
+            return OptionalLong.of(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+        if (this.inFlight.incrementAndGet() > this.settings.maxConcurrent) {
+            this.inFlight.decrementAndGet();
+            // Not the client's doing, so it keeps its token
+            bucket.refund(this.settings.burst);
+            this.rejectedByConcurrency.increment();
+            return OptionalLong.of(1);
+        }
+        this.admitted.increment();
+        return OptionalLong.empty();
+    }
+
+    public void release() {
+        this.inFlight.decrementAndGet();
+    }
+
+    private Bucket bucketOf(final String client, final long now) {
+        final var bucket = this.buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (this.buckets.size() >= this.settings.maxClients) {
+            // Sweeping walks every bucket, so do it at most once a second between the scheduled sweeps
+            final var swept = this.sweptAt.get();
+            if (now - swept > TimeUnit.SECONDS.toNanos(1) && this.sweptAt.compareAndSet(swept, now)) {
+                this.sweep(now);
+            }
+        }
+        if (this.buckets.size() >= this.settings.maxClients) {
+            this.overflowed.increment();
+            return this.buckets.computeIfAbsent(OVERFLOW, key -> new Bucket(this.settings.burst, now));
+        }
+        return this.buckets.computeIfAbsent(client, key -> new Bucket(this.settings.burst, now));
+    }
+
+    private void sweep() {
+        this.sweep(this.clock.getAsLong());
+    }
+
+    private void sweep(final long now) {
+        this.buckets.values().removeIf(bucket -> bucket.isFull(now, this.tokensPerNano, this.settings.burst));
+    }
+
+    @Override
+    public int getTrackedClients() {
+        return this.buckets.size();
+    }
+
+    @Override
+    public int getInFlight() {
+        return this.inFlight.get();
+    }
+
+    @Override
+    public int getMaxConcurrent() {
+        return this.settings.maxConcurrent;
+    }
+
+    @Override
+    public long getAdmitted() {
+        return this.admitted.sum();
+    }
+
+    @Override
+    public long getRejectedByRate() {
+        return this.rejectedByRate.sum();
+    }
+
+    @Override
+    public long getRejectedByConcurrency() {
+        return this.rejectedByConcurrency.sum();
+    }
+
+    @Override
+    public long getOverflowed() {
+        return this.overflowed.sum();
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(final double tokens, final long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        /**
+         * @return Zero if a token was taken, otherwise the nanoseconds until one is available
+         */
+        synchronized long take(final long now, final double tokensPerNano, final double burst) {
+            this.refill(now, tokensPerNano, burst);
+            if (this.tokens >= 1) {
+                this.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - this.tokens) / tokensPerNano);
+        }
+
+        synchronized void refund(final double burst) {
+            this.tokens = Math.min(burst, this.tokens + 1);
+        }
+
+        synchronized boolean isFull(final long now, final double tokensPerNano, final double burst) {
+            this.refill(now, tokensPerNano, burst);
+            return this.tokens >= burst;
+        }
+
+        private void refill(final long now, final double tokensPerNano, final double burst) {
+            this.tokens = Math.min(burst, this.tokens + (now - this.refilledAt) * tokensPerNano);
+            this.refilledAt = Math.max(now, this.refilledAt);
+        }
+    }
+}
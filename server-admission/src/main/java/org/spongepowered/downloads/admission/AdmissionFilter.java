@@ -0,0 +1,130 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.admission;
+
+import akka.stream.Materializer;
+import com.typesafe.config.Config;
+import play.mvc.Filter;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.mvc.Results;
+
+import javax.inject.Inject;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Answers requests that {@link AdmissionControl} does not admit with
+ * {@code 429 Too Many Requests} and a {@code Retry-After}, before they reach
+ * the service calls. A request counts towards the requests handled at once
+ * until its result is ready, a streamed body is not waited on.
+ */
+public final class AdmissionFilter extends Filter {
+
+    private static final String AUTH_SECRETS = "systemofadownload.auth.secrets";
+    private static final String API_TOKENS = "systemofadownload.admission.api-tokens";
+    private static final String BEARER = "Bearer ";
+
+    private final AdmissionControl admission;
+    private final Optional<String> internalHeader;
+    private final byte[] internalSecret;
+    private final Map<String, String> apiTokens = new HashMap<>();
+
+    @Inject
+    public AdmissionFilter(final Materializer materializer, final Config config, final AdmissionControl admission) {
+        super(materializer);
+        this.admission = admission;
+        if (config.hasPath(AUTH_SECRETS + ".internal-header") && config.hasPath(AUTH_SECRETS + ".internal-secret")) {
+            this.internalHeader = Optional.of(config.getString(AUTH_SECRETS + ".internal-header"));
+            this.internalSecret = config.getString(AUTH_SECRETS + ".internal-secret").getBytes(StandardCharsets.UTF_8);
+        } else {
+            this.internalHeader = Optional.empty();
+            this.internalSecret = new byte[0];
+        }
+        config.getObject(API_TOKENS).unwrapped().forEach((name, digest) ->
+            this.apiTokens.put(digest.toString().toLowerCase(Locale.ROOT), name));
+    }
+
+    @Override
+    public CompletionStage<Result> apply(
+        final Function<Http.RequestHeader, CompletionStage<Result>> next, final Http.RequestHeader request
+    ) {
+        if (!this.admission.enabled()) {
+            return next.apply(request);
+        }
+        final var retryAfter = this.admission.admit(this.clientOf(request));
+        if (retryAfter.isPresent()) {
+            return CompletableFuture.completedFuture(Results.status(429, "Too Many Requests")
+                .withHeader(Http.HeaderNames.RETRY_AFTER, Long.toString(retryAfter.getAsLong())));
+        }
+        final CompletionStage<Result> result;
+        try {
+            result = next.apply(request);
+        } catch (RuntimeException e) {
+            this.admission.release();
+            throw e;
+        }
+        return result.whenComplete((handled, failure) -> this.admission.release());
+    }
+
+    /**
+     * Clients are told apart by their address, which is only their own when
+     * {@code play.http.forwarded.trustedProxies} names the proxies in front of
+     * the service. Headers are chosen by the client, so only one proven by the
+     * secret shared between the services, or a bearer token listed in
+     * {@code api-tokens}, earns a key of its own, anything else would let a
+     * client start over with a full bucket on every request.
+     */
+    private String clientOf(final Http.RequestHeader request) {
+        final var internal = this.internalHeader.flatMap(request::header)
+            .filter(secret -> MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), this.internalSecret));
+        if (internal.isPresent()) {
+            return "internal";
+        }
+        return request.header(Http.HeaderNames.AUTHORIZATION)
+            .filter(authorization -> authorization.regionMatches(true, 0, BEARER, 0, BEARER.length()))
+            .map(authorization -> this.apiTokens.get(sha256(authorization.substring(BEARER.length()).trim())))
+            .map(name -> "token:" + name)
+            .orElseGet(() -> "address:" + request.remoteAddress());
+    }
+
+    private static String sha256(final String token) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return String.format("%064x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required of every Java platform", e);
+        }
+    }
+}
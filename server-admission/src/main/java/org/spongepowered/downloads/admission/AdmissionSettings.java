@@ -0,0 +1,48 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.admission;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+public final class AdmissionSettings {
+
+    public final boolean enabled;
+    public final double rate;
+    public final double burst;
+    public final int maxConcurrent;
+    public final int maxClients;
+    public final Duration sweepInterval;
+
+    AdmissionSettings(final Config config) {
+        this.enabled = config.getBoolean("enabled");
+        this.rate = config.getDouble("rate");
+        this.burst = config.getDouble("burst");
+        this.maxConcurrent = config.getInt("max-concurrent");
+        this.maxClients = config.getInt("max-clients");
+        this.sweepInterval = config.getDuration("sweep-interval");
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class AdmissionControlTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void admitsTheBurstThenTellsWhenToRetry() {
+        // One token every 2 seconds
+        final var admission = this.admission(0.5, 2, 10, 100);
+
+        assertEquals(OptionalLong.empty(), this.admitAndRelease(admission, "a"));
+        assertEquals(OptionalLong.empty(), this.admitAndRelease(admission, "a"));
+        assertEquals(OptionalLong.of(2), this.admitAndRelease(admission, "a"));
+        this.advanceMillis(1500);
+        assertEquals(OptionalLong.of(1), this.admitAndRelease(admission, "a"));
+        this.advanceMillis(500);
+        assertEquals(OptionalLong.empty(), this.admitAndRelease(admission, "a"));
+        assertEquals(OptionalLong.of(2), this.admitAndRelease(admission, "a"));
+        assertEquals(3, admission.getAdmitted());
+        assertEquals(3, admission.getRejectedByRate());
+    }
+
+    @Test
+    public void refillsUpToTheBurst() {
+        final var admission = this.admission(10, 3, 10, 100);
+        for (int i = 0; i < 3; i++) {
+            this.admitAndRelease(admission, "a");
+        }
+
+        this.advanceMillis(TimeUnit.HOURS.toMillis(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(OptionalLong.empty(), this.admitAndRelease(admission, "a"));
+        }
+        assertEquals(OptionalLong.of(1), this.admitAndRelease(admission, "a"));
+    }
+
+    @Test
+    public void clientsHaveTheirOwnAllowance() {
+        final var admission = this.admission(1, 1, 10, 100);
+
+        assertEquals(OptionalLong.empty(), this.admitAndRelease(admission, "a"));
+        assertEquals(OptionalLong.of(1), this.admitAndRelease(admission, "a"));
+        assertEquals(OptionalLong.empty(), this.admitAndRelease(admission, "b"));
+        assertEquals(2, admission.getTrackedClients());
+    }
+
+    @Test
+    public void concurrencyRejectionRefundsTheToken() {
+        final var admission = this.admission(1, 2, 1, 100);
+
+        assertEquals(OptionalLong.empty(), admission.admit("a"));
+        assertEquals(OptionalLong.of(1), admission.admit("b"));
+        assertEquals(OptionalLong.of(1), admission.admit("b"));
+        assertEquals(2, admission.getRejectedByConcurrency());
+        admission.release();
+
+        // Turned away twice for being busy, b still has its whole burst
+        assertEquals(OptionalLong.empty(), this.admitAndRelease(admission, "b"));
+        assertEquals(OptionalLong.empty(), this.admitAndRelease(admission, "b"));
+        assertEquals(OptionalLong.of(1), this.admitAndRelease(admission, "b"));
+        assertEquals(0, admission.getInFlight());
+    }
+
+    @Test
+    public void clientsBeyondTheLimitShareABucket() {
+        final var admission = this.admission(1, 1, 10, 2);
+        this.admitAndRelease(admission, "a");
+        this.admitAndRelease(admission, "b");
+
+        assertEquals(OptionalLong.empty(), this.admitAndRelease(admission, "c"));
+        assertEquals(OptionalLong.of(1), this.admitAndRelease(admission, "d"));
+        assertEquals(2, admission.getOverflowed());
+    }
+
+    @Test
+    public void recoveredClientsMakeRoom() {
+        final var admission = this.admission(1, 1, 10, 2);
+        this.admitAndRelease(admission, "a");
+        this.admitAndRelease(admission, "b");
+
+        this.advanceMillis(2000);
+
+        assertEquals(OptionalLong.empty(), this.admitAndRelease(admission, "c"));
+        assertEquals(0, admission.getOverflowed());
+        assertEquals(1, admission.getTrackedClients());
+    }
+
+    private AdmissionControl admission(final double rate, final int burst, final int maxConcurrent, final int clients) {
+        final var settings = new AdmissionSettings(ConfigFactory.parseString(
+            "enabled = true, rate = " + rate + ", burst = " + burst + ", max-concurrent = " + maxConcurrent
+                + ", max-clients = " + clients + ", sweep-interval = 1m"));
+        return new AdmissionControl(settings, this.clock::get);
+    }
+
+    private OptionalLong admitAndRelease(final AdmissionControl admission, final String client) {
+        final var wait = admission.admit(client);
+        if (wait.isEmpty()) {
+            admission.release();
+        }
+        return wait;
+    }
+
+    private void advanceMillis(final long millis) {
+        this.clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.Test;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.mvc.Results;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public final class AdmissionFilterTest {
+
+    // The hex SHA-256 of "test"
+    private static final String TOKEN_DIGEST = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Test
+    public void clientsAreKeyedByAddress() throws Exception {
+        final var filter = filter();
+
+        assertEquals(Http.Status.OK, status(filter, request("203.0.113.1")));
+        assertEquals(Http.Status.TOO_MANY_REQUESTS, status(filter, request("203.0.113.1")));
+        assertEquals(Http.Status.OK, status(filter, request("203.0.113.2")));
+    }
+
+    @Test
+    public void listedTokensEarnTheirOwnAllowance() throws Exception {
+        final var filter = filter();
+
+        assertEquals(Http.Status.OK, status(filter, request("203.0.113.1")));
+        assertEquals(Http.Status.OK, status(filter, request("203.0.113.1", "Bearer test")));
+        assertEquals(Http.Status.TOO_MANY_REQUESTS, status(filter, request("203.0.113.9", "bearer test")));
+    }
+
+    @Test
+    public void unknownTokensAreKeyedByAddress() throws Exception {
+        final var filter = filter();
+
+        assertEquals(Http.Status.OK, status(filter, request("203.0.113.1")));
+        assertEquals(Http.Status.TOO_MANY_REQUESTS, status(filter, request("203.0.113.1", "Bearer guessed")));
+    }
+
+    @Test
+    public void rejectionsTellWhenToRetry() throws Exception {
+        final var filter = filter();
+
+        status(filter, request("203.0.113.1"));
+        final var rejected = filter.apply(AdmissionFilterTest::ok, request("203.0.113.1"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        assertEquals("10", rejected.header(Http.HeaderNames.RETRY_AFTER).orElseThrow());
+    }
+
+    private static AdmissionFilter filter() {
+        final var settings = new AdmissionSettings(ConfigFactory.parseString(
+            "enabled = true, rate = 0.1, burst = 1, max-concurrent = 10, max-clients = 100, sweep-interval = 1m"));
+        final var config = ConfigFactory.parseString(
+            "systemofadownload.admission.api-tokens { ore = \"" + TOKEN_DIGEST + "\" }");
+        return new AdmissionFilter(null, config, new AdmissionControl(settings, () -> 0L));
+    }
+
+    private static Http.RequestHeader request(final String address, final String... authorization) {
+        final var builder = new Http.RequestBuilder().method("GET").uri("/api/v2/search").remoteAddress(address);
+        for (final String value : authorization) {
+            builder.header(Http.HeaderNames.AUTHORIZATION, value);
+        }
+        return builder.build();
+    }
+
+    private static int status(final AdmissionFilter filter, final Http.RequestHeader request) throws Exception {
+        return filter.apply(AdmissionFilterTest::ok, request).toCompletableFuture().get(1, TimeUnit.SECONDS).status();
+    }
+
+    private static CompletableFuture<Result> ok(final Http.RequestHeader request) {
+        return CompletableFuture.completedFuture(Results.ok());
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.http;
+
+import akka.japi.Pair;
+import com.lightbend.lagom.javadsl.api.transport.RequestHeader;
+import com.lightbend.lagom.javadsl.api.transport.ResponseHeader;
+import org.spongepowered.downloads.artifact.api.ArtifactRevision;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Answers conditional requests for responses derived from an artifact at an
+ * {@link ArtifactRevision}, which serves as their strong entity tag and last
+ * modification time. A gzipped copy of such a response is a different
+ * representation, tagged with {@link #gzipEtag(ArtifactRevision)}, and
+ * either tag of a revision validates a request for it.
+ */
+public final class ConditionalResponses {
+
+    private static final ResponseHeader NOT_MODIFIED = ResponseHeader.OK.withStatus(304);
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * The strong entity tag of the gzipped representation at a revision.
+     *
+     * @param revision The revision the response is derived from
+     * @return The quoted entity tag
+     */
+    public static String gzipEtag(final ArtifactRevision revision) {
+        return "\"" + revision.revision() + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * Evaluates the conditional headers of the request against the revision,
+     * with {@code If-None-Match} taking precedence over
+     * {@code If-Modified-Since} as required by RFC 7232.
+     *
+     * @param revision The revision the response is derived from
+     * @param request The request headers
+     * @return Whether the client's representation is still current
+     */
+    public static boolean isNotModified(final ArtifactRevision revision, final RequestHeader request) {
+        return isNotModified(revision, request::getHeader);
+    }
+
+    /**
+     * Evaluates conditional headers looked up by name, for callers that see
+     * the request outside of a service call.
+     *
+     * @param revision The revision the response is derived from
+     * @param header Looks up a request header by name
+     * @return Whether the client's representation is still current
+     */
+    public static boolean isNotModified(
+        final ArtifactRevision revision, final Function<String, Optional<String>> header
+    ) {
+        final var ifNoneMatch = header.apply("If-None-Match");
+        if (ifNoneMatch.isPresent()) {
+            final var current = Long.toString(revision.revision());
+            for (final String candidate : ifNoneMatch.get().split(",")) {
+                final var trimmed = candidate.trim();
+                if (trimmed.equals("*") || opaqueRevision(trimmed).equals(current)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return header.apply("If-Modified-Since")
+            .map(since -> {
+                try {
+                    final var instant = DateTimeFormatter.RFC_1123_DATE_TIME.parse(since, Instant::from);
+                    return !revision.lastModified().truncatedTo(ChronoUnit.SECONDS).isAfter(instant);
+                } catch (DateTimeException e) {
+                    return false;
+                }
+            })
+            .orElse(false);
+    }
+
+    /**
+     * Whether the {@code If-None-Match} of the request names a newer revision
+     * than the given one, in which case whatever the revision was read from
+     * has not caught up with what the client has already seen.
+     *
+     * @param revision The revision that was read
+     * @param request The request headers
+     * @return Whether the client has seen a newer revision
+     */
+    public static boolean precedes(final ArtifactRevision revision, final RequestHeader request) {
+        return request.getHeader("If-None-Match")
+            .map(ifNoneMatch -> {
+                for (final String candidate : ifNoneMatch.split(",")) {
+                    try {
+                        if (Long.parseLong(opaqueRevision(candidate.trim())) > revision.revision()) {
+                            return true;
+                        }
+                    } catch (NumberFormatException e) {
+                        // Not a revision this service handed out
+                    }
+                }
+                return false;
+            })
+            .orElse(false);
+    }
+
+    /**
+     * Strips an entity tag of its weakness indicator, its quotes and the
+     * suffix of its content coding, leaving the revision it names.
+     */
+    private static String opaqueRevision(final String candidate) {
+        final var quoted = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+        if (quoted.length() < 2 || !quoted.startsWith("\"") || !quoted.endsWith("\"")) {
+            return "";
+        }
+        final var tag = quoted.substring(1, quoted.length() - 1);
+        return tag.endsWith(GZIP_SUFFIX) ? tag.substring(0, tag.length() - GZIP_SUFFIX.length()) : tag;
+    }
+
+    public static ResponseHeader withValidators(final ArtifactRevision revision, final ResponseHeader header) {
+        return header.withHeader("ETag", revision.etag())
+            .withHeader(
+                "Last-Modified",
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(revision.lastModified().atOffset(ZoneOffset.UTC))
+            );
+    }
+
+    /**
+     * Answers the request with {@code 304 Not Modified} if the client already
+     * has the revision, otherwise computes the body. Either way the response
+     * carries the revision's validators.
+     */
+    public static <T> Pair<ResponseHeader, T> respond(
+        final ArtifactRevision revision, final RequestHeader request, final Supplier<T> body
+    ) {
+        if (isNotModified(revision, request)) {
+            return Pair.create(withValidators(revision, NOT_MODIFIED), null);
+        }
+        return Pair.create(withValidators(revision, ResponseHeader.OK), body.get());
+    }
+
+    public static <T> CompletionStage<Pair<ResponseHeader, T>> respondAsync(
+        final ArtifactRevision revision, final RequestHeader request, final Supplier<CompletionStage<T>> body
+    ) {
+        if (isNotModified(revision, request)) {
+            return CompletableFuture.completedFuture(Pair.create(withValidators(revision, NOT_MODIFIED), null));
+        }
+        return body.get().thenApply(response -> Pair.create(withValidators(revision, ResponseHeader.OK), response));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.lightbend.lagom.javadsl.api.transport.RequestHeader;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.artifact.api.ArtifactRevision;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public final class ConditionalResponsesTest {
+
+    private static final ArtifactRevision REVISION = new ArtifactRevision(42, Instant.parse("2021-06-01T12:00:00.250Z"));
+
+    private static RequestHeader request(final String... headers) {
+        var request = RequestHeader.DEFAULT;
+        for (int i = 0; i < headers.length; i += 2) {
+            request = request.withHeader(headers[i], headers[i + 1]);
+        }
+        return request;
+    }
+
+    @Test
+    public void matchesTheCurrentTag() {
+        assertTrue(ConditionalResponses.isNotModified(REVISION, request("If-None-Match", "\"42\"")));
+        assertTrue(ConditionalResponses.isNotModified(REVISION, request("If-None-Match", "\"41\", \"42\"")));
+        assertTrue(ConditionalResponses.isNotModified(REVISION, request("If-None-Match", "*")));
+    }
+
+    @Test
+    public void matchesWeakAndGzipTagsOfTheRevision() {
+        assertTrue(ConditionalResponses.isNotModified(REVISION, request("If-None-Match", "W/\"42\"")));
+        assertTrue(ConditionalResponses.isNotModified(
+            REVISION, request("If-None-Match", ConditionalResponses.gzipEtag(REVISION))));
+        assertTrue(ConditionalResponses.isNotModified(REVISION, request("If-None-Match", "W/\"42-gzip\"")));
+    }
+
+    @Test
+    public void rejectsOtherAndUnquotedTags() {
+        assertFalse(ConditionalResponses.isNotModified(REVISION, request("If-None-Match", "\"41\"")));
+        assertFalse(ConditionalResponses.isNotModified(REVISION, request("If-None-Match", "42")));
+        assertFalse(ConditionalResponses.isNotModified(REVISION, request("If-None-Match", "\"420\"")));
+        assertFalse(ConditionalResponses.isNotModified(REVISION, request()));
+    }
+
+    @Test
+    public void comparesModificationTimesToTheSecond() {
+        assertTrue(ConditionalResponses.isNotModified(
+            REVISION, request("If-Modified-Since", "Tue, 1 Jun 2021 12:00:00 GMT")));
+        assertFalse(ConditionalResponses.isNotModified(
+            REVISION, request("If-Modified-Since", "Tue, 1 Jun 2021 11:59:59 GMT")));
+        assertFalse(ConditionalResponses.isNotModified(REVISION, request("If-Modified-Since", "yesterday")));
+    }
+
+    @Test
+    public void prefersTagsOverModificationTimes() {
+        assertFalse(ConditionalResponses.isNotModified(
+            REVISION,
+            header -> Optional.ofNullable(switch (header) {
+                case "If-None-Match" -> "\"41\"";
+                case "If-Modified-Since" -> "Tue, 1 Jun 2021 12:00:00 GMT";
+                default -> null;
+            })
+        ));
+    }
+
+    @Test
+    public void detectsClientsAheadOfTheRevision() {
+        assertTrue(ConditionalResponses.precedes(REVISION, request("If-None-Match", "\"43\"")));
+        assertTrue(ConditionalResponses.precedes(REVISION, request("If-None-Match", "\"43-gzip\"")));
+        assertFalse(ConditionalResponses.precedes(REVISION, request("If-None-Match", "\"42\", \"17\"")));
+        assertFalse(ConditionalResponses.precedes(REVISION, request("If-None-Match", "*")));
+        assertFalse(ConditionalResponses.precedes(REVISION, request()));
+    }
+
+    @Test
+    public void answersCurrentClientsWithoutABody() {
+        final var response = ConditionalResponses.respond(
+            REVISION, request("If-None-Match", "\"42\""), () -> "body");
+
+        assertEquals(304, response.first().status());
+        assertNull(response.second());
+        assertEquals(Optional.of("\"42\""), response.first().getHeader("ETag"));
+        assertEquals(Optional.of("Tue, 1 Jun 2021 12:00:00 GMT"), response.first().getHeader("Last-Modified"));
+    }
+
+    @Test
+    public void answersStaleClientsWithTheBody() {
+        final var response = ConditionalResponses.respond(
+            REVISION, request("If-None-Match", "\"41\""), () -> "body");
+
+        assertEquals(200, response.first().status());
+        assertEquals("body", response.second());
+        assertEquals(Optional.of("\"42\""), response.first().getHeader("ETag"));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.jpa;
+
+import com.lightbend.lagom.javadsl.api.deser.ExceptionMessage;
+import com.lightbend.lagom.javadsl.api.transport.TransportErrorCode;
+import com.lightbend.lagom.javadsl.api.transport.TransportException;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many transactions of one kind run at once and how many more may
+ * wait for their turn, so a burst of slow work cannot take every connection
+ * from everything else. Waiting holds no thread, and once the queue is full
+ * work is refused right away with 503 Service Unavailable rather than left to
+ * queue forever.
+ */
+public final class JpaBulkhead implements JpaBulkheadMXBean {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Queue<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+    private int active = 0;
+    private long completed = 0;
+    private long rejected = 0;
+
+    JpaBulkhead(final String name, final int maxConcurrent, final int maxQueued) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Starts the work as soon as the bulkhead has room for it.
+     *
+     * @param work Starts the transaction, such as {@code () -> session.withTransaction(block)}
+     * @param <T> The result type
+     * @return The result of the work, or a {@link TransportException} with
+     *     {@link TransportErrorCode#ServiceUnavailable} when the bulkhead is full
+     */
+    public <T> CompletionStage<T> run(final Supplier<? extends CompletionStage<T>> work) {
+        final CompletableFuture<Void> turn;
+        synchronized (this) {
+            if (this.active < this.maxConcurrent) {
+                this.active++;
+                turn = CompletableFuture.completedFuture(null);
+            } else if (this.waiting.size() < this.maxQueued) {
+                turn = new CompletableFuture<>();
+                this.waiting.add(turn);
+            } else {
+                this.rejected++;
+                return CompletableFuture.failedFuture(new TransportException(
+                    TransportErrorCode.ServiceUnavailable,
+                    new ExceptionMessage("Service Unavailable", "too many " + this.name + " transactions")
+                ));
+            }
+        }
+        return turn
+            .thenCompose(ignored -> {
+                try {
+                    return work.get();
+                } catch (RuntimeException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            })
+            .whenComplete((result, failure) -> this.release());
+    }
+
+    private void release() {
+        final CompletableFuture<Void> next;
+        synchronized (this) {
+            this.completed++;
+            next = this.waiting.poll();
+            // The turn passes straight to the next in line, so active stays as it is
+            if (next == null) {
+                this.active--;
+            }
+        }
+        if (next != null) {
+            next.complete(null);
+        }
+    }
+
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    public int getMaxConcurrent() {
+        return this.maxConcurrent;
+    }
+
+    @Override
+    public int getMaxQueued() {
+        return this.maxQueued;
+    }
+
+    @Override
+    public synchronized int getActive() {
+        return this.active;
+    }
+
+    @Override
+    public synchronized int getQueued() {
+        return this.waiting.size();
+    }
+
+    @Override
+    public synchronized double getUtilization() {
+        return (double) this.active / this.maxConcurrent;
+    }
+
+    @Override
+    public synchronized long getCompleted() {
+        return this.completed;
+    }
+
+    @Override
+    public synchronized long getRejected() {
+        return this.rejected;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.jpa;
+
+import com.typesafe.config.Config;
+import play.inject.ApplicationLifecycle;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link JpaBulkhead}s of a service by name, each configured under
+ * {@code systemofadownload.jpa.bulkheads.<name>} with the {@code default}
+ * as fallback, and each registered as an MBean so its utilization can be
+ * watched.
+ */
+@Singleton
+public final class JpaBulkheads {
+
+    private final Config config;
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private final ConcurrentMap<String, JpaBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    @Inject
+    public JpaBulkheads(final Config config, final ApplicationLifecycle lifecycle) {
+        this.config = config.getConfig("systemofadownload.jpa.bulkheads");
+        lifecycle.addStopHook(() -> {
+            this.bulkheads.keySet().forEach(this::unregister);
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    public JpaBulkhead get(final String name) {
+        return this.bulkheads.computeIfAbsent(name, this::create);
+    }
+
+    private JpaBulkhead create(final String name) {
+        final var defaults = this.config.getConfig("default");
+        final var settings = this.config.hasPath(name)
+            ? this.config.getConfig(name).withFallback(defaults)
+            : defaults;
+        final var bulkhead = new JpaBulkhead(
+            name, settings.getInt("max-concurrent"), settings.getInt("max-queued"));
+        try {
+            this.server.registerMBean(bulkhead, objectName(name));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the " + name + " bulkhead", e);
+        }
+        return bulkhead;
+    }
+
+    private void unregister(final String name) {
+        try {
+            this.server.unregisterMBean(objectName(name));
+        } catch (JMException e) {
+            // Already gone with the server
+        }
+    }
+
+    private static ObjectName objectName(final String name) throws JMException {
+        return new ObjectName("org.spongepowered.downloads:type=JpaBulkhead,name=" + ObjectName.quote(name));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.jpa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.lightbend.lagom.javadsl.api.transport.TransportErrorCode;
+import com.lightbend.lagom.javadsl.api.transport.TransportException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+public final class JpaBulkheadTest {
+
+    @Test
+    public void queuesOnceFullAndRejectsOnceQueueIsFull() throws Exception {
+        final var bulkhead = new JpaBulkhead("test", 2, 1);
+        final var first = new Work();
+        final var second = new Work();
+        final var third = new Work();
+        final var fourth = new Work();
+
+        final var firstResult = bulkhead.run(first);
+        bulkhead.run(second);
+        final var thirdResult = bulkhead.run(third);
+        final var fourthResult = bulkhead.run(fourth).toCompletableFuture();
+
+        assertTrue(first.started && second.started);
+        assertFalse(third.started);
+        assertEquals(2, bulkhead.getActive());
+        assertEquals(1, bulkhead.getQueued());
+        assertFalse(fourth.started);
+        assertEquals(TransportErrorCode.ServiceUnavailable, failure(fourthResult).errorCode());
+        assertEquals(1, bulkhead.getRejected());
+
+        first.result.complete("first");
+        assertEquals("first", firstResult.toCompletableFuture().get());
+        // The turn passes to the queued work
+        assertTrue(third.started);
+        assertEquals(2, bulkhead.getActive());
+        assertEquals(0, bulkhead.getQueued());
+
+        second.result.complete("second");
+        third.result.complete("third");
+        assertEquals("third", thirdResult.toCompletableFuture().get());
+        assertEquals(0, bulkhead.getActive());
+        assertEquals(3, bulkhead.getCompleted());
+    }
+
+    @Test
+    public void startsQueuedWorkInOrder() {
+        final var bulkhead = new JpaBulkhead("test", 1, 3);
+        final var started = new ArrayList<String>();
+        final var running = new Work();
+        bulkhead.run(running);
+        for (final String name : List.of("a", "b", "c")) {
+            bulkhead.run(() -> {
+                started.add(name);
+                return CompletableFuture.completedFuture(name);
+            });
+        }
+
+        running.result.complete("done");
+
+        assertEquals(List.of("a", "b", "c"), started);
+        assertEquals(0, bulkhead.getActive());
+    }
+
+    @Test
+    public void failedWorkFreesItsPlace() {
+        final var bulkhead = new JpaBulkhead("test", 1, 0);
+
+        final var thrown = bulkhead.run(() -> {
+            throw new IllegalStateException("no connection");
+        }).toCompletableFuture();
+        final var failed = bulkhead.run(() -> CompletableFuture.failedFuture(new IllegalStateException("rollback")))
+            .toCompletableFuture();
+
+        assertTrue(thrown.isCompletedExceptionally());
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(0, bulkhead.getActive());
+        assertEquals(0, bulkhead.getRejected());
+        assertEquals(2, bulkhead.getCompleted());
+    }
+
+    private static TransportException failure(final CompletableFuture<?> result) {
+        final var cause = assertThrows(ExecutionException.class, result::get).getCause();
+        assertTrue(cause instanceof TransportException, cause::toString);
+        return (TransportException) cause;
+    }
+
+    private static final class Work implements Supplier<CompletionStage<String>> {
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        boolean started = false;
+
+        @Override
+        public CompletionStage<String> get() {
+            this.started = true;
+            return this.result;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.replica;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import com.lightbend.lagom.javadsl.persistence.jpa.JpaSession;
+import com.typesafe.config.Config;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.spongepowered.downloads.jpa.JpaBulkhead;
+import org.spongepowered.downloads.jpa.JpaBulkheads;
+import play.inject.ApplicationLifecycle;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs the read-only transactions of the query services, on a streaming
+ * replica of the primary database when one is configured and current, on
+ * the primary through the {@link JpaSession} otherwise. Either way the
+ * session treats everything as read-only and never flushes.
+ *
+ * <p>Two guards keep replica reads fresh. Every {@code check-interval} the
+ * replica's replay position is compared with the primary's write ahead log
+ * position, and while it trails by more than {@code max-lag} bytes, or cannot
+ * be checked at all, transactions go to the primary. A transaction that finds
+ * the replica has not yet replayed something the client has already seen,
+ * such as a newer artifact revision, calls {@link #requireFresh(boolean)} and
+ * is run again on the primary. A server that is not a standby has no replay
+ * position and is always considered current.
+ *
+ * <p>Every transaction, wherever it runs, goes through the {@code query}
+ * {@link JpaBulkhead} unless given a bulkhead of its own, which refuses it
+ * with 503 once too many are running and waiting already.
+ */
+@Singleton
+public final class ReadOnlySession {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadOnlySession.class);
+    private static final ThreadLocal<Boolean> ON_REPLICA = ThreadLocal.withInitial(() -> false);
+
+    private final JpaSession primary;
+    private final JpaBulkhead bulkhead;
+    private final ReplicaSettings settings;
+    private final Replica replica;
+    private final AtomicBoolean checking = new AtomicBoolean();
+    private volatile boolean current = false;
+
+    @Inject
+    public ReadOnlySession(
+        final Config config,
+        final JpaSession primary,
+        final JpaBulkheads bulkheads,
+        final ActorSystem system,
+        final ApplicationLifecycle lifecycle
+    ) {
+        this.primary = primary;
+        this.bulkhead = bulkheads.get("query");
+        this.settings = new ReplicaSettings(config.getConfig("systemofadownload.replica"));
+        if (!this.settings.enabled) {
+            this.replica = null;
+            return;
+        }
+        this.replica = Replica.open(
+            config.getString("lagom.persistence.jpa.persistence-unit"), this.settings, lifecycle);
+        final Cancellable check = system.scheduler().scheduleWithFixedDelay(
+            Duration.ZERO, this.settings.checkInterval, this::checkLag, system.dispatcher());
+        // Stop hooks run in reverse, so the check is cancelled before the replica closes
+        lifecycle.addStopHook(() -> {
+            check.cancel();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    ReadOnlySession(
+        final JpaSession primary, final JpaBulkhead bulkhead, final ReplicaSettings settings, final Replica replica
+    ) {
+        this.primary = primary;
+        this.bulkhead = bulkhead;
+        this.settings = settings;
+        this.replica = replica;
+    }
+
+    /**
+     * The connections to the replica, and the threads its blocking
+     * transactions run on.
+     */
+    record Replica(EntityManagerFactory entityManagers, ExecutorService executor) {
+
+        static Replica open(
+            final String persistenceUnit, final ReplicaSettings settings, final ApplicationLifecycle lifecycle
+        ) {
+            final var pool = new HikariConfig();
+            pool.setPoolName("replica");
+            pool.setJdbcUrl(settings.url);
+            pool.setUsername(settings.username);
+            pool.setPassword(settings.password);
+            pool.setMaximumPoolSize(settings.poolSize);
+            pool.setReadOnly(true);
+            final var dataSource = new HikariDataSource(pool);
+            // The same persistence unit as the primary, only connected to the replica
+            final var entityManagers = Persistence.createEntityManagerFactory(
+                persistenceUnit, Map.of(AvailableSettings.JPA_NON_JTA_DATASOURCE, dataSource));
+            final var threads = new AtomicInteger();
+            final var executor = Executors.newFixedThreadPool(settings.poolSize, runnable -> {
+                final var thread = new Thread(runnable, "replica-jpa-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            lifecycle.addStopHook(() -> {
+                executor.shutdown();
+                entityManagers.close();
+                dataSource.close();
+                return CompletableFuture.completedFuture(null);
+            });
+            return new Replica(entityManagers, executor);
+        }
+    }
+
+    /**
+     * Runs the block in a read-only transaction, on the replica if it is
+     * current and on the primary otherwise.
+     */
+    public <T> CompletionStage<T> withTransaction(final Function<EntityManager, T> block) {
+        return this.withTransaction(this.bulkhead, block);
+    }
+
+    /**
+     * Runs the block in a read-only transaction like
+     * {@link #withTransaction(Function)}, only through the given bulkhead
+     * instead of the {@code query} bulkhead, for transactions that stay open
+     * much longer than a request and must not crowd out the ones that don't.
+     */
+    public <T> CompletionStage<T> withTransaction(
+        final JpaBulkhead bulkhead, final Function<EntityManager, T> block
+    ) {
+        return bulkhead.run(() -> this.route(block));
+    }
+
+    <T> CompletionStage<T> route(final Function<EntityManager, T> block) {
+        if (this.replica == null || !this.current) {
+            return this.onPrimary(block);
+        }
+        return this.onReplica(block).exceptionallyCompose(failure -> {
+            final var cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+            if (cause instanceof StaleReplica) {
+                return this.onPrimary(block);
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    /**
+     * Aborts a transaction running on the replica so it runs again on the
+     * primary, unless what it read is fresh enough. Does nothing on the
+     * primary.
+     *
+     * @param fresh Whether what the transaction read is recent enough to answer with
+     */
+    public static void requireFresh(final boolean fresh) {
+        if (!fresh && ON_REPLICA.get()) {
+            throw new StaleReplica();
+        }
+    }
+
+    private <T> CompletionStage<T> onPrimary(final Function<EntityManager, T> block) {
+        return this.primary.withTransaction(em -> {
+            readOnly(em);
+            return block.apply(em);
+        });
+    }
+
+    private <T> CompletableFuture<T> onReplica(final Function<EntityManager, T> block) {
+        return CompletableFuture.supplyAsync(() -> {
+            final var em = this.replica.entityManagers().createEntityManager();
+            final var transaction = em.getTransaction();
+            ON_REPLICA.set(true);
+            try {
+                transaction.begin();
+                readOnly(em);
+                return block.apply(em);
+            } finally {
+                ON_REPLICA.set(false);
+                // Nothing was written, so there is nothing to commit either
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                em.close();
+            }
+        }, this.replica.executor());
+    }
+
+    private static void readOnly(final EntityManager em) {
+        final var hibernate = em.unwrap(Session.class);
+        hibernate.setDefaultReadOnly(true);
+        hibernate.setHibernateFlushMode(FlushMode.MANUAL);
+    }
+
+    /*
+    Completes once the check has, or right away if one is already running.
+     */
+    CompletionStage<?> checkLag() {
+        if (!this.checking.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return this.primary.withTransaction(em -> (String) em
+                .createNativeQuery("select cast(pg_current_wal_lsn() as text)")
+                .getSingleResult())
+            .thenCompose(position -> this.onReplica(em -> (Number) em
+                .createNativeQuery("select pg_wal_lsn_diff(cast(:position as pg_lsn), pg_last_wal_replay_lsn())")
+                .setParameter("position", position)
+                .getSingleResult()))
+            .whenComplete((lag, failure) -> {
+                final var wasCurrent = this.current;
+                // Not being a standby at all leaves the replay position null
+                this.current = failure == null && (lag == null || lag.longValue() <= this.settings.maxLag);
+                if (failure != null && wasCurrent) {
+                    LOGGER.warn("Could not check the replica, reading from the primary", failure);
+                } else if (wasCurrent != this.current) {
+                    LOGGER.info(
+                        this.current ? "Replica caught up, {} bytes behind" : "Replica fell {} bytes behind",
+                        lag
+                    );
+                }
+                this.checking.set(false);
+            });
+    }
+
+    private static final class StaleReplica extends RuntimeException {
+
+        StaleReplica() {
+            super("The replica has not replayed what the client has already seen", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.replica;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+public final class ReplicaSettings {
+
+    public final boolean enabled;
+    public final String url;
+    public final String username;
+    public final String password;
+    public final int poolSize;
+    public final long maxLag;
+    public final Duration checkInterval;
+
+    ReplicaSettings(final Config config) {
+        this.enabled = config.getBoolean("enabled");
+        this.url = config.getString("url");
+        this.username = config.getString("username");
+        this.password = config.getString("password");
+        this.poolSize = config.getInt("pool-size");
+        this.maxLag = config.getBytes("max-lag");
+        this.checkInterval = config.getDuration("check-interval");
+    }
+}
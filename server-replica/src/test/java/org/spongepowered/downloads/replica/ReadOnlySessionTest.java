@@ -0,0 +1,229 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.replica;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.lightbend.lagom.javadsl.persistence.jpa.JpaSession;
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.Query;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public final class ReadOnlySessionTest {
+
+    private static final long MAX_LAG = 1024 * 1024;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final List<String> transactions = new ArrayList<>();
+    private volatile Object lag = 0L;
+    private volatile boolean replicaTransactionActive = false;
+
+    private final ReadOnlySession session = new ReadOnlySession(
+        proxy(JpaSession.class, (method, args) -> {
+            @SuppressWarnings("unchecked") final var block = (Function<EntityManager, Object>) args[0];
+            try {
+                return CompletableFuture.completedFuture(block.apply(this.entityManager("primary")));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }),
+        null,
+        new ReplicaSettings(ConfigFactory.parseString("""
+            enabled = true
+            url = "jdbc:postgresql://localhost:5433/journal"
+            username = admin
+            password = password
+            pool-size = 1
+            max-lag = %d
+            check-interval = 1s
+            """.formatted(MAX_LAG))),
+        new ReadOnlySession.Replica(
+            proxy(EntityManagerFactory.class, (method, args) -> this.entityManager("replica")), this.executor)
+    );
+
+    @AfterEach
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    /*
+    An entity manager that names the database it is connected to, answers the two
+    statements of the lag check, and records every transaction started on the replica.
+     */
+    private EntityManager entityManager(final String database) {
+        return proxy(EntityManager.class, (method, args) -> switch (method) {
+            case "toString" -> database;
+            case "unwrap" -> proxy((Class<?>) args[0], (ignored, none) -> null);
+            case "close" -> null;
+            case "getTransaction" -> proxy(EntityTransaction.class, (transaction, none) -> switch (transaction) {
+                case "begin" -> {
+                    this.replicaTransactionActive = true;
+                    yield null;
+                }
+                case "rollback" -> {
+                    this.replicaTransactionActive = false;
+                    yield null;
+                }
+                case "isActive" -> this.replicaTransactionActive;
+                default -> throw new UnsupportedOperationException(transaction);
+            });
+            case "createNativeQuery" -> {
+                final var self = new Object[1];
+                self[0] = proxy(Query.class, (query, queryArgs) -> switch (query) {
+                    case "setParameter" -> self[0];
+                    case "getSingleResult" -> {
+                        if (database.equals("primary")) {
+                            yield "0/3000060";
+                        }
+                        if (this.lag instanceof RuntimeException failure) {
+                            throw failure;
+                        }
+                        yield this.lag;
+                    }
+                    default -> throw new UnsupportedOperationException(query);
+                });
+                yield self[0];
+            }
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(final Class<T> type, final Handler handler) {
+        return type.cast(Proxy.newProxyInstance(
+            ReadOnlySessionTest.class.getClassLoader(), new Class<?>[]{type},
+            (proxy, method, args) -> handler.invoke(method.getName(), args)
+        ));
+    }
+
+    private void checkLag(final Object lag) {
+        this.lag = lag;
+        this.session.checkLag().toCompletableFuture().handle((result, failure) -> null).join();
+    }
+
+    private String read() {
+        return this.read(em -> {
+        });
+    }
+
+    private String read(final Consumer<EntityManager> block) {
+        return this.session.<String>route(em -> {
+            this.transactions.add(em.toString());
+            block.accept(em);
+            return em.toString();
+        }).toCompletableFuture().join();
+    }
+
+    @Test
+    public void readsFromThePrimaryUntilTheReplicaIsChecked() {
+        assertEquals("primary", this.read());
+    }
+
+    @Test
+    public void readsFromACurrentReplica() {
+        this.checkLag(MAX_LAG);
+
+        assertEquals("replica", this.read());
+        assertFalse(this.replicaTransactionActive);
+    }
+
+    @Test
+    public void readsFromThePrimaryWhileTheReplicaLags() {
+        this.checkLag(MAX_LAG + 1);
+        assertEquals("primary", this.read());
+
+        this.checkLag(0L);
+        assertEquals("replica", this.read());
+    }
+
+    @Test
+    public void aServerThatIsNotAStandbyIsCurrent() {
+        this.checkLag(null);
+
+        assertEquals("replica", this.read());
+    }
+
+    @Test
+    public void readsFromThePrimaryWhenTheReplicaCannotBeChecked() {
+        this.checkLag(0L);
+        this.checkLag(new IllegalStateException("replica is down"));
+
+        assertEquals("primary", this.read());
+    }
+
+    @Test
+    public void staleReadsRunAgainOnThePrimary() {
+        this.checkLag(0L);
+
+        final var database = this.read(em -> ReadOnlySession.requireFresh(!em.toString().equals("replica")));
+
+        assertEquals("primary", database);
+        assertEquals(List.of("replica", "primary"), this.transactions);
+        assertFalse(this.replicaTransactionActive);
+    }
+
+    @Test
+    public void freshnessIsOnlyRequiredOnTheReplica() {
+        assertDoesNotThrow(() -> ReadOnlySession.requireFresh(false));
+        assertEquals("primary", this.read(em -> ReadOnlySession.requireFresh(false)));
+        assertEquals(List.of("primary"), this.transactions);
+    }
+
+    @Test
+    public void otherFailuresOnTheReplicaAreNotRetried() {
+        this.checkLag(0L);
+        final var failure = new IllegalStateException("broken query");
+
+        final var thrown = assertThrows(CompletionException.class, () -> this.read(em -> {
+            throw failure;
+        }));
+
+        assertSame(failure, thrown.getCause());
+        assertEquals(List.of("replica"), this.transactions);
+        assertFalse(this.replicaTransactionActive);
+    }
+}
@@ -0,0 +1,123 @@
+set search_path to version;
+create or replace function refreshArtifactSummary(in requested_artifact_id varchar(255),
+                                                  in requested_group_id varchar(255)) returns int as
+'
+    declare
+        affected int;
+    begin
+        set search_path to version;
+
+        -- Taken by recordArtifactVersion as well, so a version recorded while the summary is
+        -- computed is either part of it or counted on top of it once it is written
+        perform 1
+        from artifacts a
+        where a.group_id = requested_group_id
+          and a.artifact_id = requested_artifact_id
+            for no key update;
+
+        insert into artifact_version_summaries as s (artifact_id, version_count, recommended_count,
+                                                     unrecommended_count, latest_version, latest_sort_key,
+                                                     latest_recommended_version, latest_recommended_sort_key,
+                                                     latest_unrecommended_version, latest_unrecommended_sort_key)
+        select a.id,
+               counts.version_count,
+               counts.recommended_count,
+               counts.unrecommended_count,
+               latest.version,
+               latest.sort_key,
+               latest_recommended.version,
+               latest_recommended.sort_key,
+               latest_unrecommended.version,
+               latest_unrecommended.sort_key
+        from artifacts a
+                 cross join lateral (select count(*)                                                         as version_count,
+                                            count(*) filter (where v.recommended or v.manual_recommendation) as recommended_count,
+                                            count(*) filter (where not v.recommended or not v.manual_recommendation) as unrecommended_count
+                                     from artifact_versions v
+                                     where v.artifact_id = a.id) as counts
+                 left join lateral (select v.version, v.sort_key
+                                    from artifact_versions v
+                                    where v.artifact_id = a.id
+                                    order by v.sort_key desc nulls last, v.version collate "C" desc
+                                    limit 1) as latest on true
+                 left join lateral (select v.version, v.sort_key
+                                    from artifact_versions v
+                                    where v.artifact_id = a.id
+                                      and (v.recommended or v.manual_recommendation)
+                                    order by v.sort_key desc nulls last, v.version collate "C" desc
+                                    limit 1) as latest_recommended on true
+                 left join lateral (select v.version, v.sort_key
+                                    from artifact_versions v
+                                    where v.artifact_id = a.id
+                                      and (not v.recommended or not v.manual_recommendation)
+                                    order by v.sort_key desc nulls last, v.version collate "C" desc
+                                    limit 1) as latest_unrecommended on true
+        where a.group_id = requested_group_id
+          and a.artifact_id = requested_artifact_id
+        on conflict (artifact_id) do update
+            set version_count                 = excluded.version_count,
+                recommended_count             = excluded.recommended_count,
+                unrecommended_count           = excluded.unrecommended_count,
+                latest_version                = excluded.latest_version,
+                latest_sort_key               = excluded.latest_sort_key,
+                latest_recommended_version    = excluded.latest_recommended_version,
+                latest_recommended_sort_key   = excluded.latest_recommended_sort_key,
+                latest_unrecommended_version  = excluded.latest_unrecommended_version,
+                latest_unrecommended_sort_key = excluded.latest_unrecommended_sort_key;
+        get diagnostics affected = ROW_COUNT;
+        reset search_path;
+        return affected;
+    end;
+' language plpgsql;
+
+create or replace function recordArtifactVersion(in requested_artifact bigint,
+                                                 in new_version varchar(255),
+                                                 in new_sort_key bytea) returns int as
+'
+    begin
+        set search_path to version;
+
+        -- Waits on a refresh of the summary computed without this version
+        perform 1 from artifacts a where a.id = requested_artifact for no key update;
+
+        -- Newly registered versions are never recommended until the recommendations are refreshed
+        insert into artifact_version_summaries as s (artifact_id, version_count, recommended_count,
+                                                     unrecommended_count, latest_version, latest_sort_key,
+                                                     latest_unrecommended_version, latest_unrecommended_sort_key)
+        values (requested_artifact, 1, 0, 1, new_version, new_sort_key, new_version, new_sort_key)
+        on conflict (artifact_id) do update
+            set version_count                 = s.version_count + 1,
+                unrecommended_count           = s.unrecommended_count + 1,
+                latest_version                = case
+                                                    when s.latest_sort_key is null
+                                                        or s.latest_sort_key < new_sort_key
+                                                        or (s.latest_sort_key = new_sort_key and
+                                                            s.latest_version collate "C" < new_version)
+                                                        then new_version
+                                                    else s.latest_version end,
+                latest_sort_key               = case
+                                                    when s.latest_sort_key is null
+                                                        or s.latest_sort_key < new_sort_key
+                                                        or (s.latest_sort_key = new_sort_key and
+                                                            s.latest_version collate "C" < new_version)
+                                                        then new_sort_key
+                                                    else s.latest_sort_key end,
+                latest_unrecommended_version  = case
+                                                    when s.latest_unrecommended_sort_key is null
+                                                        or s.latest_unrecommended_sort_key < new_sort_key
+                                                        or (s.latest_unrecommended_sort_key = new_sort_key and
+                                                            s.latest_unrecommended_version collate "C" < new_version)
+                                                        then new_version
+                                                    else s.latest_unrecommended_version end,
+                latest_unrecommended_sort_key = case
+                                                    when s.latest_unrecommended_sort_key is null
+                                                        or s.latest_unrecommended_sort_key < new_sort_key
+                                                        or (s.latest_unrecommended_sort_key = new_sort_key and
+                                                            s.latest_unrecommended_version collate "C" < new_version)
+                                                        then new_sort_key
+                                                    else s.latest_unrecommended_sort_key end;
+        reset search_path;
+        return 1;
+    end;
+' language plpgsql;
+reset search_path;
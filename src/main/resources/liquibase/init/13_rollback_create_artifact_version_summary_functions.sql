@@ -0,0 +1,4 @@
+set search_path to version;
+drop function if exists refreshArtifactSummary(varchar(255), varchar(255));
+drop function if exists recordArtifactVersion(bigint, varchar(255), bytea);
+reset search_path;
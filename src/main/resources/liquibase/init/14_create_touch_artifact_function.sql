@@ -0,0 +1,20 @@
+set search_path to version;
+create or replace function touchArtifact(in requested_artifact_id varchar(255),
+                                         in requested_group_id varchar(255)) returns int as
+'
+    declare
+        affected int;
+    begin
+        set search_path to version;
+
+        update artifacts a
+        set revision      = a.revision + 1,
+            last_modified = now()
+        where a.group_id = requested_group_id
+          and a.artifact_id = requested_artifact_id;
+        get diagnostics affected = ROW_COUNT;
+        reset search_path;
+        return affected;
+    end;
+' language plpgsql;
+reset search_path;
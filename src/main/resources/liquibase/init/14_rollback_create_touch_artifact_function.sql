@@ -0,0 +1,3 @@
+set search_path to version;
+drop function if exists touchArtifact(varchar(255), varchar(255));
+reset search_path;
@@ -0,0 +1,75 @@
+set search_path to version;
+create or replace function refreshArtifactTagFacets(in requested_artifact_id varchar(255),
+                                                    in requested_group_id varchar(255)) returns int as
+'
+    declare
+        affected int;
+    begin
+        set search_path to version;
+
+        -- Taken by recordVersionTagFacets as well, so a version recorded while the facets are
+        -- counted is either part of the counts or added on top of them once they are written
+        perform 1
+        from artifacts a
+        where a.group_id = requested_group_id
+          and a.artifact_id = requested_artifact_id
+            for no key update;
+
+        delete
+        from artifact_tag_facets f
+            using artifacts a
+        where f.artifact_id = a.id
+          and a.group_id = requested_group_id
+          and a.artifact_id = requested_artifact_id;
+
+        insert into artifact_tag_facets (artifact_id, tag_name, tag_value, version_count, recommended_count)
+        select tagged.artifact_id,
+               tagged.tag_name,
+               tagged.tag_value,
+               count(*),
+               count(*) filter (where tagged.recommended)
+        from (select a.id                                                        as artifact_id,
+                     t.tag_name,
+                     (regexp_match(v.version, t.tag_regex))[t.use_capture_group] as tag_value,
+                     v.recommended or v.manual_recommendation                    as recommended
+              from artifacts a
+                       inner join artifact_versions v on v.artifact_id = a.id
+                       inner join artifact_tags t on t.artifact_id = a.id
+              where a.group_id = requested_group_id
+                and a.artifact_id = requested_artifact_id) as tagged
+        where tagged.tag_value is not null
+        group by tagged.artifact_id, tagged.tag_name, tagged.tag_value;
+        get diagnostics affected = ROW_COUNT;
+        reset search_path;
+        return affected;
+    end;
+' language plpgsql;
+
+create or replace function recordVersionTagFacets(in requested_artifact bigint,
+                                                  in new_version varchar(255)) returns int as
+'
+    declare
+        affected int;
+    begin
+        set search_path to version;
+
+        -- Waits on a refresh of the facets counted without this version
+        perform 1 from artifacts a where a.id = requested_artifact for no key update;
+
+        -- Newly registered versions are never recommended until the recommendations are refreshed
+        insert into artifact_tag_facets as f (artifact_id, tag_name, tag_value, version_count, recommended_count)
+        select tagged.artifact_id, tagged.tag_name, tagged.tag_value, 1, 0
+        from (select t.artifact_id,
+                     t.tag_name,
+                     (regexp_match(new_version, t.tag_regex))[t.use_capture_group] as tag_value
+              from artifact_tags t
+              where t.artifact_id = requested_artifact) as tagged
+        where tagged.tag_value is not null
+        on conflict (artifact_id, tag_name, tag_value) do update
+            set version_count = f.version_count + 1;
+        get diagnostics affected = ROW_COUNT;
+        reset search_path;
+        return affected;
+    end;
+' language plpgsql;
+reset search_path;
@@ -0,0 +1,4 @@
+set search_path to version;
+drop function if exists refreshArtifactTagFacets(varchar(255), varchar(255));
+drop function if exists recordVersionTagFacets(bigint, varchar(255));
+reset search_path;
@@ -56,6 +56,7 @@ public class ArtifactSyncExtension extends AbstractExtensionId<ArtifactSyncExten
         public final int poolSize;
         public final int versionFanoutParallelism;
         public final int parallelism;
+        public final int batchSize;
         public final Duration timeOut;
         public final Duration individualTimeOut;
 
@@ -63,6 +64,7 @@ public class ArtifactSyncExtension extends AbstractExtensionId<ArtifactSyncExten
             this.poolSize = config.getInt("pool-size");
             this.versionFanoutParallelism = config.getInt("fan-out-parallelism");
             this.parallelism = config.getInt("parallelism");
+            this.batchSize = config.getInt("batch-size");
             this.timeOut = Duration.ofSeconds(config.getDuration("time-out", TimeUnit.SECONDS));
             this.individualTimeOut = Duration.ofSeconds(config.getDuration("registration-time-out", TimeUnit.SECONDS));
 
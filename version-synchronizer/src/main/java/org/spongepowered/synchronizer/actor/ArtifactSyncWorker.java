@@ -99,7 +99,7 @@ public final class ArtifactSyncWorker {
             final AuthUtils auth = AuthUtils.configure(ctx.getSystem().settings().config());
             final var pool = Routers.pool(
                 settings.poolSize,
-                Behaviors.supervise(registerNewVersion(versionService, auth)).onFailure(SupervisorStrategy.restart())
+                Behaviors.supervise(registerNewVersions(versionService, auth)).onFailure(SupervisorStrategy.restart())
             );
             final var registrationRef = ctx.spawn(
                 pool,
@@ -108,12 +108,12 @@ public final class ArtifactSyncWorker {
             );
             final var flow = ActorFlow.ask(
                 settings.versionFanoutParallelism, registrationRef, settings.timeOut,
-                RequestSingleRegistration::new
+                RequestBatchRegistration::new
             );
 
-            final Flow<MavenCoordinates, NotUsed, NotUsed> fanOutVersions = Flow.fromGraph(
+            final Flow<List<MavenCoordinates>, NotUsed, NotUsed> fanOutBatches = Flow.fromGraph(
                 GraphDSL.create(b -> {
-                    final UniformFanOutShape<MavenCoordinates, MavenCoordinates> balance = b.add(
+                    final UniformFanOutShape<List<MavenCoordinates>, List<MavenCoordinates>> balance = b.add(
                         Balance.create(settings.parallelism));
                     final UniformFanInShape<NotUsed, NotUsed> merge = b.add(Merge.create(settings.parallelism));
                     IntStream.range(0, settings.parallelism)
@@ -122,13 +122,13 @@ public final class ArtifactSyncWorker {
                             .toInlet(merge.in(i)));
                     return FlowShape.of(balance.in(), merge.out());
                 }));
-            return awaiting(clusterSharding, fanOutVersions, settings);
+            return awaiting(clusterSharding, fanOutBatches, settings);
         });
     }
 
     private static Behavior<Command> awaiting(
         final ClusterSharding clusterSharding,
-        final Flow<MavenCoordinates, NotUsed, NotUsed> fanOutVersions,
+        final Flow<List<MavenCoordinates>, NotUsed, NotUsed> fanOutBatches,
         final ArtifactSyncExtension.Settings settings
     ) {
         return Behaviors.setup(ctx -> Behaviors.receive(Command.class)
@@ -151,7 +151,9 @@ public final class ArtifactSyncWorker {
                                 Logging.WarningLevel(),
                                 Logging.ErrorLevel()
                             ))
-                            .via(fanOutVersions.async())
+                            .grouped(settings.batchSize)
+                            .map(List::ofAll)
+                            .via(fanOutBatches.async())
                             .to(Sink.ignore())
                             .run(ctx.getSystem());
                         return new WrappedResult(msg.replyTo);
@@ -177,65 +179,69 @@ public final class ArtifactSyncWorker {
     private interface Child {
     }
 
-    private static final record RequestSingleRegistration(MavenCoordinates coordinates, ActorRef<NotUsed> replyTo)
+    /**
+     * Requests the versions, all of the same artifact, to be registered in
+     * a single call.
+     */
+    private static final record RequestBatchRegistration(List<MavenCoordinates> versions, ActorRef<NotUsed> replyTo)
         implements Child {
     }
 
-    private static final record FailedRegistration(MavenCoordinates coordinates, ActorRef<NotUsed> replyTo)
+    private static final record FailedRegistration(List<MavenCoordinates> versions, ActorRef<NotUsed> replyTo)
         implements Child {
     }
 
-    private static final record Completed(MavenCoordinates coordinates, ActorRef<NotUsed> replyTo) implements Child {
-    }
-
-    private static final record Redundant(MavenCoordinates coordinates, ActorRef<NotUsed> replyTo) implements Child {
+    private static final record Completed(
+        List<MavenCoordinates> registered, List<MavenCoordinates> redundant, ActorRef<NotUsed> replyTo
+    ) implements Child {
     }
 
-    private static Behavior<Child> registerNewVersion(
+    private static Behavior<Child> registerNewVersions(
         final VersionsService versionsService,
         final AuthUtils auth
     ) {
         return Behaviors.setup(ctx -> Behaviors.receive(Child.class)
-            .onMessage(RequestSingleRegistration.class, msg -> {
+            .onMessage(RequestBatchRegistration.class, msg -> {
+                final var versions = msg.versions;
+                if (versions.isEmpty()) {
+                    msg.replyTo.tell(NotUsed.notUsed());
+                    return Behaviors.same();
+                }
+                final var artifact = versions.head();
                 ctx.pipeToSelf(
-                    versionsService.registerArtifactCollection(msg.coordinates.groupId, msg.coordinates.artifactId)
+                    versionsService.registerArtifactCollection(artifact.groupId, artifact.artifactId)
                         .handleRequestHeader(
                             requestHeader -> requestHeader.withHeader(
                                 auth.internalHeaderKey(),
                                 auth.internalHeaderSecret()
                             ))
-                        .invoke(new VersionRegistration.Register.Version(msg.coordinates)),
+                        .invoke(new VersionRegistration.Register.Versions(versions)),
                     (ok, failure) -> {
                         if (failure != null) {
                             ctx.getLog().error(
                                 String.format(
-                                    "Received error trying to synchronize %s",
-                                    msg.coordinates().asStandardCoordinates()
+                                    "Received error trying to synchronize %d versions of %s:%s",
+                                    versions.size(), artifact.groupId, artifact.artifactId
                                 ), failure);
-                            return new FailedRegistration(msg.coordinates, msg.replyTo);
+                            return new FailedRegistration(versions, msg.replyTo);
                         }
-                        if (ok instanceof VersionRegistration.Response.ArtifactAlreadyRegistered) {
-                            return new Redundant(msg.coordinates, msg.replyTo);
-                        } else if (ok instanceof VersionRegistration.Response.GroupMissing) {
-                            return new FailedRegistration(msg.coordinates, msg.replyTo);
-                        } else if (ok instanceof VersionRegistration.Response.RegisteredArtifact) {
-                            return new Completed(msg.coordinates, msg.replyTo);
+                        if (ok instanceof VersionRegistration.Response.VersionsRegistered r) {
+                            return new Completed(r.registered(), r.alreadyRegistered(), msg.replyTo);
                         }
-                        return new FailedRegistration(msg.coordinates, msg.replyTo);
+                        return new FailedRegistration(versions, msg.replyTo);
                     }
                 );
                 return Behaviors.same();
             })
             .onMessage(FailedRegistration.class, msg -> {
-                ctx.getLog().error("Somehow got to impossible state with registration handling");
+                ctx.getLog().error(
+                    "Could not register versions {}", msg.versions.map(MavenCoordinates::asStandardCoordinates));
                 msg.replyTo.tell(NotUsed.notUsed());
                 return Behaviors.same();
             })
             .onMessage(Completed.class, msg -> {
-                msg.replyTo.tell(NotUsed.notUsed());
-                return Behaviors.same();
-            })
-            .onMessage(Redundant.class, msg -> {
+                ctx.getLog().debug(
+                    "Registered {} versions, {} were already registered", msg.registered.size(), msg.redundant.size());
                 msg.replyTo.tell(NotUsed.notUsed());
                 return Behaviors.same();
             })
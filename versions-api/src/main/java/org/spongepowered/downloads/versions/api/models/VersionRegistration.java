@@ -30,6 +30,7 @@ import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.lightbend.lagom.serialization.Jsonable;
+import io.vavr.collection.List;
 import org.spongepowered.downloads.artifact.api.ArtifactCollection;
 import org.spongepowered.downloads.artifact.api.MavenCoordinates;
 
@@ -43,6 +44,8 @@ public final class VersionRegistration {
             name = "Collection"),
         @JsonSubTypes.Type(value = Register.Version.class,
             name = "Version"),
+        @JsonSubTypes.Type(value = Register.Versions.class,
+            name = "Versions"),
     })
     public interface Register {
 
@@ -66,6 +69,22 @@ public final class VersionRegistration {
 
         }
 
+        /**
+         * Registers many versions of the artifact at once, all of them
+         * being persisted together or not at all. Versions already
+         * registered are reported back rather than failing the request.
+         */
+        @JsonDeserialize
+        final record Versions(@JsonProperty(required = true) List<MavenCoordinates> coordinates)
+            implements Register {
+
+            public static final int MAX_VERSIONS = 1000;
+
+            @JsonCreator
+            public Versions {
+            }
+        }
+
 
     }
 
@@ -78,6 +97,8 @@ public final class VersionRegistration {
             name = "AlreadyRegistered"),
         @JsonSubTypes.Type(value = Response.RegisteredArtifact.class,
             name = "Registered"),
+        @JsonSubTypes.Type(value = Response.VersionsRegistered.class,
+            name = "VersionsRegistered"),
     })
     public interface Response extends Jsonable {
 
@@ -101,6 +122,17 @@ public final class VersionRegistration {
             }
         }
 
+        @JsonDeserialize
+        final record VersionsRegistered(
+            @JsonProperty(required = true) List<MavenCoordinates> registered,
+            @JsonProperty(required = true) List<MavenCoordinates> alreadyRegistered
+        ) implements Response {
+
+            @JsonCreator
+            public VersionsRegistered {
+            }
+        }
+
         @JsonDeserialize
         final record GroupMissing(@JsonProperty(required = true) String groupId) implements Response {
 
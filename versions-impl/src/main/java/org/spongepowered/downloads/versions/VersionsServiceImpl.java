@@ -140,6 +140,18 @@ public class VersionsServiceImpl implements VersionsService,
                         return response;
                     });
             }
+            if (registration instanceof VersionRegistration.Register.Versions vs) {
+                requireBatchOf(sanitizedGroupId, sanitizedArtifactId, vs);
+                return this.getCollection(sanitizedGroupId, sanitizedArtifactId)
+                    .<VersionRegistration.Response>ask(
+                        replyTo -> new ACCommand.RegisterVersions(vs.coordinates(), replyTo), this.streamTimeout)
+                    .thenApply(response -> {
+                        if (response instanceof InvalidRequest) {
+                            throw new NotFound("unknown artifact or group");
+                        }
+                        return response;
+                    });
+            }
             if (registration instanceof VersionRegistration.Register.Collection c) {
                 return this.getCollection(sanitizedGroupId, sanitizedArtifactId)
                     .<VersionRegistration.Response>ask(
@@ -155,6 +167,25 @@ public class VersionsServiceImpl implements VersionsService,
         });
     }
 
+    static void requireBatchOf(
+        final String groupId, final String artifactId, final VersionRegistration.Register.Versions batch
+    ) {
+        if (batch.coordinates().isEmpty()) {
+            throw new BadRequest("no versions to register");
+        }
+        if (batch.coordinates().size() > VersionRegistration.Register.Versions.MAX_VERSIONS) {
+            throw new BadRequest(
+                "at most " + VersionRegistration.Register.Versions.MAX_VERSIONS + " versions per request");
+        }
+        // The aggregate registers whatever it is sent, so versions of other artifacts stop here
+        final var foreign = batch.coordinates().find(coordinates ->
+            !coordinates.groupId.toLowerCase(Locale.ROOT).equals(groupId)
+                || !coordinates.artifactId.toLowerCase(Locale.ROOT).equals(artifactId));
+        if (foreign.isDefined()) {
+            throw new BadRequest(foreign.get() + " is not a version of " + groupId + ":" + artifactId);
+        }
+    }
+
     @Override
     public ServiceCall<TagRegistration.Register, TagRegistration.Response> registerArtifactTag(
         final String groupId,
@@ -27,6 +27,7 @@ package org.spongepowered.downloads.versions.collection;
 import akka.NotUsed;
 import akka.actor.typed.ActorRef;
 import com.lightbend.lagom.serialization.Jsonable;
+import io.vavr.collection.List;
 import org.spongepowered.downloads.artifact.api.ArtifactCollection;
 import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
 import org.spongepowered.downloads.artifact.api.MavenCoordinates;
@@ -59,6 +60,11 @@ public interface ACCommand extends Jsonable {
 
     }
 
+    final record RegisterVersions(List<MavenCoordinates> coordinates,
+                                  ActorRef<VersionRegistration.Response> replyTo)
+        implements ACCommand {
+    }
+
     final record RegisterArtifactTag(ArtifactTagEntry entry, ActorRef<TagRegistration.Response> replyTo)
         implements ACCommand {
     }
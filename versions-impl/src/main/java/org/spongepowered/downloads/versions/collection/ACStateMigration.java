@@ -0,0 +1,65 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.collection;
+
+import akka.serialization.jackson.JacksonMigration;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Reads snapshots of {@link State.ACState} taken while it still kept the tag
+ * values, recommendation and full assets of every version, keeping only the
+ * versions, asset keys and tag names the state holds now.
+ */
+public final class ACStateMigration extends JacksonMigration {
+
+    @Override
+    public int currentVersion() {
+        return 2;
+    }
+
+    @Override
+    public JsonNode transform(final int fromVersion, final JsonNode json) {
+        if (fromVersion >= 2) {
+            return json;
+        }
+        final var state = JsonNodeFactory.instance.objectNode();
+        state.set("coordinates", json.get("coordinates"));
+        final var versions = state.putArray("versions");
+        json.path("collection").fieldNames().forEachRemaining(versions::add);
+        final var assets = state.putObject("assets");
+        json.path("versionedArtifacts").fields().forEachRemaining(version -> {
+            final var keys = assets.putArray(version.getKey());
+            version.getValue().forEach(artifact -> {
+                final var key = keys.addObject();
+                key.set("classifier", artifact.get("classifier"));
+                key.set("extension", artifact.get("extension"));
+            });
+        });
+        final var tags = state.putArray("tags");
+        json.path("tags").fieldNames().forEachRemaining(tags::add);
+        return state;
+    }
+}
@@ -26,25 +26,20 @@ package org.spongepowered.downloads.versions.collection;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.lightbend.lagom.serialization.CompressedJsonable;
-import io.vavr.Tuple2;
 import io.vavr.collection.HashMap;
+import io.vavr.collection.HashSet;
 import io.vavr.collection.List;
 import io.vavr.collection.Map;
-import io.vavr.collection.SortedMap;
-import io.vavr.collection.TreeMap;
-import org.apache.maven.artifact.versioning.ComparableVersion;
+import io.vavr.collection.Set;
+import io.vavr.collection.SortedSet;
+import io.vavr.collection.TreeSet;
 import org.spongepowered.downloads.artifact.api.Artifact;
 import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
 import org.spongepowered.downloads.artifact.api.MavenCoordinates;
 import org.spongepowered.downloads.versions.api.models.tags.ArtifactTagEntry;
-import org.spongepowered.downloads.versions.api.models.tags.ArtifactTagValue;
 
-import java.util.Comparator;
 import java.util.Locale;
-import java.util.Objects;
 import java.util.StringJoiner;
-import java.util.function.Function;
-import java.util.regex.Pattern;
 
 interface State {
     boolean isRegistered();
@@ -64,126 +59,68 @@ interface State {
         }
     }
 
+    /**
+     * What the command handlers validate against: the versions, the keys of
+     * their assets and the names of the tags. Tag values and recommendations
+     * are derived on the read side from the events, so they are not kept here
+     * and a snapshot grows with the versions alone. Snapshots of the state
+     * that did keep them are read through {@link ACStateMigration}.
+     */
     @JsonDeserialize
     final record ACState(
         ArtifactCoordinates coordinates,
-        SortedMap<String, ArtifactTagValue> collection,
-        Map<String, List<Artifact>> versionedArtifacts,
-        boolean unregistered,
-        Map<String, ArtifactTagEntry> tags,
-        String promotionRegex,
-        boolean manualPromotionAllowed
+        SortedSet<VersionKey> versions,
+        Map<VersionKey, VersionAssets> assets,
+        Set<String> tags
     ) implements CompressedJsonable, State {
 
         ACState(ArtifactCoordinates coordinates) {
-            this(coordinates, TreeMap.empty(), HashMap.empty(), false, HashMap.empty(), "", false);
+            this(coordinates, TreeSet.empty(), HashMap.empty(), HashSet.empty());
         }
 
         public boolean isRegistered() {
-            return !this.unregistered;
+            return true;
         }
 
-        public ACState withVersion(String version) {
-            final var versionMap = this.collection
-                .computeIfAbsent(version, convertArtifactVersionToTagValues(this, this.tags))
-                ._2
-                .toSortedMap(Comparator.comparing(ComparableVersion::new).reversed(), Tuple2::_1, Tuple2::_2);
-            return new ACState(
-                this.coordinates,
-                versionMap,
-                this.versionedArtifacts,
-                this.unregistered,
-                this.tags,
-                "",
-                false
-            );
+        public boolean hasVersion(String version) {
+            return this.versions.contains(VersionKey.of(version));
         }
 
-        public ACState withTag(ArtifactTagEntry entry) {
-            final var tagMap = this.tags().put(entry.name().toLowerCase(Locale.ROOT), entry);
-            final var versionedTags = this.collection
-                .replaceAll((version, values) -> convertArtifactVersionToTagValues(this, tagMap).apply(version));
-            return new ACState(
-                this.coordinates,
-                versionedTags,
-                this.versionedArtifacts,
-                this.unregistered,
-                tagMap,
-                "",
-                false
-            );
+        public boolean hasTag(String name) {
+            return this.tags.contains(name.toLowerCase(Locale.ROOT));
         }
 
-        private Function<String, ArtifactTagValue> convertArtifactVersionToTagValues(
-            ACState state, Map<String, ArtifactTagEntry> tagMap
-        ) {
-            return version -> {
-                final var mavenCoordinates = state.coordinates.version(version);
-                final Map<String, String> tagValues = tagMap.mapValues(
-                    tag -> tag.generateValue(mavenCoordinates).tagValue());
-                return new ArtifactTagValue(state.coordinates().version(version), tagValues, false);
-            };
+        public VersionAssets assets(String version) {
+            return this.assets.get(VersionKey.of(version)).getOrElse(VersionAssets.EMPTY);
         }
 
-        @Override
-        public boolean equals(final Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
+        public ACState withVersion(String version) {
+            final var versions = this.versions.add(VersionKey.of(version));
+            if (versions == this.versions) {
+                return this;
             }
-            ACState acState = (ACState) o;
-            return Objects.equals(coordinates, acState.coordinates) && Objects.equals(
-                collection, acState.collection);
+            return new ACState(this.coordinates, versions, this.assets, this.tags);
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(coordinates, collection);
+        public ACState withTag(ArtifactTagEntry entry) {
+            return new ACState(
+                this.coordinates, this.versions, this.assets, this.tags.add(entry.name().toLowerCase(Locale.ROOT)));
+        }
+
+        public ACState withAddedArtifacts(MavenCoordinates coordinates, List<Artifact> newArtifacts) {
+            final var key = VersionKey.of(coordinates.version);
+            final var assets = this.assets.get(key).getOrElse(VersionAssets.EMPTY).withAll(newArtifacts);
+            return new ACState(this.coordinates, this.versions, this.assets.put(key, assets), this.tags);
         }
 
         @Override
         public String toString() {
             return new StringJoiner(
                 ", ", ACState.class.getSimpleName() + "[", "]")
-                .add("coordinates=" + coordinates)
-                .add("collection=" + collection)
+                .add("coordinates=" + this.coordinates)
+                .add("versions=" + this.versions.size())
+                .add("tags=" + this.tags)
                 .toString();
         }
-
-        public ACState withPromotionDetails(String regex, boolean enableManualPromotion) {
-            final var pattern = Pattern.compile(regex);
-            final var versionedTags = this.collection
-                .replaceAll((version, value) -> value.promote(pattern.matcher(version).find()))
-                .toSortedMap(Comparator.comparing(ComparableVersion::new).reversed(), Tuple2::_1, Tuple2::_2);
-            return new ACState(
-                this.coordinates,
-                versionedTags,
-                this.versionedArtifacts,
-                false,
-                this.tags,
-                regex,
-                enableManualPromotion
-            );
-        }
-
-        public ACState withAddedArtifacts(MavenCoordinates coordinates, List<Artifact> newArtifacts) {
-            final var existing = this.versionedArtifacts.get(coordinates.version)
-                .getOrElse(List::empty);
-            final var existingArtifactsByClassifier = existing.toMap(Artifact::classifier, Function.identity());
-            final var newArtifactList = existing.appendAll(
-                newArtifacts.filter(artifact -> existingArtifactsByClassifier.containsKey(artifact.classifier())));
-            final var versionedArtifacts = this.versionedArtifacts.put(coordinates.version, newArtifactList);
-            return new ACState(
-                this.coordinates,
-                this.collection,
-                versionedArtifacts,
-                false,
-                this.tags,
-                this.promotionRegex,
-                this.manualPromotionAllowed
-            );
-        }
     }
 }
@@ -0,0 +1,106 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.collection;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import io.vavr.collection.Set;
+import org.spongepowered.downloads.artifact.api.Artifact;
+
+import java.util.Optional;
+
+/**
+ * The assets registered for a version, known by their classifier and
+ * extension, which is all registering further assets checks against.
+ * Serialized as the list of keys.
+ */
+final class VersionAssets {
+
+    static final VersionAssets EMPTY = new VersionAssets(HashSet.empty());
+
+    private final Set<Key> keys;
+
+    private VersionAssets(final Set<Key> keys) {
+        this.keys = keys;
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    static VersionAssets of(final Set<Key> keys) {
+        return keys.isEmpty() ? EMPTY : new VersionAssets(keys);
+    }
+
+    @JsonValue
+    Set<Key> keys() {
+        return this.keys;
+    }
+
+    boolean contains(final Artifact artifact) {
+        return this.keys.contains(Key.of(artifact));
+    }
+
+    VersionAssets withAll(final List<Artifact> artifacts) {
+        final var keys = this.keys.addAll(artifacts.map(Key::of));
+        return keys.size() == this.keys.size() ? this : new VersionAssets(keys);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        return this.keys.equals(((VersionAssets) o).keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.keys.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.keys.mkString("VersionAssets[", ", ", "]");
+    }
+
+    @JsonDeserialize
+    static final record Key(
+        @JsonProperty Optional<String> classifier,
+        @JsonProperty(required = true) String extension
+    ) {
+        @JsonCreator
+        Key {
+        }
+
+        static Key of(final Artifact artifact) {
+            return new Key(artifact.classifier(), artifact.extension());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.collection;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+
+/**
+ * A version of an artifact, ordered newest first by its
+ * {@link ComparableVersion}, which is parsed once rather than on every
+ * comparison. Versions Maven considers equal, like {@code 1.0} and
+ * {@code 1.0.0}, are told apart by their string. Serialized as the version
+ * string, so it can key maps in snapshots.
+ */
+final class VersionKey implements Comparable<VersionKey> {
+
+    private final String version;
+    private final ComparableVersion order;
+
+    private VersionKey(final String version) {
+        this.version = version;
+        this.order = new ComparableVersion(version);
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    static VersionKey of(final String version) {
+        return new VersionKey(version);
+    }
+
+    @JsonValue
+    String version() {
+        return this.version;
+    }
+
+    @Override
+    public int compareTo(final VersionKey other) {
+        final int order = other.order.compareTo(this.order);
+        return order != 0 ? order : this.version.compareTo(other.version);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        return this.version.equals(((VersionKey) o).version);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.version.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.version;
+    }
+}
@@ -34,12 +34,10 @@ import akka.persistence.typed.javadsl.EventSourcedBehaviorWithEnforcedReplies;
 import akka.persistence.typed.javadsl.ReplyEffect;
 import akka.persistence.typed.javadsl.RetentionCriteria;
 import com.lightbend.lagom.javadsl.persistence.AkkaTaggerAdapter;
-import io.vavr.collection.List;
 import org.spongepowered.downloads.versions.api.models.TagRegistration;
 import org.spongepowered.downloads.versions.api.models.TagVersion;
 import org.spongepowered.downloads.versions.api.models.VersionRegistration;
 
-import java.util.Locale;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -81,10 +79,8 @@ public final class VersionedArtifactAggregate
                 ACEvent.ArtifactVersionRegistered.class,
                 (state2, event2) -> state2.withVersion(event2.version.version)
             )
-            .onEvent(
-                ACEvent.PromotionSettingModified.class,
-                (state, event) -> state.withPromotionDetails(event.regex(), event.enableManualPromotion())
-            )
+            // Recommendations are derived on the read side, the state has nothing to keep
+            .onEvent(ACEvent.PromotionSettingModified.class, (state, event) -> state)
             .onEvent(
                 ACEvent.VersionedCollectionAdded.class,
                 (state, event) -> state.withAddedArtifacts(event.collection().coordinates(), event.newArtifacts())
@@ -112,6 +108,8 @@ public final class VersionedArtifactAggregate
                 ACCommand.RegisterArtifactTag.class, (cmd) -> this.Effect().reply(cmd.replyTo(), new InvalidRequest()))
             .onCommand(
                 ACCommand.RegisterVersion.class, (cmd) -> this.Effect().reply(cmd.replyTo(), new InvalidRequest()))
+            .onCommand(
+                ACCommand.RegisterVersions.class, (cmd) -> this.Effect().reply(cmd.replyTo(), new InvalidRequest()))
             .onCommand(
                 ACCommand.RegisterArtifactTag.class, (cmd) -> this.Effect().reply(cmd.replyTo(), new InvalidRequest()))
             .onCommand(
@@ -125,6 +123,7 @@ public final class VersionedArtifactAggregate
         builder.forStateType(State.ACState.class)
             .onCommand(ACCommand.RegisterArtifact.class, (cmd) -> this.Effect().reply(cmd.replyTo, NotUsed.notUsed()))
             .onCommand(ACCommand.RegisterVersion.class, this::handleRegisterVersion)
+            .onCommand(ACCommand.RegisterVersions.class, this::handleRegisterVersions)
             .onCommand(ACCommand.RegisterArtifactTag.class, this::handlRegisterTag)
             .onCommand(ACCommand.UpdateArtifactTag.class, this::handleUpdateTag)
             .onCommand(ACCommand.RegisterPromotion.class, this::handlePromotionSetting)
@@ -136,7 +135,7 @@ public final class VersionedArtifactAggregate
     private ReplyEffect<ACEvent, State> handleRegisterVersion(
         final State.ACState state, final ACCommand.RegisterVersion cmd
     ) {
-        if (state.collection().containsKey(cmd.coordinates().version)) {
+        if (state.hasVersion(cmd.coordinates().version)) {
             return this.Effect().reply(
                 cmd.replyTo(),
                 new VersionRegistration.Response.ArtifactAlreadyRegistered(cmd.coordinates())
@@ -147,14 +146,34 @@ public final class VersionedArtifactAggregate
             .thenReply(cmd.replyTo(), (s) -> new VersionRegistration.Response.RegisteredArtifact(cmd.coordinates()));
     }
 
+    private ReplyEffect<ACEvent, State> handleRegisterVersions(
+        final State.ACState state, final ACCommand.RegisterVersions cmd
+    ) {
+        final var known = cmd.coordinates()
+            .distinctBy(coordinates -> coordinates.version)
+            .partition(coordinates -> state.hasVersion(coordinates.version));
+        final var alreadyRegistered = known._1;
+        final var registered = known._2;
+        if (registered.isEmpty()) {
+            return this.Effect().reply(
+                cmd.replyTo(), new VersionRegistration.Response.VersionsRegistered(registered, alreadyRegistered));
+        }
+        return this.Effect()
+            .persist(registered.<ACEvent>map(ACEvent.ArtifactVersionRegistered::new).toJavaList())
+            .thenReply(
+                cmd.replyTo(),
+                (s) -> new VersionRegistration.Response.VersionsRegistered(registered, alreadyRegistered)
+            );
+    }
+
     private ReplyEffect<ACEvent, State> handleRegisterCollection(
         final State.ACState state, final ACCommand.RegisterCollection cmd
     ) {
-        if (!state.collection().containsKey(cmd.collection().coordinates().version)) {
+        final var version = cmd.collection().coordinates().version;
+        if (!state.hasVersion(version)) {
             return this.Effect().reply(cmd.replyTo(), new InvalidRequest());
         }
-        final var existing = state.versionedArtifacts().get(cmd.collection().coordinates().version)
-            .getOrElse(List::empty);
+        final var existing = state.assets(version);
         final var newArtifacts = cmd.collection().components().filter(Predicate.not(existing::contains));
         return this.Effect()
             .persist(new ACEvent.VersionedCollectionAdded(state.coordinates(), cmd.collection(), newArtifacts))
@@ -177,7 +196,7 @@ public final class VersionedArtifactAggregate
         final State.ACState state,
         final ACCommand.RegisterArtifactTag cmd
     ) {
-        if (state.tags().containsKey(cmd.entry().name().toLowerCase(Locale.ROOT))) {
+        if (state.hasTag(cmd.entry().name())) {
             return this.Effect().reply(
                 cmd.replyTo(), new TagRegistration.Response.TagAlreadyRegistered(cmd.entry().name()));
         }
@@ -24,6 +24,8 @@
  */
 package org.spongepowered.downloads.versions.readside;
 
+import org.hibernate.annotations.Type;
+
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -67,6 +69,13 @@ import java.util.Set;
             select distinct v from ArtifactVersion v
             where v.artifact.groupId = :groupId and v.artifact.artifactId = :artifactId and v.version = :version
             """
+    ),
+    @NamedQuery(
+        name = "ArtifactVersion.findMissingSortKey",
+        query =
+            """
+            select v from ArtifactVersion v where v.sortKey is null
+            """
     )
 })
 class JpaArtifactVersion implements Serializable {
@@ -88,6 +97,10 @@ class JpaArtifactVersion implements Serializable {
         nullable = false)
     private String version;
 
+    @Type(type = "org.hibernate.type.BinaryType")
+    @Column(name = "sort_key")
+    private byte[] sortKey;
+
     @OneToMany(
         targetEntity = JpaVersionedArtifactAsset.class,
         cascade = CascadeType.ALL,
@@ -115,6 +128,14 @@ class JpaArtifactVersion implements Serializable {
         this.version = version;
     }
 
+    public byte[] getSortKey() {
+        return sortKey;
+    }
+
+    public void setSortKey(final byte[] sortKey) {
+        this.sortKey = sortKey;
+    }
+
     public void addAsset(final JpaVersionedArtifactAsset asset) {
         this.assets.add(asset);
         asset.setVersion(this);
@@ -37,6 +37,9 @@ import com.lightbend.lagom.javadsl.persistence.jpa.JpaReadSide;
 import com.lightbend.lagom.javadsl.persistence.jpa.JpaSession;
 import org.pcollections.PSequence;
 import org.spongepowered.downloads.artifact.api.Artifact;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifact.api.VersionSortKey;
+import org.spongepowered.downloads.jpa.JpaBulkheads;
 import org.spongepowered.downloads.versions.collection.ACEvent;
 
 import javax.inject.Inject;
@@ -68,9 +71,14 @@ public class VersionReadSidePersistence {
         private static final AtomicInteger counter = new AtomicInteger();
 
         @Inject
-        VersionWriter(final JpaReadSide readSide, final JpaSession session, final ActorSystem system) {
+        VersionWriter(
+            final JpaReadSide readSide,
+            final JpaSession session,
+            final JpaBulkheads bulkheads,
+            final ActorSystem system
+        ) {
             this.readSide = readSide;
-            final var taggedWorker = VersionedTagWorker.create(session);
+            final var taggedWorker = VersionedTagWorker.create(session, bulkheads.get("read-side"));
             final var commandBehavior = Behaviors.supervise(taggedWorker).onFailure(SupervisorStrategy.restart());
             this.refresher = Adapter.spawn(
                 system.classicSystem(), commandBehavior, "version-tag-db-worker-" + counter.incrementAndGet());
@@ -96,6 +104,7 @@ public class VersionReadSidePersistence {
                         jpaArtifact.setArtifactId(coordinates.artifactId);
                         em.persist(jpaArtifact);
                     }
+                    touchArtifact(em, coordinates);
                 })
                 .setEventHandler(ACEvent.ArtifactVersionRegistered.class, (em, versionRegistered) -> {
                     final var coordinates = versionRegistered.version;
@@ -118,11 +127,24 @@ public class VersionReadSidePersistence {
                         .stream().findFirst()
                         .orElseGet(() -> {
                             final var jpaArtifactVersion = new JpaArtifactVersion();
+                            final var sortKey = VersionSortKey.of(version);
                             jpaArtifactVersion.setVersion(version);
+                            jpaArtifactVersion.setSortKey(sortKey);
                             artifact.addVersion(jpaArtifactVersion);
-                            refresher.tell(new VersionedTagWorker.RefreshVersionTags());
+                            em.createNativeQuery("select version.recordArtifactVersion(:artifact, :version, :sortKey)")
+                                .setParameter("artifact", artifact.getId())
+                                .setParameter("version", version)
+                                .setParameter("sortKey", sortKey)
+                                .getSingleResult();
+                            em.createNativeQuery("select version.recordVersionTagFacets(:artifact, :version)")
+                                .setParameter("artifact", artifact.getId())
+                                .setParameter("version", version)
+                                .getSingleResult();
+                            refresher.tell(
+                                new VersionedTagWorker.RefreshVersionTags(coordinates.asArtifactCoordinates()));
                             return jpaArtifactVersion;
                         });
+                    touchArtifact(em, coordinates.asArtifactCoordinates());
                 })
                 .setEventHandler(ACEvent.ArtifactTagRegistered.class, (em, tagRegistered) -> {
                     final var coordinates = tagRegistered.coordinates();
@@ -145,7 +167,11 @@ public class VersionReadSidePersistence {
                     jpaTag.setRegex(tag.regex());
                     jpaTag.setName(tag.name());
                     jpaTag.setGroup(tag.matchingGroup());
-                    refresher.tell(new VersionedTagWorker.RefreshVersionTags());
+                    // Every version may now carry a different value for the tag
+                    em.flush();
+                    refreshTagFacets(em, coordinates);
+                    refresher.tell(new VersionedTagWorker.RefreshVersionTags(coordinates));
+                    touchArtifact(em, coordinates);
                 })
                 .setEventHandler(ACEvent.PromotionSettingModified.class, (em, promotion) -> {
                     final var coordinates = promotion.coordinates();
@@ -171,6 +197,7 @@ public class VersionReadSidePersistence {
                     recommendation.setRegex(promotion.regex());
                     recommendation.setManual(promotion.enableManualPromotion());
 
+                    touchArtifact(em, coordinates);
                     refresher.tell(new VersionedTagWorker.RefreshVersionRecommendation(promotion.coordinates()));
                 })
                 .setEventHandler(ACEvent.VersionedCollectionAdded.class, (em, event) -> {
@@ -192,10 +219,27 @@ public class VersionReadSidePersistence {
                             versionedAsset.setSha1(asset.sha1().getBytes(StandardCharsets.UTF_8));
                             versionedAsset.setExtension(asset.extension());
                         });
+                    touchArtifact(em, coordinates.asArtifactCoordinates());
                 })
                 .build();
         }
 
+        // Bumps the revision the query services derive their cache validators from
+        private static void touchArtifact(EntityManager em, ArtifactCoordinates coordinates) {
+            em.flush();
+            em.createNativeQuery("select version.touchArtifact(:artifactId, :groupId)")
+                .setParameter("artifactId", coordinates.artifactId)
+                .setParameter("groupId", coordinates.groupId)
+                .getSingleResult();
+        }
+
+        private static void refreshTagFacets(EntityManager em, ArtifactCoordinates coordinates) {
+            em.createNativeQuery("select version.refreshArtifactTagFacets(:artifactId, :groupId)")
+                .setParameter("artifactId", coordinates.artifactId)
+                .setParameter("groupId", coordinates.groupId)
+                .getSingleResult();
+        }
+
         private static JpaVersionedArtifactAsset findOrCreateVersionedAsset(
             EntityManager em, JpaArtifactVersion version, Artifact asset
         ) {
@@ -219,6 +263,18 @@ public class VersionReadSidePersistence {
 
         private void createSchema(EntityManager em) {
             Persistence.generateSchema("default", ImmutableMap.of("hibernate.hbm2ddl.auto", "update"));
+            // Versions registered before the sort key existed need it computed once
+            final var missingSortKeys = em.createNamedQuery(
+                    "ArtifactVersion.findMissingSortKey", JpaArtifactVersion.class)
+                .getResultList();
+            missingSortKeys.forEach(version -> version.setSortKey(VersionSortKey.of(version.getVersion())));
+            if (!missingSortKeys.isEmpty()) {
+                // and with them the latest versions of the summaries
+                em.flush();
+                em.createNativeQuery(
+                        "select version.refreshArtifactSummary(a.artifact_id, a.group_id) from version.artifacts a")
+                    .getResultList();
+            }
         }
 
         @Override
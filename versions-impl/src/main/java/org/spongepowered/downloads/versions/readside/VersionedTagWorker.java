@@ -30,6 +30,7 @@ import com.lightbend.lagom.javadsl.persistence.jpa.JpaSession;
 import io.vavr.collection.HashSet;
 import io.vavr.collection.Set;
 import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.jpa.JpaBulkhead;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -40,7 +41,7 @@ public final class VersionedTagWorker {
     public interface Command {
     }
 
-    static final record RefreshVersionTags() implements Command {
+    static final record RefreshVersionTags(ArtifactCoordinates coordinates) implements Command {
     }
 
     static final record RefreshVersionRecommendation(ArtifactCoordinates coordinates) implements Command {
@@ -57,32 +58,43 @@ public final class VersionedTagWorker {
     }
 
     private static final record Data(Optional<Instant> refreshVersions,
+                                     Set<ArtifactCoordinates> refreshedArtifacts,
                                      Set<ArtifactCoordinates> refreshRecommendations) {
 
-        Data requestedRefreshVersions() {
-            return new Data(Optional.of(Instant.now()), this.refreshRecommendations);
+        Data requestedRefreshVersions(ArtifactCoordinates coordinates) {
+            return new Data(
+                Optional.of(Instant.now()), this.refreshedArtifacts.add(coordinates), this.refreshRecommendations);
         }
 
         Data updateArtifactRecommendation(ArtifactCoordinates coordinates) {
-            return new Data(this.refreshVersions, this.refreshRecommendations.add(coordinates));
+            return new Data(
+                this.refreshVersions, this.refreshedArtifacts.add(coordinates),
+                this.refreshRecommendations.add(coordinates)
+            );
         }
     }
 
     public static Behavior<VersionedTagWorker.Command> create(
-        final JpaSession session
+        final JpaSession session, final JpaBulkhead bulkhead
     ) {
-        return idle(session);
+        return idle(session, bulkhead);
     }
 
-    private static Behavior<Command> idle(final JpaSession session) {
+    private static Behavior<Command> idle(final JpaSession session, final JpaBulkhead bulkhead) {
         return Behaviors.setup(ctx -> Behaviors.receive(Command.class)
             .onMessage(
                 RefreshVersionTags.class,
-                cmd -> timed(new Data(Optional.of(Instant.now()), HashSet.empty()), session)
+                cmd -> timed(
+                    new Data(Optional.of(Instant.now()), HashSet.of(cmd.coordinates), HashSet.empty()),
+                    session, bulkhead
+                )
             )
             .onMessage(
                 RefreshVersionRecommendation.class,
-                cmd -> timed(new Data(Optional.empty(), HashSet.of(cmd.coordinates)), session)
+                cmd -> timed(
+                    new Data(Optional.empty(), HashSet.of(cmd.coordinates), HashSet.of(cmd.coordinates)),
+                    session, bulkhead
+                )
             )
             .onMessage(Completed.class, cmd -> {
                 ctx.getLog().info("Completed refresh of {}, affected {}", cmd.data, cmd.rowsAffected);
@@ -90,56 +102,76 @@ public final class VersionedTagWorker {
             })
             .onMessage(Failed.class, cmd -> {
                 ctx.getLog().warn("Recovering from failed update, will re-attempt");
-                return timed(cmd.data, session);
+                return timed(cmd.data, session, bulkhead);
             })
             .build()
         );
     }
 
     private static Behavior<Command> timed(
-        final Data data, final JpaSession session
+        final Data data, final JpaSession session, final JpaBulkhead bulkhead
     ) {
         return Behaviors.setup(ctx -> Behaviors.withTimers(timers -> {
             timers.startSingleTimer(new TimedOut(), Duration.ofSeconds(10));
-            return waiting(data, session);
+            return waiting(data, session, bulkhead);
         }));
     }
 
     private static Behavior<Command> waiting(
-        final Data data, final JpaSession session
+        final Data data, final JpaSession session, final JpaBulkhead bulkhead
     ) {
         return Behaviors.setup(ctx -> Behaviors.receive(Command.class)
             .onMessage(
                 RefreshVersionTags.class,
-                cmd -> waiting(data.requestedRefreshVersions(), session)
+                cmd -> waiting(data.requestedRefreshVersions(cmd.coordinates), session, bulkhead)
             )
             .onMessage(
                 RefreshVersionRecommendation.class,
-                cmd -> waiting(data.updateArtifactRecommendation(cmd.coordinates), session)
+                cmd -> waiting(data.updateArtifactRecommendation(cmd.coordinates), session, bulkhead)
             )
             .onMessage(TimedOut.class, timeout -> {
-                ctx.pipeToSelf(session.withTransaction(em -> {
+                // A full bulkhead fails the refresh like any other failure, and it is attempted again later
+                ctx.pipeToSelf(bulkhead.run(() -> session.withTransaction(em -> {
                     final var updatedVersionedTags = data.refreshVersions
                         .map(time -> em
                             .createNativeQuery("select version.refreshversionedtags()")
                             .getSingleResult())
                         .isPresent();
                     final int rowsAffected = data.refreshRecommendations
-                        .map(coordinates -> em.createNativeQuery(
-                                "select version.refreshVersionRecommendations(:artifactId, :groupId)")
-                            .setParameter("artifactId", coordinates.artifactId)
-                            .setParameter("groupId", coordinates.groupId)
-                            .getSingleResult())
+                        .map(coordinates -> {
+                            final var affected = em.createNativeQuery(
+                                    "select version.refreshVersionRecommendations(:artifactId, :groupId)")
+                                .setParameter("artifactId", coordinates.artifactId)
+                                .setParameter("groupId", coordinates.groupId)
+                                .getSingleResult();
+                            // Recommendations moved, so the latest recommended versions and counts did as well
+                            em.createNativeQuery("select version.refreshArtifactSummary(:artifactId, :groupId)")
+                                .setParameter("artifactId", coordinates.artifactId)
+                                .setParameter("groupId", coordinates.groupId)
+                                .getSingleResult();
+                            // and the recommended counts of the tag facets
+                            em.createNativeQuery("select version.refreshArtifactTagFacets(:artifactId, :groupId)")
+                                .setParameter("artifactId", coordinates.artifactId)
+                                .setParameter("groupId", coordinates.groupId)
+                                .getSingleResult();
+                            return affected;
+                        })
                         .sum().intValue();
+                    // What the queries serve for these artifacts only changes now, so their revisions move with it
+                    data.refreshedArtifacts.forEach(coordinates -> em.createNativeQuery(
+                            "select version.touchArtifact(:artifactId, :groupId)")
+                        .setParameter("artifactId", coordinates.artifactId)
+                        .setParameter("groupId", coordinates.groupId)
+                        .getSingleResult());
                     return new Completed(data, updatedVersionedTags, rowsAffected);
-                }), (msg, throwable) -> {
+                })), (msg, throwable) -> {
                     if (throwable != null) {
                         ctx.getLog().error("Failed to handle updating artifacts, aborting", throwable);
                         return new Failed(data);
                     }
                     return msg;
                 });
-                return idle(session);
+                return idle(session, bulkhead);
             })
             .build());
     }
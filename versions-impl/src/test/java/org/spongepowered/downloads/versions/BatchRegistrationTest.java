@@ -0,0 +1,77 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.lightbend.lagom.javadsl.api.transport.BadRequest;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.artifact.api.MavenCoordinates;
+import org.spongepowered.downloads.versions.api.models.VersionRegistration;
+
+public final class BatchRegistrationTest {
+
+    private static VersionRegistration.Register.Versions batchOf(final int size) {
+        return new VersionRegistration.Register.Versions(
+            List.range(0, size).map(i -> new MavenCoordinates("org.spongepowered", "example", "1.0." + i)));
+    }
+
+    @Test
+    public void acceptsAFullBatch() {
+        assertDoesNotThrow(() -> VersionsServiceImpl.requireBatchOf(
+            "org.spongepowered", "example", batchOf(VersionRegistration.Register.Versions.MAX_VERSIONS)));
+    }
+
+    @Test
+    public void refusesAnEmptyBatch() {
+        assertThrows(BadRequest.class, () -> VersionsServiceImpl.requireBatchOf(
+            "org.spongepowered", "example", batchOf(0)));
+    }
+
+    @Test
+    public void refusesBatchesOverTheCap() {
+        assertThrows(BadRequest.class, () -> VersionsServiceImpl.requireBatchOf(
+            "org.spongepowered", "example", batchOf(VersionRegistration.Register.Versions.MAX_VERSIONS + 1)));
+    }
+
+    @Test
+    public void refusesVersionsOfAnotherArtifact() {
+        final var batch = new VersionRegistration.Register.Versions(List.of(
+            new MavenCoordinates("org.spongepowered", "example", "1.0.0"),
+            new MavenCoordinates("org.spongepowered", "other", "1.0.0")
+        ));
+        assertThrows(BadRequest.class, () -> VersionsServiceImpl.requireBatchOf(
+            "org.spongepowered", "example", batch));
+    }
+
+    @Test
+    public void comparesCoordinatesCaseInsensitively() {
+        final var batch = new VersionRegistration.Register.Versions(List.of(
+            new MavenCoordinates("org.SpongePowered", "Example", "1.0.0")));
+        assertDoesNotThrow(() -> VersionsServiceImpl.requireBatchOf("org.spongepowered", "example", batch));
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.serialization.SerializerWithStringManifest;
+import akka.serialization.jackson.JacksonJsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.ConfigFactory;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.artifact.api.Artifact;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.versions.api.models.tags.ArtifactTagEntry;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+public final class ACStateMigrationTest {
+
+    private static final String MANIFEST = State.ACState.class.getName();
+
+    // A snapshot as written before the state kept only what commands validate against
+    private static final String BASELINE_SNAPSHOT = """
+        {
+          "coordinates": {"groupId": "org.spongepowered", "artifactId": "spongevanilla"},
+          "collection": {
+            "1.16.5-8.0.0-RC495": {
+              "coordinates": {
+                "groupId": "org.spongepowered", "artifactId": "spongevanilla", "version": "1.16.5-8.0.0-RC495"
+              },
+              "tagValues": {"minecraft": "1.16.5"},
+              "recommended": false
+            },
+            "1.16.5-8.0.0": {
+              "coordinates": {
+                "groupId": "org.spongepowered", "artifactId": "spongevanilla", "version": "1.16.5-8.0.0"
+              },
+              "tagValues": {"minecraft": "1.16.5"},
+              "recommended": true
+            }
+          },
+          "versionedArtifacts": {
+            "1.16.5-8.0.0": [
+              {
+                "classifier": null,
+                "downloadUrl": "https://repo.spongepowered.org/spongevanilla-1.16.5-8.0.0.jar",
+                "md5": "d41d8cd98f00b204e9800998ecf8427e",
+                "sha1": "da39a3ee5e6b4b0d3255bfef95601890afd80709",
+                "extension": "jar"
+              },
+              {
+                "classifier": "universal",
+                "downloadUrl": "https://repo.spongepowered.org/spongevanilla-1.16.5-8.0.0-universal.jar",
+                "md5": "d41d8cd98f00b204e9800998ecf8427e",
+                "sha1": "da39a3ee5e6b4b0d3255bfef95601890afd80709",
+                "extension": "jar"
+              }
+            ]
+          },
+          "unregistered": false,
+          "tags": {
+            "minecraft": {"name": "minecraft", "matchingGroup": 1, "regex": "^(\\\\d+\\\\.\\\\d+(\\\\.\\\\d+)?)-"}
+          },
+          "promotionRegex": "",
+          "manualPromotionAllowed": true
+        }
+        """;
+
+    private static ActorSystem system;
+    private static SerializerWithStringManifest serializer;
+
+    @BeforeAll
+    public static void setup() {
+        system = ActorSystem.create("state-migration-test", ConfigFactory.load());
+        serializer = new JacksonJsonSerializer((ExtendedActorSystem) system, "jackson-json");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        system.terminate();
+    }
+
+    @Test
+    public void migratesBaselineSnapshot() {
+        final var state = (State.ACState) serializer.fromBinary(
+            BASELINE_SNAPSHOT.getBytes(StandardCharsets.UTF_8), MANIFEST);
+
+        assertEquals(new ArtifactCoordinates("org.spongepowered", "spongevanilla"), state.coordinates());
+        assertEquals(
+            List.of("1.16.5-8.0.0", "1.16.5-8.0.0-RC495"),
+            state.versions().toList().map(VersionKey::version)
+        );
+        assertTrue(state.hasVersion("1.16.5-8.0.0-RC495"));
+        assertEquals(HashSet.of("minecraft"), state.tags());
+        assertTrue(state.hasTag("Minecraft"));
+
+        final var assets = state.assets("1.16.5-8.0.0");
+        assertTrue(assets.contains(artifact(Optional.empty(), "jar")));
+        assertTrue(assets.contains(artifact(Optional.of("universal"), "jar")));
+        assertFalse(assets.contains(artifact(Optional.of("sources"), "jar")));
+        assertSame(VersionAssets.EMPTY, state.assets("1.16.5-8.0.0-RC495"));
+    }
+
+    @Test
+    public void migratedSnapshotMatchesState() {
+        final var migrated = (State.ACState) serializer.fromBinary(
+            BASELINE_SNAPSHOT.getBytes(StandardCharsets.UTF_8), MANIFEST);
+        final var coordinates = new ArtifactCoordinates("org.spongepowered", "spongevanilla");
+        final var expected = new State.ACState(coordinates)
+            .withVersion("1.16.5-8.0.0-RC495")
+            .withVersion("1.16.5-8.0.0")
+            .withAddedArtifacts(
+                coordinates.version("1.16.5-8.0.0"),
+                List.of(artifact(Optional.empty(), "jar"), artifact(Optional.of("universal"), "jar"))
+            )
+            .withTag(new ArtifactTagEntry("minecraft", 1, "^(\\d+\\.\\d+(\\.\\d+)?)-"));
+
+        assertEquals(expected, migrated);
+    }
+
+    @Test
+    public void stateRoundTrips() {
+        final var coordinates = new ArtifactCoordinates("org.spongepowered", "spongeforge");
+        final var state = new State.ACState(coordinates)
+            .withVersion("1.12.2-2838-7.3.1-RC3482")
+            .withVersion("1.12.2-2838-7.3.0")
+            .withVersion("1.0")
+            .withVersion("1.0.0")
+            .withAddedArtifacts(
+                coordinates.version("1.12.2-2838-7.3.0"),
+                List.of(artifact(Optional.empty(), "jar"), artifact(Optional.of("sources"), "jar"))
+            )
+            .withTag(new ArtifactTagEntry("forge", 1, "^\\d+\\.\\d+\\.\\d+-(\\d+)-"));
+
+        final var manifest = serializer.manifest(state);
+        final var read = (State.ACState) serializer.fromBinary(serializer.toBinary(state), manifest);
+
+        assertEquals(MANIFEST + "#2", manifest);
+        assertEquals(state, read);
+        // Versions Maven considers equal are both kept, in the same order
+        assertEquals(state.versions().toList(), read.versions().toList());
+    }
+
+    @Test
+    public void versionKeyWritesVersionString() throws Exception {
+        final var mapper = new ObjectMapper();
+        final var key = VersionKey.of("1.16.5-8.0.0-RC495");
+
+        assertEquals("\"1.16.5-8.0.0-RC495\"", mapper.writeValueAsString(key));
+        assertEquals(key, mapper.readValue("\"1.16.5-8.0.0-RC495\"", VersionKey.class));
+    }
+
+    @Test
+    public void versionAssetsWriteKeys() {
+        final var coordinates = new ArtifactCoordinates("org.spongepowered", "spongevanilla");
+        final var state = new State.ACState(coordinates).withAddedArtifacts(
+            coordinates.version("1.16.5-8.0.0"), List.of(artifact(Optional.of("universal"), "jar")));
+
+        final var json = new String(serializer.toBinary(state), StandardCharsets.UTF_8);
+
+        assertTrue(
+            json.contains("\"assets\":{\"1.16.5-8.0.0\":[{\"classifier\":\"universal\",\"extension\":\"jar\"}]}"),
+            json
+        );
+    }
+
+    private static Artifact artifact(final Optional<String> classifier, final String extension) {
+        return new Artifact(
+            classifier,
+            URI.create("https://repo.spongepowered.org/spongevanilla" + classifier.orElse("") + ".jar"),
+            "d41d8cd98f00b204e9800998ecf8427e",
+            "da39a3ee5e6b4b0d3255bfef95601890afd80709",
+            extension
+        );
+    }
+}
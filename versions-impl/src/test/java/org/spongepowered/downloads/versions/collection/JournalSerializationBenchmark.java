@@ -0,0 +1,161 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.collection;
+
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.serialization.SerializerWithStringManifest;
+import akka.serialization.jackson.JacksonCborSerializer;
+import akka.serialization.jackson.JacksonJsonSerializer;
+import com.typesafe.config.ConfigFactory;
+import io.vavr.collection.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.spongepowered.downloads.artifact.api.Artifact;
+import org.spongepowered.downloads.artifact.api.ArtifactCollection;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and replaying the journal of an artifact with 2000 versions, each
+ * registered with 3 assets, through the JSON and CBOR serializers the events
+ * can be bound to. Run {@link #main(String[])} from the test classpath of
+ * this module, which prints the journal bytes per event of each before
+ * measuring throughput.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalSerializationBenchmark {
+
+    private static final int VERSIONS = 2000;
+
+    private ActorSystem system;
+    private SerializerWithStringManifest json;
+    private SerializerWithStringManifest cbor;
+    private List<ACEvent> events;
+    private List<Stored> jsonJournal;
+    private List<Stored> cborJournal;
+
+    @Setup
+    public void setup() {
+        this.system = ActorSystem.create("journal-benchmark", ConfigFactory.load());
+        final var extended = (ExtendedActorSystem) this.system;
+        this.json = new JacksonJsonSerializer(extended, "jackson-json");
+        this.cbor = new JacksonCborSerializer(extended, "jackson-cbor");
+        final var artifact = new ArtifactCoordinates("org.spongepowered", "spongevanilla");
+        this.events = List.range(0, VERSIONS).flatMap(i -> {
+            final var version = artifact.version("1.16.5-8.0.0-RC" + i);
+            final var assets = List.of(Optional.<String>empty(), Optional.of("sources"), Optional.of("universal"))
+                .map(classifier -> new Artifact(
+                    classifier,
+                    URI.create("https://repo.spongepowered.org/" + version.version + classifier.orElse("") + ".jar"),
+                    "d41d8cd98f00b204e9800998ecf8427e",
+                    "da39a3ee5e6b4b0d3255bfef95601890afd80709",
+                    "jar"
+                ));
+            return List.<ACEvent>of(
+                new ACEvent.ArtifactVersionRegistered(version),
+                new ACEvent.VersionedCollectionAdded(artifact, new ArtifactCollection(assets, version), assets)
+            );
+        });
+        this.jsonJournal = write(this.json, this.events);
+        this.cborJournal = write(this.cbor, this.events);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.system.terminate();
+    }
+
+    @Benchmark
+    public void writeJson(final Blackhole blackhole) {
+        blackhole.consume(write(this.json, this.events));
+    }
+
+    @Benchmark
+    public void writeCbor(final Blackhole blackhole) {
+        blackhole.consume(write(this.cbor, this.events));
+    }
+
+    @Benchmark
+    public void replayJson(final Blackhole blackhole) {
+        replay(this.json, this.jsonJournal, blackhole);
+    }
+
+    @Benchmark
+    public void replayCbor(final Blackhole blackhole) {
+        replay(this.cbor, this.cborJournal, blackhole);
+    }
+
+    private static List<Stored> write(final SerializerWithStringManifest serializer, final List<ACEvent> events) {
+        return events.map(event -> new Stored(serializer.toBinary(event), serializer.manifest(event)));
+    }
+
+    private static void replay(
+        final SerializerWithStringManifest serializer, final List<Stored> journal, final Blackhole blackhole
+    ) {
+        for (final Stored stored : journal) {
+            blackhole.consume(serializer.fromBinary(stored.bytes, stored.manifest));
+        }
+    }
+
+    private static double bytesPerEvent(final List<Stored> journal) {
+        return journal.map(stored -> stored.bytes.length).sum().doubleValue() / journal.size();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final var journals = new JournalSerializationBenchmark();
+        journals.setup();
+        System.out.printf("jackson-json: %.1f bytes per event%n", bytesPerEvent(journals.jsonJournal));
+        System.out.printf("jackson-cbor: %.1f bytes per event%n", bytesPerEvent(journals.cborJournal));
+        journals.tearDown();
+        new Runner(new OptionsBuilder()
+            .include(JournalSerializationBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+    private static final record Stored(byte[] bytes, String manifest) {
+    }
+}
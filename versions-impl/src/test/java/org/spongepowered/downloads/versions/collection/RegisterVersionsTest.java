@@ -0,0 +1,144 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import akka.NotUsed;
+import akka.actor.testkit.typed.javadsl.TestKitJunitResource;
+import akka.actor.testkit.typed.javadsl.TestProbe;
+import akka.cluster.sharding.typed.javadsl.ClusterSharding;
+import akka.cluster.sharding.typed.javadsl.EntityContext;
+import akka.persistence.testkit.javadsl.EventSourcedBehaviorTestKit;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifact.api.MavenCoordinates;
+import org.spongepowered.downloads.versions.api.models.VersionRegistration;
+
+public final class RegisterVersionsTest {
+
+    private static final TestKitJunitResource testkit = new TestKitJunitResource(EventSourcedBehaviorTestKit.config());
+    private static final String ENTITY_ID = "org.spongepowered:example";
+
+    private final EventSourcedBehaviorTestKit<ACCommand, ACEvent, State> testKit = EventSourcedBehaviorTestKit.create(
+        testkit.system(),
+        VersionedArtifactAggregate.create(new EntityContext<>(
+            VersionedArtifactAggregate.ENTITY_TYPE_KEY,
+            ENTITY_ID,
+            TestProbe.<ClusterSharding.ShardCommand>create(testkit.system()).ref()
+        ))
+    );
+
+    @AfterAll
+    public static void shutdown() {
+        testkit.system().terminate();
+    }
+
+    @BeforeEach
+    public void register() {
+        this.testKit.clear();
+        this.testKit.<NotUsed>runCommand(
+            replyTo -> new ACCommand.RegisterArtifact(new ArtifactCoordinates("org.spongepowered", "example"), replyTo));
+    }
+
+    private static MavenCoordinates version(final String version) {
+        return new MavenCoordinates("org.spongepowered", "example", version);
+    }
+
+    @Test
+    public void persistsEveryNewVersionInOneWrite() {
+        final var batch = List.of(version("1.0.0"), version("1.0.1"), version("1.1.0"));
+        final var result = this.testKit.<VersionRegistration.Response>runCommand(
+            replyTo -> new ACCommand.RegisterVersions(batch, replyTo));
+
+        assertEquals(new VersionRegistration.Response.VersionsRegistered(batch, List.empty()), result.reply());
+        assertEquals(batch.map(ACEvent.ArtifactVersionRegistered::new).toJavaList(), result.events());
+        final var state = (State.ACState) result.state();
+        assertTrue(batch.forAll(coordinates -> state.hasVersion(coordinates.version)));
+    }
+
+    @Test
+    public void registersARepeatedVersionOnce() {
+        final var batch = List.of(version("1.0.0"), version("1.0.1"), version("1.0.0"));
+        final var result = this.testKit.<VersionRegistration.Response>runCommand(
+            replyTo -> new ACCommand.RegisterVersions(batch, replyTo));
+
+        final var registered = List.of(version("1.0.0"), version("1.0.1"));
+        assertEquals(new VersionRegistration.Response.VersionsRegistered(registered, List.empty()), result.reply());
+        assertEquals(registered.map(ACEvent.ArtifactVersionRegistered::new).toJavaList(), result.events());
+    }
+
+    @Test
+    public void reportsKnownVersionsApartFromNewOnes() {
+        this.testKit.<VersionRegistration.Response>runCommand(
+            replyTo -> new ACCommand.RegisterVersion(version("1.0.0"), replyTo));
+
+        final var result = this.testKit.<VersionRegistration.Response>runCommand(
+            replyTo -> new ACCommand.RegisterVersions(List.of(version("1.0.0"), version("1.0.1")), replyTo));
+
+        assertEquals(
+            new VersionRegistration.Response.VersionsRegistered(List.of(version("1.0.1")), List.of(version("1.0.0"))),
+            result.reply()
+        );
+        assertEquals(java.util.List.of(new ACEvent.ArtifactVersionRegistered(version("1.0.1"))), result.events());
+    }
+
+    @Test
+    public void persistsNothingWhenEveryVersionIsKnown() {
+        final var batch = List.of(version("1.0.0"), version("1.0.1"));
+        this.testKit.<VersionRegistration.Response>runCommand(
+            replyTo -> new ACCommand.RegisterVersions(batch, replyTo));
+
+        final var result = this.testKit.<VersionRegistration.Response>runCommand(
+            replyTo -> new ACCommand.RegisterVersions(batch, replyTo));
+
+        assertEquals(new VersionRegistration.Response.VersionsRegistered(List.empty(), batch), result.reply());
+        assertTrue(result.events().isEmpty());
+    }
+
+    @Test
+    public void persistsNothingForAnEmptyBatch() {
+        final var result = this.testKit.<VersionRegistration.Response>runCommand(
+            replyTo -> new ACCommand.RegisterVersions(List.empty(), replyTo));
+
+        assertEquals(
+            new VersionRegistration.Response.VersionsRegistered(List.empty(), List.empty()), result.reply());
+        assertTrue(result.events().isEmpty());
+    }
+
+    @Test
+    public void refusesBatchesBeforeTheArtifactIsRegistered() {
+        this.testKit.clear();
+        final var result = this.testKit.<VersionRegistration.Response>runCommand(
+            replyTo -> new ACCommand.RegisterVersions(List.of(version("1.0.0")), replyTo));
+
+        assertEquals(new InvalidRequest(), result.reply());
+        assertTrue(result.events().isEmpty());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.collection;
+
+import io.vavr.Tuple2;
+import io.vavr.collection.List;
+import io.vavr.collection.SortedMap;
+import io.vavr.collection.TreeMap;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.spongepowered.downloads.artifact.api.Artifact;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifact.api.MavenCoordinates;
+
+import java.net.URI;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaying the version and asset events of an artifact through
+ * {@link State.ACState}, against how the versions used to be kept: re-sorted
+ * on every registration by a comparator parsing both versions. Run
+ * {@link #main(String[])} from the test classpath of this module, the
+ * {@code gc.alloc.rate.norm} it reports divided by the versions is the
+ * allocation per event.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateRecoveryBenchmark {
+
+    @Param({"1000", "5000"})
+    public int versions;
+
+    private List<MavenCoordinates> coordinates;
+    private List<List<Artifact>> assets;
+
+    @Setup
+    public void setup() {
+        final var artifact = new ArtifactCoordinates("org.spongepowered", "spongevanilla");
+        final var minecraft = List.of("1.12.2", "1.16.5", "1.18.1", "1.8.9", "1.10.2");
+        this.coordinates = List.range(0, this.versions).map(i -> artifact.version(
+            minecraft.get(i % minecraft.size()) + "-" + (i / 1000 + 5) + "." + (i / 100 % 10) + "." + (i / 10 % 10)
+                + "-RC" + i));
+        this.assets = this.coordinates.map(version -> List.of(Optional.<String>empty(), Optional.of("sources"),
+                Optional.of("universal"))
+            .map(classifier -> new Artifact(
+                classifier,
+                URI.create("https://repo.spongepowered.org/" + version.version + classifier.orElse("") + ".jar"),
+                "d41d8cd98f00b204e9800998ecf8427e",
+                "da39a3ee5e6b4b0d3255bfef95601890afd80709",
+                "jar"
+            )));
+    }
+
+    @Benchmark
+    public void resortPerVersion(final Blackhole blackhole) {
+        final Comparator<String> newestFirst = Comparator.comparing(ComparableVersion::new).reversed();
+        SortedMap<String, MavenCoordinates> collection = TreeMap.empty(newestFirst);
+        for (final MavenCoordinates version : this.coordinates) {
+            collection = collection.computeIfAbsent(version.version, v -> version)._2
+                .toSortedMap(newestFirst, Tuple2::_1, Tuple2::_2);
+        }
+        blackhole.consume(collection);
+    }
+
+    @Benchmark
+    public void replayVersions(final Blackhole blackhole) {
+        blackhole.consume(this.withVersions());
+    }
+
+    @Benchmark
+    public void replayVersionsAndAssets(final Blackhole blackhole) {
+        var state = this.withVersions();
+        for (final Tuple2<MavenCoordinates, List<Artifact>> assets : this.coordinates.zip(this.assets)) {
+            state = state.withAddedArtifacts(assets._1, assets._2);
+        }
+        blackhole.consume(state);
+    }
+
+    private State.ACState withVersions() {
+        var state = new State.ACState(new ArtifactCoordinates("org.spongepowered", "spongevanilla"));
+        for (final MavenCoordinates version : this.coordinates) {
+            state = state.withVersion(version.version);
+        }
+        return state;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(StateRecoveryBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()
+        ).run();
+    }
+}
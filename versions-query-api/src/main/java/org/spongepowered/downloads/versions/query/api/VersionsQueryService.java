@@ -27,8 +27,11 @@ package org.spongepowered.downloads.versions.query.api;
 import akka.NotUsed;
 import com.lightbend.lagom.javadsl.api.Descriptor;
 import com.lightbend.lagom.javadsl.api.Service;
+import com.lightbend.lagom.javadsl.api.ServiceAcl;
 import com.lightbend.lagom.javadsl.api.ServiceCall;
 import com.lightbend.lagom.javadsl.api.transport.Method;
+import org.spongepowered.downloads.versions.query.api.models.QueryBatch;
+import org.spongepowered.downloads.versions.query.api.models.QuerySearch;
 import org.spongepowered.downloads.versions.query.api.models.QueryVersions;
 
 import java.util.Optional;
@@ -37,7 +40,8 @@ public interface VersionsQueryService extends Service {
 
     ServiceCall<NotUsed, QueryVersions.VersionInfo> artifactVersions(
         String groupId, String artifactId, Optional<String> tags, Optional<Integer> limit,
-        Optional<Integer> offset, Optional<Boolean> recommended
+        Optional<Integer> offset, Optional<Boolean> recommended, Optional<String> cursor,
+        Optional<String> range, Optional<String> since
     );
 
     ServiceCall<NotUsed, QueryVersions.VersionDetails> latestArtifact(
@@ -48,12 +52,20 @@ public interface VersionsQueryService extends Service {
         String groupId, String artifactId, String version
     );
 
+    ServiceCall<QueryBatch.LatestRequest, QueryBatch.LatestResponse> latestArtifacts();
+
+    ServiceCall<QueryBatch.DetailsRequest, QueryBatch.DetailsResponse> batchVersionDetails();
+
+    ServiceCall<NotUsed, QuerySearch.Results> search(Optional<String> query, Optional<Integer> limit);
+
     @Override
     default Descriptor descriptor() {
         return Service.named("version-query")
             .withCalls(
                 Service.restCall(
-                    Method.GET, "/api/v2/groups/:groupId/artifacts/:artifactId/versions?tags&limit&offset&recommended",
+                    Method.GET,
+                    "/api/v2/groups/:groupId/artifacts/:artifactId/versions"
+                        + "?tags&limit&offset&recommended&cursor&range&since",
                     this::artifactVersions
                 ),
                 Service.restCall(
@@ -63,8 +75,14 @@ public interface VersionsQueryService extends Service {
                 Service.restCall(
                     Method.GET, "/api/v2/groups/:groupId/artifacts/:artifactId/latest?tags&recommended",
                     this::latestArtifact
-                )
+                ),
+                Service.restCall(Method.POST, "/api/v2/batch/latest", this::latestArtifacts),
+                Service.restCall(Method.POST, "/api/v2/batch/versions", this::batchVersionDetails),
+                Service.restCall(Method.GET, "/api/v2/search?q&limit", this::search)
             )
+            // The version export is a chunked response routed outside of the service calls
+            .withServiceAcls(ServiceAcl.forMethodAndPathRegex(
+                Method.GET, "\\Q/api/v2/groups/\\E[^/]+\\Q/artifacts/\\E[^/]+\\Q/export\\E(\\?.*)?"))
             .withAutoAcl(true);
     }
 }
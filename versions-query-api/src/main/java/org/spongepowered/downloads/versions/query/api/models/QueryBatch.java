@@ -0,0 +1,116 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.api.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.vavr.collection.List;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifact.api.MavenCoordinates;
+
+import java.util.Optional;
+
+/**
+ * Requests and responses of the batch calls, answering what would otherwise
+ * be one {@code latest} or version details request per artifact or version.
+ */
+public interface QueryBatch {
+
+    /**
+     * The most versions or artifacts a single batch may ask for.
+     */
+    int MAX_BATCH_SIZE = 100;
+
+    /**
+     * A single latest lookup, equivalent to the {@code latest} call.
+     *
+     * @param groupId The group id of the artifact
+     * @param artifactId The artifact id
+     * @param tags Tag filters in the same {@code name:value,name:value} form
+     *     as the {@code tags} query parameter
+     * @param recommended Whether the latest version must be recommended,
+     *     defaults to {@code true} like the single call
+     */
+    @JsonDeserialize
+    record LatestQuery(
+        @JsonProperty(value = "groupId", required = true) String groupId,
+        @JsonProperty(value = "artifactId", required = true) String artifactId,
+        @JsonProperty("tags") Optional<String> tags,
+        @JsonProperty("recommended") Optional<Boolean> recommended
+    ) {
+        @JsonCreator
+        public LatestQuery {
+        }
+    }
+
+    @JsonDeserialize
+    record LatestRequest(@JsonProperty(value = "artifacts", required = true) List<LatestQuery> artifacts) {
+        @JsonCreator
+        public LatestRequest {
+        }
+    }
+
+    /**
+     * The latest version of a requested artifact.
+     *
+     * @param coordinates The artifact, with its group and artifact id lower cased
+     * @param latest The details of its latest matching version, absent if the
+     *     artifact does not exist or no version matches
+     */
+    @JsonSerialize
+    record LatestResult(
+        @JsonProperty("coordinates") ArtifactCoordinates coordinates,
+        @JsonProperty("latest") Optional<QueryVersions.VersionDetails> latest
+    ) {
+    }
+
+    /**
+     * @param results One result per requested artifact, in request order
+     */
+    @JsonSerialize
+    record LatestResponse(@JsonProperty("results") List<LatestResult> results) {
+    }
+
+    @JsonDeserialize
+    record DetailsRequest(@JsonProperty(value = "versions", required = true) List<MavenCoordinates> versions) {
+        @JsonCreator
+        public DetailsRequest {
+        }
+    }
+
+    /**
+     * @param versions The details of every requested version that exists, in
+     *     request order
+     * @param missing The requested versions that do not exist
+     */
+    @JsonSerialize
+    record DetailsResponse(
+        @JsonProperty("versions") List<QueryVersions.VersionDetails> versions,
+        @JsonProperty("missing") List<MavenCoordinates> missing
+    ) {
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.api.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.vavr.collection.List;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+
+import java.util.Optional;
+
+/**
+ * Responses of the search call, which matches the words of a query against
+ * group and artifact ids, display names, versions and tag values.
+ */
+public interface QuerySearch {
+
+    /**
+     * The most hits a single search may ask for.
+     */
+    int MAX_LIMIT = 50;
+
+    /**
+     * The most characters a query may have.
+     */
+    int MAX_QUERY_LENGTH = 100;
+
+    /**
+     * The most words a query may have.
+     */
+    int MAX_WORDS = 8;
+
+    /**
+     * A matching artifact, or a matching version of one.
+     *
+     * @param coordinates The artifact
+     * @param displayName The display name of the artifact, if it has one
+     * @param version The matching version, absent if the artifact itself matched
+     */
+    @JsonSerialize
+    record Hit(
+        @JsonProperty("coordinates") ArtifactCoordinates coordinates,
+        @JsonProperty("displayName") Optional<String> displayName,
+        @JsonProperty("version") Optional<String> version
+    ) {
+    }
+
+    /**
+     * @param query The query as searched
+     * @param hits Matching artifacts, then matching versions newest first per
+     *     artifact, with matches free of typos ahead of the rest
+     */
+    @JsonSerialize
+    record Results(@JsonProperty("query") String query, @JsonProperty("hits") List<Hit> hits) {
+    }
+}
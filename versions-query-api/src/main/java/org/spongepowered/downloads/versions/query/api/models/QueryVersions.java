@@ -24,6 +24,7 @@
  */
 package org.spongepowered.downloads.versions.query.api.models;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.vavr.collection.List;
@@ -31,10 +32,39 @@ import io.vavr.collection.Map;
 import org.spongepowered.downloads.artifact.api.Artifact;
 import org.spongepowered.downloads.artifact.api.MavenCoordinates;
 
+import java.util.Optional;
+
 public interface QueryVersions {
 
+    /**
+     * A page of versions for an artifact.
+     *
+     * @param artifacts The versions on this page, in descending version order
+     * @param offset The number of versions preceding this page
+     * @param limit The maximum number of versions on this page
+     * @param size The total number of versions matching the query
+     * @param cursor An opaque continuation token for the next page, absent if
+     *     this is the last page. Passing it back as the {@code cursor} query
+     *     parameter resumes after the last version on this page, unaffected by
+     *     versions registered in the meantime.
+     */
     @JsonSerialize
-    record VersionInfo(@JsonProperty Map<String, TagCollection> artifacts, int offset, int limit, int size) {
+    record VersionInfo(
+        @JsonProperty Map<String, TagCollection> artifacts,
+        @JsonProperty int offset,
+        @JsonProperty int limit,
+        @JsonProperty int size,
+        @JsonProperty Optional<String> cursor
+    ) {
+        @JsonCreator
+        public VersionInfo {
+        }
+
+        public VersionInfo(
+            final Map<String, TagCollection> artifacts, final int offset, final int limit, final int size
+        ) {
+            this(artifacts, offset, limit, size, Optional.empty());
+        }
     }
 
     @JsonSerialize
@@ -44,6 +74,29 @@ public interface QueryVersions {
         @JsonProperty("tags") Map<String, String> tagValues,
         @JsonProperty("recommended") boolean recommended
     ) {
+        @JsonCreator
+        public VersionDetails {
+        }
+    }
+
+    /**
+     * A single line of a version export, exported versions are written as
+     * newline delimited JSON in the same descending order as the listings.
+     *
+     * @param version The version
+     * @param tags The tag values of the version
+     * @param recommended Whether the version is recommended, automatically or
+     *     manually
+     */
+    @JsonSerialize
+    record ExportedVersion(
+        @JsonProperty("version") String version,
+        @JsonProperty("tags") Map<String, String> tags,
+        @JsonProperty("recommended") boolean recommended
+    ) {
+        @JsonCreator
+        public ExportedVersion {
+        }
     }
 
 }
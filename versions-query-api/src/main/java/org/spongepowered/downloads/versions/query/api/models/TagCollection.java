@@ -24,12 +24,17 @@
  */
 package org.spongepowered.downloads.versions.query.api.models;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.vavr.collection.Map;
 
 @JsonSerialize
 public record TagCollection(
-    Map<String, String> tagValues,
-    boolean recommended
+    @JsonProperty Map<String, String> tagValues,
+    @JsonProperty boolean recommended
 ) {
+    @JsonCreator
+    public TagCollection {
+    }
 }
@@ -0,0 +1,135 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import akka.Done;
+import akka.actor.ActorSystem;
+import akka.stream.javadsl.Flow;
+import com.typesafe.config.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.spongepowered.downloads.artifact.api.ArtifactService;
+import org.spongepowered.downloads.artifact.api.event.GroupUpdate;
+import org.spongepowered.downloads.replica.ReadOnlySession;
+import org.spongepowered.downloads.versions.api.VersionsService;
+import org.spongepowered.downloads.versions.api.models.ArtifactUpdate;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the current {@link SearchIndex} of this node.
+ *
+ * <p>The index is built from the {@code version} schema in the background and
+ * replaced as a whole, searches never wait on it nor touch the database. The
+ * group activity and artifact update topics mark it outdated, and it is built
+ * again at most every {@code rebuild-interval}, so a burst of registrations
+ * costs a single rebuild. Tag values are computed by the read side after the
+ * fact and not published, so the index is also built again once it is older
+ * than {@code max-age}.
+ */
+@Singleton
+public final class ArtifactSearch {
+
+    private static final Logger LOGGER = LogManager.getLogger("ArtifactSearch");
+
+    private final SearchSettings settings;
+    private final ReadOnlySession session;
+    private final AtomicBoolean outdated = new AtomicBoolean(true);
+    private final AtomicBoolean building = new AtomicBoolean();
+    private volatile SearchIndex index;
+    private volatile long builtAt;
+
+    @Inject
+    public ArtifactSearch(
+        final Config config,
+        final ReadOnlySession session,
+        final VersionsService versionsService,
+        final ArtifactService artifactService,
+        final ActorSystem system
+    ) {
+        this.settings = new SearchSettings(config.getConfig("systemofadownload.version-query.search"));
+        this.session = session;
+        if (!this.settings.enabled) {
+            return;
+        }
+        // Every node keeps its own index, so every node needs every update
+        final var groupId = "version-query-search-" + config.getString("systemofadownload.version-query.node-id");
+        versionsService.artifactUpdateTopic()
+            .subscribe()
+            .withGroupId(groupId)
+            .atLeastOnce(Flow.<ArtifactUpdate>create().map(update -> {
+                this.outdated.set(true);
+                return Done.getInstance();
+            }));
+        artifactService.groupTopic()
+            .subscribe()
+            .withGroupId(groupId)
+            .atLeastOnce(Flow.<GroupUpdate>create().map(update -> {
+                this.outdated.set(true);
+                return Done.getInstance();
+            }));
+        system.scheduler().scheduleWithFixedDelay(
+            Duration.ZERO, this.settings.rebuildInterval, this::rebuild, system.dispatcher());
+    }
+
+    public boolean enabled() {
+        return this.settings.enabled;
+    }
+
+    /**
+     * @return The current index, absent until the first one is built
+     */
+    Optional<SearchIndex> current() {
+        return Optional.ofNullable(this.index);
+    }
+
+    private void rebuild() {
+        final var started = System.nanoTime();
+        final var expired = started - this.builtAt > this.settings.maxAge.toNanos();
+        if (!(this.outdated.get() || expired) || !this.building.compareAndSet(false, true)) {
+            return;
+        }
+        // Updates arriving from here on are not guaranteed to be in this build
+        this.outdated.set(false);
+        this.session.withTransaction(SearchIndex::load).whenComplete((built, failure) -> {
+            if (failure != null) {
+                this.outdated.set(true);
+                LOGGER.warn("Failed to build the search index", failure);
+            } else {
+                this.index = built;
+                this.builtAt = started;
+                LOGGER.info(
+                    "Built the search index of {} versions and {} terms in {}ms",
+                    built.versions(), built.terms(), (System.nanoTime() - started) / 1_000_000
+                );
+            }
+            this.building.set(false);
+        });
+    }
+}
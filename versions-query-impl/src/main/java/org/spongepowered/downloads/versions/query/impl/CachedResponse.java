@@ -0,0 +1,67 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.lightbend.lagom.serialization.Jsonable;
+import org.spongepowered.downloads.artifact.api.ArtifactRevision;
+import org.spongepowered.downloads.versions.query.api.models.QueryVersions;
+
+import java.io.Serial;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * A response held by the {@link ResponseCacheEntity} of its artifact, along
+ * with the revision it was read at.
+ */
+record CachedResponse(
+    @JsonProperty("revision") long revision,
+    @JsonProperty("lastModified") Instant lastModified,
+    @JsonProperty("versions") Optional<QueryVersions.VersionInfo> versions,
+    @JsonProperty("latest") Optional<QueryVersions.VersionDetails> latest
+) implements Jsonable {
+
+    @Serial private static final long serialVersionUID = 4130528851296353091L;
+
+    @JsonCreator
+    CachedResponse {
+    }
+
+    static CachedResponse ofVersions(final ArtifactRevision revision, final QueryVersions.VersionInfo versions) {
+        return new CachedResponse(
+            revision.revision(), revision.lastModified(), Optional.of(versions), Optional.empty());
+    }
+
+    static CachedResponse ofLatest(final ArtifactRevision revision, final QueryVersions.VersionDetails latest) {
+        return new CachedResponse(
+            revision.revision(), revision.lastModified(), Optional.empty(), Optional.of(latest));
+    }
+
+    ArtifactRevision artifactRevision() {
+        return new ArtifactRevision(this.revision, this.lastModified);
+    }
+}
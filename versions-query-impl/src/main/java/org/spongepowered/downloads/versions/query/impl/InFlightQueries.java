@@ -0,0 +1,110 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical queries running at the same time, so that a burst of
+ * identical requests costs a single round trip to the database.
+ *
+ * <p>The first caller for a key runs the query, callers arriving while it
+ * runs attach to its result. No result outlives its query, this is not a
+ * cache. A caller waits at most {@code max-wait} on someone else's query
+ * before running its own, and a query still running after {@code max-wait}
+ * stops accepting new callers, so a stuck query cannot hold up everyone
+ * asking after it.
+ */
+@Singleton
+public final class InFlightQueries {
+
+    private final boolean enabled;
+    private final Duration maxWait;
+    private final ConcurrentMap<String, CompletableFuture<Object>> running = new ConcurrentHashMap<>();
+
+    @Inject
+    public InFlightQueries(final Config config) {
+        final var settings = config.getConfig("systemofadownload.version-query.coalesce");
+        this.enabled = settings.getBoolean("enabled");
+        this.maxWait = settings.getDuration("max-wait");
+    }
+
+    /**
+     * Runs the query, unless an identical one is already running.
+     *
+     * @param key Identifies the query, equal keys must produce equal results
+     * @param query Starts the query
+     * @param <T> The result type
+     * @return The result of whichever identical query ran
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletionStage<T> join(final String key, final Supplier<? extends CompletionStage<T>> query) {
+        if (!this.enabled) {
+            return query.get();
+        }
+        final var started = new CompletableFuture<Object>();
+        final var existing = this.running.putIfAbsent(key, started);
+        if (existing != null) {
+            return ((CompletableFuture<T>) existing.copy())
+                .orTimeout(this.maxWait.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(failure -> {
+                    final var cause = failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause()
+                        : failure;
+                    return cause instanceof TimeoutException
+                        ? query.get()
+                        : CompletableFuture.failedFuture(cause);
+                });
+        }
+        CompletableFuture.delayedExecutor(this.maxWait.toMillis(), TimeUnit.MILLISECONDS)
+            .execute(() -> this.running.remove(key, started));
+        try {
+            query.get().whenComplete((result, failure) -> {
+                this.running.remove(key, started);
+                if (failure != null) {
+                    started.completeExceptionally(failure);
+                } else {
+                    started.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            this.running.remove(key, started);
+            started.completeExceptionally(e);
+        }
+        return (CompletableFuture<T>) started.copy();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import akka.stream.Materializer;
+import io.vavr.collection.SortedMap;
+import io.vavr.collection.TreeMap;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import play.mvc.Filter;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import javax.inject.Inject;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Answers the first page of version listings and latest version lookups with
+ * the bodies kept by {@link PrerenderedResponses}, so repeated requests for
+ * the same shape are neither routed to the service calls nor serialized
+ * again. Requests for later pages, with unknown parameters or while the store
+ * is disabled pass through untouched.
+ */
+public final class PrerenderedResponseFilter extends Filter {
+
+    private static final Pattern PRERENDERED_PATHS =
+        Pattern.compile("/api/v2/groups/([^/]+)/artifacts/([^/]+)/(versions|latest)");
+    private static final Set<String> VERSIONS_PARAMETERS = Set.of("tags", "limit", "recommended", "range", "since");
+    private static final Set<String> LATEST_PARAMETERS = Set.of("tags", "recommended");
+
+    private final PrerenderedResponses responses;
+
+    @Inject
+    public PrerenderedResponseFilter(final Materializer materializer, final PrerenderedResponses responses) {
+        super(materializer);
+        this.responses = responses;
+    }
+
+    @Override
+    public CompletionStage<Result> apply(
+        final Function<Http.RequestHeader, CompletionStage<Result>> next, final Http.RequestHeader request
+    ) {
+        if (!this.responses.enabled() || !request.method().equals("GET")) {
+            return next.apply(request);
+        }
+        final var matcher = PRERENDERED_PATHS.matcher(request.path());
+        if (!matcher.matches()) {
+            return next.apply(request);
+        }
+        final var endpoint = matcher.group(3);
+        final var accepted = endpoint.equals(PrerenderedResponses.Key.VERSIONS)
+            ? VERSIONS_PARAMETERS
+            : LATEST_PARAMETERS;
+        SortedMap<String, String> parameters = TreeMap.empty();
+        for (final var parameter : request.queryString().entrySet()) {
+            if (!accepted.contains(parameter.getKey()) || parameter.getValue().length != 1) {
+                return next.apply(request);
+            }
+            final var value = canonical(parameter.getKey(), parameter.getValue()[0]);
+            if (!parses(parameter.getKey(), value)) {
+                // Left to the service to refuse
+                return next.apply(request);
+            }
+            parameters = parameters.put(parameter.getKey(), value);
+        }
+        final var key = new PrerenderedResponses.Key(
+            new ArtifactCoordinates(segment(matcher.group(1)), segment(matcher.group(2))), endpoint, parameters);
+        return this.responses.get(key)
+            .exceptionally(failure -> Option.none())
+            .thenCompose(stored -> stored.isDefined()
+                ? CompletableFuture.completedFuture(stored.get().respond(request))
+                : next.apply(request));
+    }
+
+    private static boolean parses(final String name, final String value) {
+        return switch (name) {
+            case "limit" -> Try.of(() -> Integer.parseInt(value)).isSuccess();
+            case "recommended" -> value.equals("true") || value.equals("false");
+            default -> true;
+        };
+    }
+
+    private static String segment(final String segment) {
+        return URLDecoder.decode(segment, StandardCharsets.UTF_8).toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static String canonical(final String name, final String value) {
+        if (!name.equals("tags")) {
+            return value.trim().toLowerCase(Locale.ROOT);
+        }
+        return Arrays.stream(value.split(","))
+            .map(String::strip)
+            .sorted()
+            .collect(Collectors.joining(","));
+    }
+}
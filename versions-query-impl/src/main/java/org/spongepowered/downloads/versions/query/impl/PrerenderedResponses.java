@@ -0,0 +1,427 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import akka.Done;
+import akka.NotUsed;
+import akka.japi.Pair;
+import akka.stream.javadsl.Flow;
+import akka.util.ByteString;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lightbend.lagom.javadsl.api.transport.RequestHeader;
+import com.lightbend.lagom.javadsl.api.transport.ResponseHeader;
+import com.lightbend.lagom.javadsl.api.transport.TransportException;
+import com.typesafe.config.Config;
+import io.vavr.collection.SortedMap;
+import io.vavr.control.Option;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifact.api.ArtifactRevision;
+import org.spongepowered.downloads.http.ConditionalResponses;
+import org.spongepowered.downloads.versions.api.VersionsService;
+import org.spongepowered.downloads.versions.api.models.ArtifactUpdate;
+import play.http.HttpEntity;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rendered response bodies of the hottest query shapes, answered as stored
+ * bytes by {@link PrerenderedResponseFilter}.
+ *
+ * <p>A shape is an artifact together with a canonical rendering of the
+ * filter and page requested. Its body is rendered by invoking the service
+ * call the shape names the first time it is requested, gzipped alongside if
+ * {@code gzip} is set, and kept with the artifact revision it was rendered
+ * at. Whenever the artifact update topic reports a new version or tag for an
+ * artifact, every stored shape of that artifact is rendered again in the
+ * background. Shapes older than {@code refresh-after} are rendered again on
+ * their next request, since recommendation changes are not published on the
+ * topic. Either way the previous body keeps being served until its
+ * replacement is ready. Once the stored bytes exceed {@code max-weight} the
+ * least recently used shapes are dropped.
+ */
+@Singleton
+public final class PrerenderedResponses {
+
+    private static final Logger LOGGER = LogManager.getLogger("PrerenderedResponses");
+    private static final long ENTRY_OVERHEAD = 256;
+    private static final String CONTENT_TYPE = Http.MimeTypes.JSON + "; charset=utf-8";
+
+    private final PrerenderSettings settings;
+    private final VersionQueryServiceImpl service;
+    private final ObjectMapper mapper;
+    private final java.util.LinkedHashMap<Key, Entry> entries = new java.util.LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+
+    @Inject
+    public PrerenderedResponses(
+        final Config config,
+        final VersionsService versionsService,
+        final VersionQueryServiceImpl service,
+        final ObjectMapper mapper
+    ) {
+        this.settings = new PrerenderSettings(config.getConfig("systemofadownload.version-query.prerender"));
+        this.service = service;
+        this.mapper = mapper;
+        if (this.settings.enabled) {
+            // Every node keeps its own bodies, so every node needs every update
+            versionsService.artifactUpdateTopic()
+                .subscribe()
+                .withGroupId("version-query-prerender-" + config.getString("systemofadownload.version-query.node-id"))
+                .atLeastOnce(Flow.<ArtifactUpdate>create().map(update -> {
+                    if (update instanceof ArtifactUpdate.ArtifactVersionRegistered v) {
+                        this.refresh(v.coordinates().asArtifactCoordinates());
+                    } else if (update instanceof ArtifactUpdate.TagRegistered t) {
+                        this.refresh(t.coordinates());
+                    }
+                    return Done.getInstance();
+                }));
+        }
+    }
+
+    public boolean enabled() {
+        return this.settings.enabled;
+    }
+
+    /**
+     * Looks up the stored body of a shape, rendering it on a miss. Renders
+     * invoke the service call directly with nothing but the {@link Key}, so
+     * no header of the client that happened to miss, nor any of its
+     * validators, ends up in the stored body. A shape whose call answers
+     * anything but a {@code 200} carrying the artifact's validators is not
+     * stored, and is left to the service to answer.
+     *
+     * @param key The shape
+     * @return The stored body, or nothing if the shape cannot be stored
+     */
+    CompletionStage<Option<Rendered>> get(final Key key) {
+        final var now = System.nanoTime();
+        final Entry entry;
+        final CompletableFuture<Option<Rendered>> placeholder;
+        synchronized (this) {
+            final var existing = this.entries.get(key);
+            if (existing == null || existing.current.isCompletedExceptionally()) {
+                if (existing != null) {
+                    this.remove(key, existing);
+                }
+                entry = new Entry(now);
+                placeholder = new CompletableFuture<>();
+                entry.current = placeholder;
+                this.entries.put(key, entry);
+            } else {
+                entry = existing;
+                placeholder = null;
+                if (!entry.current.isDone() || !entry.needsRefresh(now) || entry.reloading) {
+                    return entry.current;
+                }
+                entry.reloading = true;
+                entry.stale = false;
+            }
+        }
+        // Rendering runs the service call, which must not happen under the lock
+        final var rendering = this.render(key, entry);
+        if (placeholder == null) {
+            // Serve the previous body while a single render replaces it
+            return entry.current;
+        }
+        rendering.whenComplete((rendered, throwable) -> {
+            if (throwable != null) {
+                placeholder.completeExceptionally(throwable);
+            } else {
+                placeholder.complete(rendered);
+            }
+        });
+        return placeholder;
+    }
+
+    void refresh(final ArtifactCoordinates coordinates) {
+        final var artifact = new ArtifactCoordinates(
+            coordinates.groupId.toLowerCase(Locale.ROOT), coordinates.artifactId.toLowerCase(Locale.ROOT));
+        final var refreshing = new ArrayList<java.util.Map.Entry<Key, Entry>>();
+        synchronized (this) {
+            for (final var stored : this.entries.entrySet()) {
+                if (!stored.getKey().artifact().equals(artifact)) {
+                    continue;
+                }
+                final var entry = stored.getValue();
+                if (!entry.current.isDone() || entry.reloading) {
+                    // The render in flight may predate the update, the next request renders again
+                    entry.stale = true;
+                    continue;
+                }
+                entry.reloading = true;
+                entry.stale = false;
+                refreshing.add(stored);
+            }
+        }
+        refreshing.forEach(stored -> this.render(stored.getKey(), stored.getValue()));
+    }
+
+    private CompletableFuture<Option<Rendered>> render(final Key key, final Entry entry) {
+        final CompletableFuture<Option<Rendered>> rendering;
+        try {
+            rendering = this.invoke(key)
+                .handle((rendered, throwable) -> {
+                    if (throwable == null) {
+                        return rendered;
+                    }
+                    final var cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    if (cause instanceof TransportException) {
+                        // Not found or not a valid query, which the service answers on its own
+                        return Option.<Rendered>none();
+                    }
+                    throw new CompletionException(cause);
+                })
+                .toCompletableFuture();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                entry.reloading = false;
+            }
+            return CompletableFuture.failedFuture(e);
+        }
+        rendering.whenComplete((rendered, throwable) -> {
+            synchronized (this) {
+                entry.reloading = false;
+                if (throwable != null) {
+                    LOGGER.warn("Failed to render {} for {}", key.shape(), key.artifact(), throwable);
+                    return;
+                }
+                if (this.entries.get(key) != entry) {
+                    return;
+                }
+                if (rendered.isEmpty()) {
+                    this.remove(key, entry);
+                    return;
+                }
+                this.weight -= entry.weight;
+                entry.current = CompletableFuture.completedFuture(rendered);
+                entry.renderedAt = System.nanoTime();
+                entry.weight = rendered.get().weight();
+                this.weight += entry.weight;
+                this.evict();
+            }
+        });
+        return rendering;
+    }
+
+    private CompletionStage<Option<Rendered>> invoke(final Key key) {
+        final var parameters = key.parameters();
+        final var tags = parameters.get("tags").toJavaOptional();
+        final var recommended = parameters.get("recommended").map(Boolean::valueOf).toJavaOptional();
+        if (key.endpoint().equals(Key.LATEST)) {
+            return this.service.latestArtifact(key.artifact().groupId, key.artifact().artifactId, tags, recommended)
+                .invokeWithHeaders(RequestHeader.DEFAULT, NotUsed.notUsed())
+                .thenApply(this::capture);
+        }
+        return this.service.artifactVersions(
+                key.artifact().groupId,
+                key.artifact().artifactId,
+                tags,
+                parameters.get("limit").map(Integer::valueOf).toJavaOptional(),
+                Optional.empty(),
+                recommended,
+                Optional.empty(),
+                parameters.get("range").toJavaOptional(),
+                parameters.get("since").toJavaOptional()
+            )
+            .invokeWithHeaders(RequestHeader.DEFAULT, NotUsed.notUsed())
+            .thenApply(this::capture);
+    }
+
+    private <T> Option<Rendered> capture(final Pair<ResponseHeader, T> response) {
+        final var header = response.first();
+        if (header.status() != Http.Status.OK) {
+            return Option.none();
+        }
+        final var etag = header.getHeader(Http.HeaderNames.ETAG);
+        final var lastModified = header.getHeader(Http.HeaderNames.LAST_MODIFIED);
+        if (etag.isEmpty() || lastModified.isEmpty()) {
+            return Option.none();
+        }
+        final ArtifactRevision revision;
+        try {
+            revision = new ArtifactRevision(
+                Long.parseLong(etag.get().replace("\"", "")),
+                DateTimeFormatter.RFC_1123_DATE_TIME.parse(lastModified.get(), Instant::from)
+            );
+        } catch (NumberFormatException | DateTimeException e) {
+            return Option.none();
+        }
+        final ByteString body;
+        try {
+            body = ByteString.fromArrayUnsafe(this.mapper.writeValueAsBytes(response.second()));
+        } catch (final JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize a response at revision " + revision.revision(), e);
+        }
+        return Option.some(new Rendered(
+            body,
+            this.settings.gzip ? Option.of(gzip(body)) : Option.none(),
+            CONTENT_TYPE,
+            revision,
+            lastModified.get()
+        ));
+    }
+
+    private static ByteString gzip(final ByteString body) {
+        final var compressed = new ByteArrayOutputStream(body.size() / 4 + 64);
+        try (final var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body.toArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ByteString.fromArray(compressed.toByteArray());
+    }
+
+    private void evict() {
+        final var iterator = this.entries.values().iterator();
+        while (this.weight > this.settings.maxWeight && iterator.hasNext()) {
+            final var eldest = iterator.next();
+            this.weight -= eldest.weight;
+            iterator.remove();
+        }
+    }
+
+    private void remove(final Key key, final Entry entry) {
+        this.entries.remove(key);
+        this.weight -= entry.weight;
+    }
+
+    /**
+     * @param artifact The artifact, lower cased
+     * @param endpoint Either {@link #VERSIONS} or {@link #LATEST}
+     * @param parameters The canonical query parameters of the shape, already
+     *     checked to parse as what the service call expects
+     */
+    record Key(ArtifactCoordinates artifact, String endpoint, SortedMap<String, String> parameters) {
+
+        static final String VERSIONS = "versions";
+        static final String LATEST = "latest";
+
+        String shape() {
+            return this.parameters.map(parameter -> parameter._1 + "=" + parameter._2)
+                .mkString(this.endpoint + "?", "&", "");
+        }
+    }
+
+    /**
+     * A stored body along with the validators it was rendered with. The
+     * gzipped copy is a different representation of the same revision, so it
+     * carries its own strong entity tag.
+     */
+    record Rendered(
+        ByteString body,
+        Option<ByteString> gzipped,
+        String contentType,
+        ArtifactRevision revision,
+        String lastModified
+    ) {
+
+        long weight() {
+            return ENTRY_OVERHEAD + this.body.size() + this.gzipped.map(ByteString::size).getOrElse(0);
+        }
+
+        /**
+         * Answers a request from the stored bytes, with {@code 304 Not Modified}
+         * if the client already has the revision, and with the gzipped copy if
+         * the client accepts it.
+         */
+        Result respond(final Http.RequestHeader request) {
+            final var gzip = this.gzipped.isDefined() && acceptsGzip(request);
+            final var headers = new java.util.HashMap<String, String>();
+            headers.put(
+                Http.HeaderNames.ETAG,
+                gzip ? ConditionalResponses.gzipEtag(this.revision) : this.revision.etag()
+            );
+            headers.put(Http.HeaderNames.LAST_MODIFIED, this.lastModified);
+            if (this.gzipped.isDefined()) {
+                headers.put(Http.HeaderNames.VARY, Http.HeaderNames.ACCEPT_ENCODING);
+            }
+            if (ConditionalResponses.isNotModified(this.revision, request::header)) {
+                return new Result(Http.Status.NOT_MODIFIED, headers);
+            }
+            if (gzip) {
+                headers.put(Http.HeaderNames.CONTENT_ENCODING, "gzip");
+                return new Result(
+                    Http.Status.OK, headers, new HttpEntity.Strict(this.gzipped.get(), Optional.of(this.contentType)));
+            }
+            return new Result(Http.Status.OK, headers, new HttpEntity.Strict(this.body, Optional.of(this.contentType)));
+        }
+
+        private static boolean acceptsGzip(final Http.RequestHeader request) {
+            return request.header(Http.HeaderNames.ACCEPT_ENCODING)
+                .map(accepted -> {
+                    for (final String coding : accepted.split(",")) {
+                        final var parameters = coding.split(";");
+                        final var name = parameters[0].trim();
+                        if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                            continue;
+                        }
+                        for (int i = 1; i < parameters.length; i++) {
+                            if (parameters[i].trim().matches("q=0(\\.0*)?")) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                    return false;
+                })
+                .orElse(false);
+        }
+    }
+
+    private final class Entry {
+        volatile CompletableFuture<Option<Rendered>> current;
+        long renderedAt;
+        long weight = 0;
+        boolean stale = false;
+        boolean reloading = false;
+
+        Entry(final long now) {
+            this.renderedAt = now;
+        }
+
+        boolean needsRefresh(final long now) {
+            return this.stale || now - this.renderedAt > PrerenderedResponses.this.settings.refreshAfter.toNanos();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.javadsl.Behaviors;
+import akka.cluster.sharding.typed.javadsl.EntityTypeKey;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.lightbend.lagom.serialization.Jsonable;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+
+import java.io.Serial;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Holds the cached responses of a single artifact, one entity per artifact
+ * across the cluster, identified like the versioned artifact aggregates by
+ * {@code groupId:artifactId}. Nothing is persisted, an entity that is
+ * passivated or moved to another node simply starts out empty.
+ */
+public final class ResponseCacheEntity {
+
+    public static final EntityTypeKey<Command> ENTITY_TYPE_KEY =
+        EntityTypeKey.create(Command.class, "VersionQueryResponses");
+
+    public interface Command extends Jsonable {
+    }
+
+    @JsonDeserialize
+    record Get(
+        @JsonProperty(required = true) String key,
+        @JsonProperty(required = true) ActorRef<Found> replyTo
+    ) implements Command {
+        @Serial private static final long serialVersionUID = -1766350962327512407L;
+
+        @JsonCreator
+        Get {
+        }
+    }
+
+    @JsonDeserialize
+    record Put(
+        @JsonProperty(required = true) String key,
+        @JsonProperty(required = true) CachedResponse response
+    ) implements Command {
+        @Serial private static final long serialVersionUID = 2862734427316592395L;
+
+        @JsonCreator
+        Put {
+        }
+    }
+
+    @JsonDeserialize
+    record Invalidate(@JsonProperty(required = true) ArtifactCoordinates coordinates) implements Command {
+        @Serial private static final long serialVersionUID = 5427290718442286712L;
+
+        @JsonCreator
+        Invalidate {
+        }
+    }
+
+    @JsonDeserialize
+    record Found(@JsonProperty Optional<CachedResponse> response) implements Jsonable {
+        @Serial private static final long serialVersionUID = -3012473474707213566L;
+
+        @JsonCreator
+        Found {
+        }
+    }
+
+    private static final record Entry(CachedResponse response, long storedAt) {
+    }
+
+    private ResponseCacheEntity() {
+    }
+
+    static Behavior<Command> create(final SharedCacheSettings settings) {
+        return Behaviors.setup(ctx -> {
+            // Bounded per artifact, queries differing only by offset could otherwise fill it
+            final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                    return this.size() > settings.maxEntries;
+                }
+            };
+            final var timeToLive = settings.timeToLive.toNanos();
+            return Behaviors.receive(Command.class)
+                .onMessage(Get.class, get -> {
+                    final var entry = entries.get(get.key);
+                    if (entry != null && System.nanoTime() - entry.storedAt > timeToLive) {
+                        entries.remove(get.key);
+                        get.replyTo.tell(new Found(Optional.empty()));
+                    } else {
+                        get.replyTo.tell(new Found(Optional.ofNullable(entry).map(Entry::response)));
+                    }
+                    return Behaviors.same();
+                })
+                .onMessage(Put.class, put -> {
+                    final var existing = entries.get(put.key);
+                    // A slower reader must not replace what a faster one read at a newer revision
+                    if (existing == null || existing.response.revision() <= put.response.revision()) {
+                        entries.put(put.key, new Entry(put.response, System.nanoTime()));
+                    }
+                    return Behaviors.same();
+                })
+                .onMessage(Invalidate.class, invalidate -> {
+                    entries.clear();
+                    return Behaviors.same();
+                })
+                .build();
+        });
+    }
+}
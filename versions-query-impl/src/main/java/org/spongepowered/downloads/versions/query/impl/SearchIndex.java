@@ -0,0 +1,297 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import io.vavr.collection.List;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.versions.query.api.models.QuerySearch;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable inverted index over the artifacts and versions of the
+ * {@code version} schema, answering searches without the database.
+ *
+ * <p>Artifacts are indexed by their group id, artifact id and display name,
+ * versions by the version itself and their tag values. Versions are numbered
+ * per artifact, newest first, so the versions of a set of artifacts are a
+ * handful of ranges. Every word of a query must match the start of some term
+ * of an artifact, or of a version or its artifact, and a version only counts
+ * if at least one word matched the version itself. Words without digits may
+ * carry a typo, one for four characters or more and two for eight or more,
+ * matches needing none are listed first.
+ */
+final class SearchIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}.\\-]+");
+    private static final Pattern PARTS = Pattern.compile("[.\\-]");
+
+    private final ArtifactCoordinates[] artifacts;
+    private final String[] displayNames;
+    private final int[] firstVersions;
+    private final String[] versions;
+    private final int[] versionArtifacts;
+    private final TermDictionary dictionary;
+    private final int[][] artifactPostings;
+    private final int[][] versionPostings;
+
+    private SearchIndex(
+        final ArtifactCoordinates[] artifacts,
+        final String[] displayNames,
+        final int[] firstVersions,
+        final String[] versions,
+        final int[] versionArtifacts,
+        final Map<String, Postings> postings
+    ) {
+        this.artifacts = artifacts;
+        this.displayNames = displayNames;
+        this.firstVersions = firstVersions;
+        this.versions = versions;
+        this.versionArtifacts = versionArtifacts;
+        final var terms = postings.keySet().toArray(String[]::new);
+        Arrays.sort(terms);
+        this.dictionary = new TermDictionary(terms);
+        this.artifactPostings = new int[terms.length][];
+        this.versionPostings = new int[terms.length][];
+        for (int i = 0; i < terms.length; i++) {
+            final var entry = postings.get(terms[i]);
+            this.artifactPostings[i] = entry.artifacts.toArray();
+            this.versionPostings[i] = entry.versions.toArray();
+        }
+    }
+
+    static SearchIndex load(final EntityManager em) {
+        @SuppressWarnings("unchecked") final java.util.List<Object[]> artifactRows = em.createNativeQuery("""
+            select a.group_id, a.artifact_id, a.display_name from version.artifacts a
+            order by a.group_id, a.artifact_id
+            """).getResultList();
+        @SuppressWarnings("unchecked") final java.util.List<Object[]> versionRows = em.createNativeQuery("""
+            select v.group_id, v.artifact_id, v.version from version.versioned_artifacts v
+            order by v.group_id, v.artifact_id, v.sort_key desc, v.version collate "C" desc
+            """).getResultList();
+        @SuppressWarnings("unchecked") final java.util.List<Object[]> tagRows = em.createNativeQuery("""
+            select t.maven_group_id, t.maven_artifact_id, t.maven_version, t.tag_value from version.versioned_tags t
+            where t.tag_value is not null
+            """).getResultList();
+
+        final Map<String, Postings> postings = new HashMap<>();
+        final Map<ArtifactCoordinates, Integer> artifactIds = new HashMap<>();
+        final var artifacts = new ArtifactCoordinates[artifactRows.size()];
+        final var displayNames = new String[artifactRows.size()];
+        for (final Object[] row : artifactRows) {
+            final int id = artifactIds.size();
+            artifacts[id] = new ArtifactCoordinates((String) row[0], (String) row[1]);
+            displayNames[id] = (String) row[2];
+            artifactIds.put(artifacts[id], id);
+            final Consumer<String> add = term -> postings.computeIfAbsent(term, t -> new Postings()).artifacts.add(id);
+            terms(artifacts[id].groupId, add);
+            terms(artifacts[id].artifactId, add);
+            if (displayNames[id] != null) {
+                terms(displayNames[id], add);
+            }
+        }
+
+        final Map<String, Integer> versionIds = new HashMap<>();
+        final var versions = new String[versionRows.size()];
+        final var versionArtifacts = new int[versionRows.size()];
+        final var firstVersions = new int[artifacts.length + 1];
+        int previousArtifact = -1;
+        for (final Object[] row : versionRows) {
+            final var artifact = artifactIds.get(new ArtifactCoordinates((String) row[0], (String) row[1]));
+            if (artifact == null || artifact < previousArtifact) {
+                continue;
+            }
+            final int id = versionIds.size();
+            versions[id] = (String) row[2];
+            versionArtifacts[id] = artifact;
+            // Rows arrive in the order of the artifacts, the versions of each become one range
+            while (previousArtifact < artifact) {
+                firstVersions[++previousArtifact] = id;
+            }
+            versionIds.put(row[0] + ":" + row[1] + ":" + versions[id], id);
+            terms(versions[id], term -> postings.computeIfAbsent(term, t -> new Postings()).versions.add(id));
+        }
+        while (previousArtifact < artifacts.length) {
+            firstVersions[++previousArtifact] = versionIds.size();
+        }
+
+        for (final Object[] row : tagRows) {
+            final var id = versionIds.get(row[0] + ":" + row[1] + ":" + row[2]);
+            if (id != null) {
+                terms((String) row[3], term -> postings.computeIfAbsent(term, t -> new Postings()).versions.add(id));
+            }
+        }
+        return new SearchIndex(
+            artifacts, displayNames, firstVersions, Arrays.copyOf(versions, versionIds.size()), versionArtifacts,
+            postings
+        );
+    }
+
+    int terms() {
+        return this.dictionary.size();
+    }
+
+    int versions() {
+        return this.versions.length;
+    }
+
+    /**
+     * Splits a query into the words it is searched by, the same way indexed
+     * text is split.
+     */
+    static List<String> words(final String query) {
+        return List.of(SEPARATORS.split(query.toLowerCase(Locale.ROOT))).filter(word -> !word.isEmpty());
+    }
+
+    List<QuerySearch.Hit> search(final List<String> words, final int limit) {
+        if (words.isEmpty()) {
+            return List.empty();
+        }
+        final var exactArtifacts = new BitSet();
+        final var exactVersions = new BitSet();
+        this.match(words.map(word -> 0), words, exactArtifacts, exactVersions);
+        var hits = this.hits(exactArtifacts, exactVersions, limit);
+        final var edits = words.map(SearchIndex::allowedEdits);
+        if (hits.size() < limit && edits.exists(allowed -> allowed > 0)) {
+            final var fuzzyArtifacts = new BitSet();
+            final var fuzzyVersions = new BitSet();
+            this.match(edits, words, fuzzyArtifacts, fuzzyVersions);
+            fuzzyArtifacts.andNot(exactArtifacts);
+            fuzzyVersions.andNot(exactVersions);
+            hits = hits.appendAll(this.hits(fuzzyArtifacts, fuzzyVersions, limit - hits.size()));
+        }
+        return hits;
+    }
+
+    private void match(
+        final List<Integer> edits, final List<String> words, final BitSet artifacts, final BitSet versions
+    ) {
+        artifacts.set(0, this.artifacts.length);
+        versions.set(0, this.versions.length);
+        final var own = new BitSet(this.versions.length);
+        for (final var word : words.zip(edits)) {
+            final var wordArtifacts = new BitSet(this.artifacts.length);
+            final var wordVersions = new BitSet(this.versions.length);
+            this.dictionary.matchPrefix(word._1, word._2, term -> {
+                for (final int artifact : this.artifactPostings[term]) {
+                    wordArtifacts.set(artifact);
+                }
+                for (final int version : this.versionPostings[term]) {
+                    wordVersions.set(version);
+                }
+            });
+            own.or(wordVersions);
+            // A word matching an artifact matches each of its versions as well
+            for (int a = wordArtifacts.nextSetBit(0); a >= 0; a = wordArtifacts.nextSetBit(a + 1)) {
+                wordVersions.set(this.firstVersions[a], this.firstVersions[a + 1]);
+            }
+            artifacts.and(wordArtifacts);
+            versions.and(wordVersions);
+        }
+        versions.and(own);
+    }
+
+    private List<QuerySearch.Hit> hits(final BitSet artifacts, final BitSet versions, final int limit) {
+        final var hits = new java.util.ArrayList<QuerySearch.Hit>(limit);
+        for (int a = artifacts.nextSetBit(0); a >= 0 && hits.size() < limit; a = artifacts.nextSetBit(a + 1)) {
+            hits.add(new QuerySearch.Hit(
+                this.artifacts[a], Optional.ofNullable(this.displayNames[a]), Optional.empty()));
+        }
+        for (int v = versions.nextSetBit(0); v >= 0 && hits.size() < limit; v = versions.nextSetBit(v + 1)) {
+            final int a = this.versionArtifacts[v];
+            hits.add(new QuerySearch.Hit(
+                this.artifacts[a], Optional.ofNullable(this.displayNames[a]), Optional.of(this.versions[v])));
+        }
+        return List.ofAll(hits);
+    }
+
+    /*
+    Digits are left alone, a typo in a version is a different version.
+     */
+    private static int allowedEdits(final String word) {
+        if (word.chars().anyMatch(Character::isDigit)) {
+            return 0;
+        }
+        return word.length() >= 8 ? 2 : word.length() >= 4 ? 1 : 0;
+    }
+
+    /*
+    Every word is a term, and so is every part of a word split at dashes, or at dots
+    when it has no digits, so group ids match by their last part and versions by
+    their qualifier, without splitting the numbers of a version apart.
+     */
+    private static void terms(final String text, final Consumer<String> add) {
+        for (final String word : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            add.accept(word);
+            final var parts = word.chars().anyMatch(Character::isDigit) ? word.split("-") : PARTS.split(word);
+            if (parts.length > 1) {
+                for (final String part : parts) {
+                    if (!part.isEmpty()) {
+                        add.accept(part);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Postings {
+        final IntList artifacts = new IntList();
+        final IntList versions = new IntList();
+    }
+
+    /*
+    Ids are mostly added in increasing order, so only a repeat of the last one is
+    dropped, any other only sets the same bit twice when searching.
+     */
+    private static final class IntList {
+        private int[] values = new int[1];
+        private int size = 0;
+
+        void add(final int value) {
+            if (this.size > 0 && this.values[this.size - 1] == value) {
+                return;
+            }
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.values[this.size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(this.values, this.size);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import akka.Done;
+import akka.cluster.sharding.typed.javadsl.ClusterSharding;
+import akka.cluster.sharding.typed.javadsl.Entity;
+import akka.cluster.sharding.typed.javadsl.EntityRef;
+import akka.stream.javadsl.Flow;
+import com.typesafe.config.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.versions.api.VersionsService;
+import org.spongepowered.downloads.versions.api.models.ArtifactUpdate;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A response cache shared by every node of the cluster, each artifact's
+ * responses held by one sharded {@link ResponseCacheEntity}. Adding nodes
+ * neither duplicates entries nor dilutes the hit rate, and a rolling deploy
+ * only loses the entities of the node going down.
+ *
+ * <p>The artifact update topic clears the entity of an artifact, consumed
+ * once for the whole cluster since the entities are too. Recommendation
+ * changes and tag values computed by the read side are not published, nor
+ * does the topic wait for the read side, so entries also expire after
+ * {@code time-to-live}. The cache is strictly best effort, a lookup that
+ * fails or times out is a miss.
+ */
+@Singleton
+public final class SharedResponseCache {
+
+    private static final Logger LOGGER = LogManager.getLogger("SharedResponseCache");
+
+    private final SharedCacheSettings settings;
+    private final ClusterSharding sharding;
+
+    @Inject
+    public SharedResponseCache(
+        final Config config, final ClusterSharding sharding, final VersionsService versionsService
+    ) {
+        this.settings = new SharedCacheSettings(config.getConfig("systemofadownload.version-query.shared-cache"));
+        this.sharding = sharding;
+        if (!this.settings.enabled) {
+            return;
+        }
+        this.sharding.init(Entity.of(
+            ResponseCacheEntity.ENTITY_TYPE_KEY, context -> ResponseCacheEntity.create(this.settings)));
+        versionsService.artifactUpdateTopic()
+            .subscribe()
+            .withGroupId("version-query-response-cache")
+            .atLeastOnce(Flow.<ArtifactUpdate>create().map(update -> {
+                if (update instanceof ArtifactUpdate.ArtifactVersionRegistered v) {
+                    this.invalidate(v.coordinates().asArtifactCoordinates());
+                } else if (update instanceof ArtifactUpdate.TagRegistered t) {
+                    this.invalidate(t.coordinates());
+                }
+                return Done.getInstance();
+            }));
+    }
+
+    public boolean enabled() {
+        return this.settings.enabled;
+    }
+
+    CompletionStage<Optional<CachedResponse>> get(final ArtifactCoordinates coordinates, final String key) {
+        return this.entity(coordinates)
+            .<ResponseCacheEntity.Found>ask(
+                replyTo -> new ResponseCacheEntity.Get(key, replyTo), this.settings.askTimeout)
+            .thenApply(ResponseCacheEntity.Found::response)
+            .exceptionally(failure -> {
+                LOGGER.debug("Missed the shared cache of {}", coordinates, failure);
+                return Optional.empty();
+            });
+    }
+
+    void put(final ArtifactCoordinates coordinates, final String key, final CachedResponse response) {
+        this.entity(coordinates).tell(new ResponseCacheEntity.Put(key, response));
+    }
+
+    private void invalidate(final ArtifactCoordinates coordinates) {
+        this.entity(coordinates).tell(new ResponseCacheEntity.Invalidate(coordinates));
+    }
+
+    private EntityRef<ResponseCacheEntity.Command> entity(final ArtifactCoordinates coordinates) {
+        return this.sharding.entityRefFor(
+            ResponseCacheEntity.ENTITY_TYPE_KEY,
+            coordinates.groupId.toLowerCase(Locale.ROOT) + ":" + coordinates.artifactId.toLowerCase(Locale.ROOT)
+        );
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import com.lightbend.lagom.javadsl.api.transport.BadRequest;
+import io.vavr.collection.List;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.spongepowered.downloads.artifact.api.VersionSortKey;
+
+import javax.persistence.Query;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * A range of versions with its bounds expressed as {@link VersionSortKey}s,
+ * so membership follows {@code ComparableVersion} ordering and the range can
+ * be evaluated as a scan of the sort key index. A {@code null} bound leaves
+ * that side of the range open.
+ *
+ * @param lower The lower bound, or {@code null}
+ * @param lowerInclusive Whether the lower bound is part of the range
+ * @param upper The upper bound, or {@code null}
+ * @param upperInclusive Whether the upper bound is part of the range
+ */
+record SortKeyRange(byte[] lower, boolean lowerInclusive, byte[] upper, boolean upperInclusive) {
+
+    private static final SortKeyRange UNBOUNDED = new SortKeyRange(null, false, null, false);
+
+    /**
+     * Parses a Maven version range expression such as {@code [8.0,9.0)} or
+     * {@code (,1.0],[1.2,)} and narrows it to the versions newer than
+     * {@code since}. A version matches when it is in any of the returned
+     * ranges, no ranges at all means no restriction.
+     *
+     * @param range The version range expression
+     * @param since A version every match has to be newer than
+     * @return The ranges, alternatives of each other
+     */
+    static List<SortKeyRange> parse(final Optional<String> range, final Optional<String> since) {
+        final var sinceKey = since.map(String::trim).filter(version -> !version.isEmpty()).map(VersionSortKey::of);
+        final var ranges = range.map(String::trim)
+            .filter(spec -> !spec.isEmpty())
+            .map(SortKeyRange::parseRange)
+            .orElseGet(() -> sinceKey.isPresent() ? List.of(UNBOUNDED) : List.empty());
+        return sinceKey.map(key -> ranges.map(r -> r.above(key))).orElse(ranges);
+    }
+
+    private static List<SortKeyRange> parseRange(final String spec) {
+        final VersionRange parsed;
+        try {
+            parsed = VersionRange.createFromVersionSpec(spec);
+        } catch (InvalidVersionSpecificationException e) {
+            throw new BadRequest("invalid version range: " + e.getMessage());
+        }
+        if (parsed.getRecommendedVersion() != null) {
+            throw new BadRequest("a version range has to be enclosed in brackets");
+        }
+        return List.ofAll(parsed.getRestrictions())
+            .map(restriction -> new SortKeyRange(
+                key(restriction.getLowerBound()), restriction.isLowerBoundInclusive(),
+                key(restriction.getUpperBound()), restriction.isUpperBoundInclusive()
+            ));
+    }
+
+    private static byte[] key(final ArtifactVersion bound) {
+        return bound == null ? null : VersionSortKey.of(bound.toString());
+    }
+
+    private SortKeyRange above(final byte[] key) {
+        if (this.lower != null && Arrays.compareUnsigned(key, this.lower) < 0) {
+            return this;
+        }
+        return new SortKeyRange(key, false, this.upper, this.upperInclusive);
+    }
+
+    boolean contains(final byte[] key) {
+        if (this.lower != null) {
+            final var compared = Arrays.compareUnsigned(key, this.lower);
+            if (compared < 0 || compared == 0 && !this.lowerInclusive) {
+                return false;
+            }
+        }
+        if (this.upper != null) {
+            final var compared = Arrays.compareUnsigned(key, this.upper);
+            return compared < 0 || compared == 0 && this.upperInclusive;
+        }
+        return true;
+    }
+
+    /*
+    The predicate on v.sort_key, with every bound as a parameter named after the
+    position of the range and the suffix.
+     */
+    String predicate(final int position, final String suffix) {
+        final var lowerBound = this.lower == null
+            ? "true"
+            : "v.sort_key " + (this.lowerInclusive ? ">=" : ">") + " :rangeLower" + position + suffix;
+        final var upperBound = this.upper == null
+            ? "true"
+            : "v.sort_key " + (this.upperInclusive ? "<=" : "<") + " :rangeUpper" + position + suffix;
+        return "(" + lowerBound + " and " + upperBound + ")";
+    }
+
+    void bind(final Query query, final int position, final String suffix) {
+        if (this.lower != null) {
+            query.setParameter("rangeLower" + position + suffix, this.lower);
+        }
+        if (this.upper != null) {
+            query.setParameter("rangeUpper" + position + suffix, this.upper);
+        }
+    }
+
+    // Part of the canonical filter a cursor is issued for
+    String canonical() {
+        final var encoder = Base64.getUrlEncoder().withoutPadding();
+        return (this.lowerInclusive ? "[" : "(")
+            + (this.lower == null ? "" : encoder.encodeToString(this.lower))
+            + ";"
+            + (this.upper == null ? "" : encoder.encodeToString(this.upper))
+            + (this.upperInclusive ? "]" : ")");
+    }
+}
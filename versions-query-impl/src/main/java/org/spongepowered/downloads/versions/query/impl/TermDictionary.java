@@ -0,0 +1,133 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A sorted array of distinct terms, walked as the trie it implicitly is:
+ * terms sharing a prefix are adjacent, so the work done for a prefix is
+ * shared by every term that starts with it, and a prefix that can no longer
+ * match skips all of them with a single binary search.
+ */
+final class TermDictionary {
+
+    private final String[] terms;
+    private final int longest;
+
+    /**
+     * @param terms Distinct terms, sorted in natural order
+     */
+    TermDictionary(final String[] terms) {
+        this.terms = terms;
+        this.longest = Arrays.stream(terms).mapToInt(String::length).max().orElse(0);
+    }
+
+    int size() {
+        return this.terms.length;
+    }
+
+    /**
+     * Finds every term that starts with a string at most {@code maxEdits}
+     * insertions, deletions or substitutions away from the query.
+     *
+     * @param query The query, in the same normalized form as the terms
+     * @param maxEdits The edits allowed
+     * @param matched Receives the index of every matching term, in order
+     */
+    void matchPrefix(final String query, final int maxEdits, final IntConsumer matched) {
+        if (maxEdits == 0) {
+            final int start = this.lowerBound(query);
+            final int end = this.prefixEnd(query, start);
+            for (int i = start; i < end; i++) {
+                matched.accept(i);
+            }
+            return;
+        }
+        // One row of the edit distance table per character of the term walked so far
+        final int width = query.length() + 1;
+        final int[][] rows = new int[this.longest + 1][width];
+        for (int j = 0; j < width; j++) {
+            rows[0][j] = j;
+        }
+        String previous = "";
+        int valid = 0;
+        int i = 0;
+        terms:
+        while (i < this.terms.length) {
+            final String term = this.terms[i];
+            // Rows of the prefix shared with the previous term are still correct
+            final int shared = Math.min(valid, commonPrefix(previous, term));
+            previous = term;
+            for (int depth = shared + 1; depth <= term.length(); depth++) {
+                final char c = term.charAt(depth - 1);
+                final int[] above = rows[depth - 1];
+                final int[] row = rows[depth];
+                row[0] = depth;
+                int best = depth;
+                for (int j = 1; j < width; j++) {
+                    final int substitution = above[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+                    row[j] = Math.min(substitution, Math.min(row[j - 1], above[j]) + 1);
+                    best = Math.min(best, row[j]);
+                }
+                valid = depth;
+                if (row[width - 1] <= maxEdits) {
+                    // Close enough already, so is everything starting with this prefix
+                    final int end = this.prefixEnd(term.substring(0, depth), i);
+                    for (; i < end; i++) {
+                        matched.accept(i);
+                    }
+                    continue terms;
+                }
+                if (best > maxEdits) {
+                    // Nothing starting with this prefix can come close enough
+                    i = this.prefixEnd(term.substring(0, depth), i);
+                    continue terms;
+                }
+            }
+            i++;
+        }
+    }
+
+    private int lowerBound(final String term) {
+        final int found = Arrays.binarySearch(this.terms, term);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    private int prefixEnd(final String prefix, final int from) {
+        final int found = Arrays.binarySearch(this.terms, from, this.terms.length, prefix + Character.MAX_VALUE);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    private static int commonPrefix(final String a, final String b) {
+        final int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+}
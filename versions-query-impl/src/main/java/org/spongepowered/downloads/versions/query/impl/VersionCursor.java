@@ -0,0 +1,113 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import com.lightbend.lagom.javadsl.api.transport.BadRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * The position of the last version handed out on a page of versions, along
+ * with the filter that produced it. Encoded as an opaque url-safe token so
+ * clients can resume a walk with a range seek on {@code (sort_key, version)}
+ * instead of an offset.
+ */
+record VersionCursor(
+    int position,
+    int total,
+    String filter,
+    byte[] sortKey,
+    String version
+) {
+
+    // Format 1 wrote the filter with writeUTF, which refuses anything over 64KiB
+    private static final byte FORMAT = 2;
+
+    static Optional<VersionCursor> decode(final Optional<String> token) {
+        return token.filter(t -> !t.isBlank()).map(VersionCursor::decode);
+    }
+
+    static VersionCursor decode(final String token) {
+        try (final var in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != FORMAT) {
+                throw new BadRequest("invalid cursor");
+            }
+            final var position = in.readInt();
+            final var total = in.readInt();
+            final var filterLength = in.readInt();
+            if (filterLength < 0 || filterLength > in.available()) {
+                throw new BadRequest("invalid cursor");
+            }
+            final var filter = new byte[filterLength];
+            in.readFully(filter);
+            final var sortKey = new byte[in.readUnsignedShort()];
+            in.readFully(sortKey);
+            final var version = in.readUTF();
+            if (position < 0 || total < position) {
+                throw new BadRequest("invalid cursor");
+            }
+            return new VersionCursor(position, total, new String(filter, StandardCharsets.UTF_8), sortKey, version);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new BadRequest("invalid cursor");
+        }
+    }
+
+    String encode() {
+        final var filter = this.filter.getBytes(StandardCharsets.UTF_8);
+        final var bytes = new ByteArrayOutputStream(20 + filter.length + this.sortKey.length + this.version.length());
+        try (final var out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeInt(this.position);
+            out.writeInt(this.total);
+            out.writeInt(filter.length);
+            out.write(filter);
+            out.writeShort(this.sortKey.length);
+            out.write(this.sortKey);
+            out.writeUTF(this.version);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Whether the given version comes strictly after this cursor in the
+     * descending order versions are paged in. Ties on the sort key are broken
+     * by the binary ordering of the version string, matching {@code collate "C"}.
+     */
+    boolean isFollowedBy(final byte[] otherKey, final String otherVersion) {
+        final var comparison = Arrays.compareUnsigned(otherKey, this.sortKey);
+        return comparison < 0 || comparison == 0 && otherVersion.compareTo(this.version) < 0;
+    }
+}
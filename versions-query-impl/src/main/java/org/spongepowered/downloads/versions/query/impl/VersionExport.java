@@ -0,0 +1,209 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import akka.Done;
+import akka.NotUsed;
+import akka.stream.OverflowStrategy;
+import akka.stream.QueueOfferResult;
+import akka.stream.javadsl.Source;
+import akka.stream.javadsl.SourceQueueWithComplete;
+import akka.util.ByteString;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.Config;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.annotations.QueryHints;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifact.api.ArtifactRevision;
+import org.spongepowered.downloads.artifact.api.VersionSortKey;
+import org.spongepowered.downloads.jpa.JpaBulkhead;
+import org.spongepowered.downloads.jpa.JpaBulkheads;
+import org.spongepowered.downloads.replica.ReadOnlySession;
+import org.spongepowered.downloads.versions.query.api.models.QueryVersions;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.persistence.EntityManager;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Streams every version of an artifact as newline delimited
+ * {@link QueryVersions.ExportedVersion} lines.
+ *
+ * <p>The versions are read through a database cursor within a single
+ * transaction, {@code fetch-size} rows at a time, and handed to the stream
+ * through a queue of at most {@code buffer-size} lines. A slow client holds
+ * the transaction open instead of versions piling up in memory, so memory
+ * stays flat however many versions an artifact has.
+ *
+ * <p>Since an export holds a connection for as long as its client takes,
+ * exports run through their own {@code export} {@link JpaBulkhead} rather
+ * than the {@code query} one, and a client that reads nothing for
+ * {@code offer-timeout} has its export failed and the transaction closed.
+ */
+@Singleton
+public final class VersionExport {
+
+    private static final Logger LOGGER = LogManager.getLogger("VersionExport");
+    private static final ByteString NEWLINE = ByteString.fromString("\n");
+
+    private final ReadOnlySession session;
+    private final JpaBulkhead bulkhead;
+    private final ObjectMapper mapper;
+    private final int fetchSize;
+    private final int bufferSize;
+    private final long offerTimeout;
+
+    @Inject
+    public VersionExport(
+        final Config config, final ReadOnlySession session, final JpaBulkheads bulkheads, final ObjectMapper mapper
+    ) {
+        this(
+            session, bulkheads.get("export"), mapper, config.getConfig("systemofadownload.version-query.export"));
+    }
+
+    VersionExport(
+        final ReadOnlySession session, final JpaBulkhead bulkhead, final ObjectMapper mapper, final Config settings
+    ) {
+        this.session = session;
+        this.bulkhead = bulkhead;
+        this.mapper = mapper;
+        this.fetchSize = settings.getInt("fetch-size");
+        this.bufferSize = settings.getInt("buffer-size");
+        this.offerTimeout = settings.getDuration("offer-timeout", TimeUnit.MILLISECONDS);
+    }
+
+    CompletionStage<Boolean> exists(final ArtifactCoordinates coordinates) {
+        return this.session.withTransaction(em -> em
+            .createNamedQuery("ArtifactRevision.findByArtifact", ArtifactRevision.class)
+            .setParameter("groupId", coordinates.groupId)
+            .setParameter("artifactId", coordinates.artifactId)
+            .getResultStream()
+            .findFirst()
+            .isPresent());
+    }
+
+    /**
+     * Exports the versions of an artifact, newest first.
+     *
+     * @param coordinates The artifact
+     * @param after A version to resume after, only versions ordered after it
+     *     are exported whether or not it still exists
+     * @return The lines of the export
+     */
+    Source<ByteString, NotUsed> export(final ArtifactCoordinates coordinates, final Optional<String> after) {
+        return Source.<ByteString>queue(this.bufferSize, OverflowStrategy.backpressure())
+            .mapMaterializedValue(queue -> {
+                this.session.withTransaction(this.bulkhead, em -> this.write(em, coordinates, after, queue))
+                    .whenComplete((done, failure) -> {
+                        if (failure == null) {
+                            queue.complete();
+                        } else {
+                            LOGGER.warn("Failed to export versions of {}", coordinates, failure);
+                            queue.fail(failure);
+                        }
+                    });
+                return NotUsed.getInstance();
+            });
+    }
+
+    Done write(
+        final EntityManager em, final ArtifactCoordinates coordinates, final Optional<String> after,
+        final SourceQueueWithComplete<ByteString> queue
+    ) {
+        // Resuming seeks on the sort key of the version, which is derived from the version alone
+        final var query = after
+            .map(version -> em.createNamedQuery("VersionedArtifactView.exportByArtifactAfter")
+                .setParameter("sortKey", VersionSortKey.of(version))
+                .setParameter("version", version))
+            .orElseGet(() -> em.createNamedQuery("VersionedArtifactView.exportByArtifact"))
+            .setParameter("groupId", coordinates.groupId)
+            .setParameter("artifactId", coordinates.artifactId)
+            .setHint(QueryHints.FETCH_SIZE, this.fetchSize)
+            .setHint(QueryHints.READ_ONLY, true);
+        @SuppressWarnings("unchecked") final Stream<Object[]> rows = query.getResultStream();
+        // Rows come one per tag, consecutive rows of the same version are folded into one line
+        try (rows) {
+            String version = null;
+            boolean recommended = false;
+            Map<String, String> tags = HashMap.empty();
+            for (final var iterator = rows.iterator(); iterator.hasNext(); ) {
+                final var row = iterator.next();
+                final var rowVersion = (String) row[0];
+                if (!rowVersion.equals(version)) {
+                    if (version != null
+                        && !this.offer(queue, new QueryVersions.ExportedVersion(version, tags, recommended))) {
+                        return Done.getInstance();
+                    }
+                    version = rowVersion;
+                    recommended = (Boolean) row[1];
+                    tags = HashMap.empty();
+                }
+                if (row[2] != null) {
+                    tags = tags.put((String) row[2], (String) row[3]);
+                }
+            }
+            if (version != null) {
+                this.offer(queue, new QueryVersions.ExportedVersion(version, tags, recommended));
+            }
+        }
+        return Done.getInstance();
+    }
+
+    /*
+    Blocks the transaction's thread until the line is enqueued, which is what applies the
+    client's backpressure to the cursor. Returns false once the client has gone away, and
+    fails the export when the client stalls for longer than the offer timeout.
+     */
+    private boolean offer(final SourceQueueWithComplete<ByteString> queue, final QueryVersions.ExportedVersion line) {
+        final ByteString bytes;
+        try {
+            bytes = ByteString.fromArrayUnsafe(this.mapper.writeValueAsBytes(line)).concat(NEWLINE);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + line.version(), e);
+        }
+        try {
+            return queue.offer(bytes).toCompletableFuture().get(this.offerTimeout, TimeUnit.MILLISECONDS)
+                == QueueOfferResult.enqueued();
+        } catch (final ExecutionException e) {
+            return false;
+        } catch (final TimeoutException e) {
+            throw new IllegalStateException(
+                "Client read nothing for " + this.offerTimeout + "ms, abandoning the export", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while exporting " + line.version(), e);
+        }
+    }
+}
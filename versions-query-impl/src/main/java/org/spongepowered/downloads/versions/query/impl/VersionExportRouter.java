@@ -0,0 +1,74 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import play.api.mvc.Handler;
+import play.api.mvc.RequestHeader;
+import play.api.routing.Router;
+import play.api.routing.SimpleRouter;
+import play.mvc.Http;
+import play.mvc.Results;
+import play.routing.RoutingDsl;
+import scala.PartialFunction;
+
+import javax.inject.Inject;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Serves {@code GET /api/v2/groups/:groupId/artifacts/:artifactId/export}, a
+ * chunked newline delimited JSON export of every version of an artifact.
+ * Service calls cannot answer with a chunked body, so the export is routed
+ * alongside them. Passing the last version received as {@code after} resumes
+ * an interrupted export.
+ */
+public final class VersionExportRouter implements SimpleRouter {
+
+    private final Router delegate;
+
+    @Inject
+    public VersionExportRouter(final RoutingDsl routingDsl, final VersionExport export) {
+        this.delegate = routingDsl
+            .GET("/api/v2/groups/:groupId/artifacts/:artifactId/export")
+            .routingAsync((Http.Request request, String groupId, String artifactId) -> {
+                final var coordinates = new ArtifactCoordinates(
+                    groupId.toLowerCase(Locale.ROOT).trim(), artifactId.toLowerCase(Locale.ROOT).trim());
+                final var after = Optional.ofNullable(request.getQueryString("after"))
+                    .map(String::trim)
+                    .filter(version -> !version.isEmpty());
+                return export.exists(coordinates).thenApply(exists -> exists
+                    ? Results.ok().chunked(export.export(coordinates, after)).as("application/x-ndjson")
+                    : Results.notFound("group or artifact not found"));
+            })
+            .build()
+            .asScala();
+    }
+
+    @Override
+    public PartialFunction<RequestHeader, Handler> routes() {
+        return this.delegate.routes();
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import com.lightbend.lagom.javadsl.api.transport.NotFound;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.LinkedHashMap;
+import org.spongepowered.downloads.artifact.api.ArtifactRevision;
+import org.spongepowered.downloads.artifact.api.VersionSortKey;
+import org.spongepowered.downloads.versions.query.api.models.QueryVersions;
+import org.spongepowered.downloads.versions.query.api.models.TagCollection;
+import org.spongepowered.downloads.versions.query.impl.VersionQueryServiceImpl.ParameterizedTag;
+import org.spongepowered.downloads.versions.query.impl.VersionQueryServiceImpl.VersionQuery;
+import org.spongepowered.downloads.versions.query.impl.models.TagRow;
+import org.spongepowered.downloads.versions.query.impl.models.VersionRow;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * An immutable, column oriented snapshot of every version of a single
+ * artifact. Versions are held in the same descending {@code (sort_key,
+ * version)} order the database pages them in, recommendations as bitsets
+ * over those positions and each tag as a column of values, so a page or the
+ * latest version can be answered without touching the database. Each tag
+ * column is also kept as a sorted dictionary of its distinct values, so a
+ * prefix filter is a binary search and tag filters combine as bitset ANDs.
+ */
+final class VersionIndex {
+
+    static final long ENTRY_OVERHEAD = 64;
+
+    private final ArtifactRevision revision;
+    private final String[] versions;
+    private final byte[][] sortKeys;
+    private final BitSet recommended;
+    private final BitSet manuallyRecommended;
+    private final java.util.Map<String, String[]> tagColumns;
+    private final java.util.Map<String, TagDictionary> tagDictionaries;
+    private final long weight;
+    private final ConcurrentHashMap<String, CompletableFuture<QueryVersions.VersionDetails>> details =
+        new ConcurrentHashMap<>();
+
+    private VersionIndex(
+        final ArtifactRevision revision, final String[] versions, final byte[][] sortKeys, final BitSet recommended,
+        final BitSet manuallyRecommended, final java.util.Map<String, String[]> tagColumns
+    ) {
+        this.revision = revision;
+        this.versions = versions;
+        this.sortKeys = sortKeys;
+        this.recommended = recommended;
+        this.manuallyRecommended = manuallyRecommended;
+        this.tagColumns = tagColumns;
+        this.tagDictionaries = new java.util.HashMap<>();
+        tagColumns.forEach((name, column) -> this.tagDictionaries.put(name, TagDictionary.of(column)));
+        long weight = ENTRY_OVERHEAD;
+        for (int i = 0; i < versions.length; i++) {
+            weight += ENTRY_OVERHEAD + 2L * versions[i].length() + sortKeys[i].length;
+        }
+        for (final var column : tagColumns.entrySet()) {
+            weight += ENTRY_OVERHEAD + 8L * column.getValue().length;
+            for (final String value : column.getValue()) {
+                weight += value == null ? 0 : ENTRY_OVERHEAD + 2L * value.length();
+            }
+        }
+        for (final var dictionary : this.tagDictionaries.values()) {
+            weight += dictionary.weight();
+        }
+        this.weight = weight;
+    }
+
+    static Optional<VersionIndex> load(final EntityManager em, final String groupId, final String artifactId) {
+        // The revision is read before the versions, a snapshot may be newer than the revision it
+        // advertises but never older
+        final var revision = em.createNamedQuery("ArtifactRevision.findByArtifact", ArtifactRevision.class)
+            .setParameter("groupId", groupId)
+            .setParameter("artifactId", artifactId)
+            .getResultStream()
+            .findFirst();
+        if (revision.isEmpty()) {
+            return Optional.empty();
+        }
+        final var rows = em.createNamedQuery("VersionedArtifactView.findRowsByArtifact", VersionRow.class)
+            .setParameter("groupId", groupId)
+            .setParameter("artifactId", artifactId)
+            .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        final var sorted = rows.stream()
+            .map(row -> new Row(row, row.sortKey() == null ? VersionSortKey.of(row.version()) : row.sortKey()))
+            .sorted(Comparator.<Row, byte[]>comparing(Row::sortKey, Arrays::compareUnsigned)
+                .thenComparing(row -> row.version.version())
+                .reversed())
+            .toArray(Row[]::new);
+        final var versions = new String[sorted.length];
+        final var sortKeys = new byte[sorted.length][];
+        final var recommended = new BitSet(sorted.length);
+        final var manuallyRecommended = new BitSet(sorted.length);
+        final var positions = new java.util.HashMap<String, Integer>(sorted.length * 2);
+        for (int i = 0; i < sorted.length; i++) {
+            final var version = sorted[i].version;
+            versions[i] = version.version();
+            sortKeys[i] = sorted[i].sortKey;
+            recommended.set(i, version.recommended());
+            manuallyRecommended.set(i, version.manuallyRecommended());
+            positions.put(version.version(), i);
+        }
+        final var tagColumns = new java.util.HashMap<String, String[]>();
+        final var tags = em.createNamedQuery("TaggedVersion.findRowsByArtifact", TagRow.class)
+            .setParameter("groupId", groupId)
+            .setParameter("artifactId", artifactId)
+            .getResultList();
+        for (final var tag : tags) {
+            final var position = positions.get(tag.version());
+            if (position != null) {
+                tagColumns.computeIfAbsent(tag.tagName(), name -> new String[sorted.length])[position] = tag.tagValue();
+            }
+        }
+        return Optional.of(new VersionIndex(
+            revision.get(), versions, sortKeys, recommended, manuallyRecommended, tagColumns));
+    }
+
+    private static record Row(VersionRow version, byte[] sortKey) {
+    }
+
+    ArtifactRevision revision() {
+        return this.revision;
+    }
+
+    long weight() {
+        return this.weight;
+    }
+
+    QueryVersions.VersionInfo page(final VersionQuery query) {
+        final var matches = this.select(query);
+        if (matches.length == 0 && query.tags().isEmpty() && query.range().isEmpty()) {
+            throw new NotFound("group or artifact not found");
+        }
+        final int start;
+        final int total;
+        if (query.after().isPresent()) {
+            final var cursor = query.after().get();
+            start = this.firstFollowing(matches, cursor);
+            total = cursor.total();
+        } else {
+            start = Math.min(query.offset(), matches.length);
+            total = matches.length;
+        }
+        final int end = Math.min(start + query.limit(), matches.length);
+        var artifacts = LinkedHashMap.<String, TagCollection>empty();
+        for (int i = start; i < end; i++) {
+            final int position = matches[i];
+            artifacts = artifacts.put(
+                this.versions[position],
+                new TagCollection(this.tagValues(position), this.recommended.get(position))
+            );
+        }
+        final Optional<String> next = end == start
+            ? Optional.empty()
+            : query.nextCursor(total, end - start, this.sortKeys[matches[end - 1]], this.versions[matches[end - 1]]);
+        return new QueryVersions.VersionInfo(artifacts, query.offset(), query.limit(), total, next);
+    }
+
+    String latest(final VersionQuery query) {
+        final var matches = this.select(query);
+        if (matches.length == 0) {
+            // The same answers as the database gives
+            throw new NotFound(query.tags().isEmpty() ? "group or artifact not found" : "no version matches the tags");
+        }
+        return this.versions[matches[0]];
+    }
+
+    /*
+    Details of the versions handed out by latest are memoized per snapshot, a
+    reload replaces the whole snapshot and with it the memoized details.
+     */
+    CompletionStage<QueryVersions.VersionDetails> details(
+        final String version, final Function<String, CompletionStage<QueryVersions.VersionDetails>> loader
+    ) {
+        final var future = this.details.computeIfAbsent(
+            version, v -> loader.apply(v).toCompletableFuture());
+        future.whenComplete((d, t) -> {
+            if (t != null) {
+                this.details.remove(version, future);
+            }
+        });
+        return future;
+    }
+
+    private int[] select(final VersionQuery query) {
+        final var candidates = new BitSet(this.versions.length);
+        candidates.set(0, this.versions.length);
+        query.recommended().ifPresent(recommended -> candidates.and(this.recommendedMask(recommended)));
+        if (!query.range().isEmpty()) {
+            final var inRange = new BitSet(this.versions.length);
+            query.range().forEach(range -> inRange.or(this.rangeMask(range)));
+            candidates.and(inRange);
+        }
+        for (final var wanted : query.tags().groupBy(ParameterizedTag::tagName)) {
+            final var dictionary = this.tagDictionaries.get(wanted._1);
+            if (dictionary == null) {
+                return new int[0];
+            }
+            // Filters on the same tag are alternatives, different tags must all match
+            final var tagged = new BitSet(this.versions.length);
+            wanted._2.forEach(tag -> tagged.or(dictionary.startingWith(tag.tagValue())));
+            candidates.and(tagged);
+        }
+        return candidates.stream().toArray();
+    }
+
+    // Mirrors the (recommended = :recommended or manual_recommendation = :recommended) predicate of the queries
+    private BitSet recommendedMask(final boolean recommended) {
+        final var mask = (BitSet) this.recommended.clone();
+        if (recommended) {
+            mask.or(this.manuallyRecommended);
+        } else {
+            mask.and(this.manuallyRecommended);
+            mask.flip(0, this.versions.length);
+        }
+        return mask;
+    }
+
+    /*
+    Versions are held in descending sort key order, so the versions within a range are
+    a contiguous run found by two binary searches.
+     */
+    private BitSet rangeMask(final SortKeyRange range) {
+        final var start = range.upper() == null
+            ? 0
+            : this.firstBelow(range.upper(), range.upperInclusive());
+        final var end = range.lower() == null
+            ? this.versions.length
+            : this.firstBelow(range.lower(), !range.lowerInclusive());
+        final var mask = new BitSet(this.versions.length);
+        if (start < end) {
+            mask.set(start, end);
+        }
+        return mask;
+    }
+
+    // The first position whose sort key is below the bound, or equal to it if equal counts
+    private int firstBelow(final byte[] bound, final boolean orEqual) {
+        int low = 0;
+        int high = this.versions.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final var compared = Arrays.compareUnsigned(this.sortKeys[mid], bound);
+            if (compared < 0 || compared == 0 && orEqual) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private int firstFollowing(final int[] matches, final VersionCursor cursor) {
+        int low = 0;
+        int high = matches.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (cursor.isFollowedBy(this.sortKeys[matches[mid]], this.versions[matches[mid]])) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private HashMap<String, String> tagValues(final int position) {
+        var values = HashMap.<String, String>empty();
+        for (final var column : this.tagColumns.entrySet()) {
+            final var value = column.getValue()[position];
+            if (value != null) {
+                values = values.put(column.getKey(), value);
+            }
+        }
+        return values;
+    }
+
+    /*
+    The distinct values of a tag in sorted order, each with the ascending positions of
+    the versions carrying it. Positions are kept as plain arrays rather than a bitset per
+    value, since tags like build numbers are close to unique per version.
+     */
+    static final class TagDictionary {
+        private final String[] values;
+        private final int[][] positions;
+
+        private TagDictionary(final String[] values, final int[][] positions) {
+            this.values = values;
+            this.positions = positions;
+        }
+
+        static TagDictionary of(final String[] column) {
+            final var sorted = new TreeMap<String, BitSet>();
+            for (int i = 0; i < column.length; i++) {
+                if (column[i] != null) {
+                    sorted.computeIfAbsent(column[i], value -> new BitSet()).set(i);
+                }
+            }
+            return new TagDictionary(
+                sorted.keySet().toArray(String[]::new),
+                sorted.values().stream().map(bits -> bits.stream().toArray()).toArray(int[][]::new)
+            );
+        }
+
+        BitSet startingWith(final String prefix) {
+            final var found = Arrays.binarySearch(this.values, prefix);
+            final var matches = new BitSet();
+            for (int i = found < 0 ? -(found + 1) : found; i < this.values.length; i++) {
+                if (!this.values[i].startsWith(prefix)) {
+                    break;
+                }
+                for (final int position : this.positions[i]) {
+                    matches.set(position);
+                }
+            }
+            return matches;
+        }
+
+        long weight() {
+            long weight = ENTRY_OVERHEAD + 8L * this.values.length;
+            for (final var versions : this.positions) {
+                weight += ENTRY_OVERHEAD + 4L * versions.length;
+            }
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import akka.Done;
+import akka.stream.javadsl.Flow;
+import com.typesafe.config.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.replica.ReadOnlySession;
+import org.spongepowered.downloads.versions.api.VersionsService;
+import org.spongepowered.downloads.versions.api.models.ArtifactUpdate;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A bounded cache of {@link VersionIndex} snapshots keyed by artifact.
+ *
+ * <p>Entries are marked stale whenever the artifact update topic reports a
+ * new version or tag for their artifact, and after {@code refresh-after}
+ * regardless, since recommendation changes and tag values computed by the
+ * read side are not published on the topic. A stale entry keeps serving its
+ * snapshot while exactly one reload runs in the background. Misses and
+ * entries past {@code expire-after} are loaded in the foreground, with
+ * concurrent callers sharing the same load. Once the estimated weight of all
+ * snapshots exceeds {@code max-weight} the least recently used are evicted.
+ */
+@Singleton
+public final class VersionIndexCache {
+
+    private static final Logger LOGGER = LogManager.getLogger("VersionIndexCache");
+
+    private final VersionIndexSettings settings;
+    private final ReadOnlySession session;
+    private final java.util.LinkedHashMap<ArtifactCoordinates, Entry> entries =
+        new java.util.LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+
+    @Inject
+    public VersionIndexCache(
+        final Config config, final ReadOnlySession session, final VersionsService versionsService
+    ) {
+        this.settings = new VersionIndexSettings(config.getConfig("systemofadownload.version-query.index"));
+        this.session = session;
+        if (this.settings.enabled) {
+            // Every node keeps its own index, so every node needs every update
+            versionsService.artifactUpdateTopic()
+                .subscribe()
+                .withGroupId("version-query-index-" + config.getString("systemofadownload.version-query.node-id"))
+                .atLeastOnce(Flow.<ArtifactUpdate>create().map(update -> {
+                    if (update instanceof ArtifactUpdate.ArtifactVersionRegistered v) {
+                        this.invalidate(v.coordinates().asArtifactCoordinates());
+                    } else if (update instanceof ArtifactUpdate.TagRegistered t) {
+                        this.invalidate(t.coordinates());
+                    }
+                    return Done.getInstance();
+                }));
+        }
+    }
+
+    public boolean enabled() {
+        return this.settings.enabled;
+    }
+
+    CompletionStage<Optional<VersionIndex>> get(final ArtifactCoordinates coordinates) {
+        final var now = System.nanoTime();
+        final Entry entry;
+        synchronized (this) {
+            final var existing = this.entries.get(coordinates);
+            if (existing == null || existing.isExpired(now) || existing.current.isCompletedExceptionally()) {
+                if (existing != null) {
+                    this.remove(coordinates, existing);
+                }
+                final var created = new Entry(now);
+                this.entries.put(coordinates, created);
+                created.current = this.load(coordinates, created);
+                return created.current;
+            }
+            entry = existing;
+            if (!entry.current.isDone() || !entry.needsRefresh(now) || entry.reloading) {
+                return entry.current;
+            }
+            entry.reloading = true;
+        }
+        // Serve the stale snapshot while a single reload replaces it
+        this.load(coordinates, entry);
+        return entry.current;
+    }
+
+    void invalidate(final ArtifactCoordinates coordinates) {
+        final var key = new ArtifactCoordinates(
+            coordinates.groupId.toLowerCase(Locale.ROOT), coordinates.artifactId.toLowerCase(Locale.ROOT));
+        synchronized (this) {
+            final var entry = this.entries.get(key);
+            if (entry != null) {
+                entry.stale = true;
+            }
+        }
+    }
+
+    private CompletableFuture<Optional<VersionIndex>> load(final ArtifactCoordinates coordinates, final Entry entry) {
+        final var loading = this.session
+            .withTransaction(em -> VersionIndex.load(em, coordinates.groupId, coordinates.artifactId))
+            .toCompletableFuture();
+        loading.whenComplete((index, throwable) -> {
+            synchronized (this) {
+                entry.reloading = false;
+                if (throwable != null) {
+                    LOGGER.warn("Failed to load version index for {}", coordinates, throwable);
+                    return;
+                }
+                if (this.entries.get(coordinates) != entry) {
+                    return;
+                }
+                this.weight -= entry.weight;
+                entry.current = CompletableFuture.completedFuture(index);
+                entry.loadedAt = System.nanoTime();
+                entry.stale = false;
+                entry.weight = index.map(VersionIndex::weight).orElse(VersionIndex.ENTRY_OVERHEAD);
+                this.weight += entry.weight;
+                this.evict();
+            }
+        });
+        return loading;
+    }
+
+    private void evict() {
+        final var iterator = this.entries.values().iterator();
+        while (this.weight > this.settings.maxWeight && iterator.hasNext()) {
+            final var eldest = iterator.next();
+            this.weight -= eldest.weight;
+            iterator.remove();
+        }
+    }
+
+    private void remove(final ArtifactCoordinates coordinates, final Entry entry) {
+        this.entries.remove(coordinates);
+        this.weight -= entry.weight;
+    }
+
+    private final class Entry {
+        volatile CompletableFuture<Optional<VersionIndex>> current;
+        long loadedAt;
+        long weight = 0;
+        boolean stale = false;
+        boolean reloading = false;
+
+        Entry(final long now) {
+            this.loadedAt = now;
+        }
+
+        boolean isExpired(final long now) {
+            return this.current.isDone() && now - this.loadedAt > VersionIndexCache.this.settings.expireAfter.toNanos();
+        }
+
+        boolean needsRefresh(final long now) {
+            return this.stale || now - this.loadedAt > VersionIndexCache.this.settings.refreshAfter.toNanos();
+        }
+    }
+}
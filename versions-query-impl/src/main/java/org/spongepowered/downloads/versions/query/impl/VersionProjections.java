@@ -0,0 +1,115 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import io.vavr.collection.HashMap;
+import io.vavr.collection.List;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
+import org.spongepowered.downloads.artifact.api.Artifact;
+import org.spongepowered.downloads.versions.query.api.models.QueryVersions;
+import org.spongepowered.downloads.versions.query.impl.models.AssetRow;
+import org.spongepowered.downloads.versions.query.impl.models.TagRow;
+import org.spongepowered.downloads.versions.query.impl.models.VersionKey;
+import org.spongepowered.downloads.versions.query.impl.models.VersionRow;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Comparator;
+
+/**
+ * Loads versions, their tags and their assets as row projections and
+ * assembles them into the query responses, one set-based query per kind of
+ * row no matter how many versions are asked for. Nothing is hydrated into
+ * the persistence context.
+ */
+final class VersionProjections {
+
+    private VersionProjections() {
+    }
+
+    static Map<VersionKey, QueryVersions.VersionDetails> details(
+        final EntityManager em, final Seq<VersionKey> versions
+    ) {
+        if (versions.isEmpty()) {
+            return HashMap.empty();
+        }
+        final var wanted = versions.toSet();
+        final var rows = List.ofAll(withVersions(
+                em.createNamedQuery("VersionedArtifactView.findRows", VersionRow.class), versions)
+                .getResultList())
+            .filter(row -> wanted.contains(row.key()));
+        if (rows.isEmpty()) {
+            return HashMap.empty();
+        }
+        final var found = rows.map(VersionRow::key);
+        final var tags = tags(em, found);
+        final var assets = assets(em, found);
+        return rows.toMap(VersionRow::key, row -> new QueryVersions.VersionDetails(
+            row.key().asMavenCoordinates(),
+            assets.getOrElse(row.key(), List.empty()),
+            tags.getOrElse(row.key(), HashMap.empty()),
+            row.isRecommended()
+        ));
+    }
+
+    static Map<VersionKey, Map<String, String>> tags(final EntityManager em, final Seq<VersionKey> versions) {
+        if (versions.isEmpty()) {
+            return HashMap.empty();
+        }
+        final var wanted = versions.toSet();
+        return List.ofAll(withVersions(em.createNamedQuery("TaggedVersion.findRows", TagRow.class), versions)
+                .getResultList())
+            .filter(row -> wanted.contains(row.key()))
+            .groupBy(TagRow::key)
+            .mapValues(rows -> rows.toMap(TagRow::tagName, TagRow::tagValue));
+    }
+
+    static Map<VersionKey, List<Artifact>> assets(final EntityManager em, final Seq<VersionKey> versions) {
+        if (versions.isEmpty()) {
+            return HashMap.empty();
+        }
+        final var wanted = versions.toSet();
+        return List.ofAll(withVersions(em.createNamedQuery("VersionedAsset.findRows", AssetRow.class), versions)
+                .getResultList())
+            .filter(row -> wanted.contains(row.key()))
+            .groupBy(AssetRow::key)
+            .mapValues(rows -> rows.map(AssetRow::asArtifact)
+                .sorted(Comparator.comparing(artifact -> artifact.classifier().orElse(""))));
+    }
+
+    /*
+    The in lists select a superset of the requested versions whenever they span more
+    than one artifact, the callers drop the rows that were not asked for.
+     */
+    private static <T> TypedQuery<T> withVersions(
+        final TypedQuery<T> query, final Seq<VersionKey> versions
+    ) {
+        return query
+            .setParameter("groupIds", versions.map(VersionKey::groupId).distinct().asJava())
+            .setParameter("artifactIds", versions.map(VersionKey::artifactId).distinct().asJava())
+            .setParameter("versions", versions.map(VersionKey::version).distinct().asJava());
+    }
+}
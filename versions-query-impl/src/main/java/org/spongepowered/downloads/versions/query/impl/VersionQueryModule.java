@@ -28,6 +28,8 @@ import com.google.inject.AbstractModule;
 import com.lightbend.lagom.javadsl.api.ServiceLocator;
 import com.lightbend.lagom.javadsl.client.ConfigurationServiceLocator;
 import com.lightbend.lagom.javadsl.server.ServiceGuiceSupport;
+import org.spongepowered.downloads.artifact.api.ArtifactService;
+import org.spongepowered.downloads.versions.api.VersionsService;
 import org.spongepowered.downloads.versions.query.api.VersionsQueryService;
 import play.Environment;
 
@@ -46,6 +48,12 @@ public class VersionQueryModule extends AbstractModule implements ServiceGuiceSu
         if (this.environment.isProd()) {
             this.bind(ServiceLocator.class).to(ConfigurationServiceLocator.class);
         }
-        this.bindService(VersionsQueryService.class, VersionQueryServiceImpl.class);
+        this.bindService(
+            VersionsQueryService.class, VersionQueryServiceImpl.class, additionalRouter(VersionExportRouter.class));
+        this.bindClient(VersionsService.class);
+        this.bindClient(ArtifactService.class);
+        this.bind(VersionIndexCache.class).asEagerSingleton();
+        this.bind(ArtifactSearch.class).asEagerSingleton();
+        this.bind(SharedResponseCache.class).asEagerSingleton();
     }
 }
@@ -25,136 +25,412 @@
 package org.spongepowered.downloads.versions.query.impl;
 
 import akka.NotUsed;
+import akka.japi.Pair;
 import com.lightbend.lagom.javadsl.api.ServiceCall;
 import com.lightbend.lagom.javadsl.api.deser.ExceptionMessage;
+import com.lightbend.lagom.javadsl.api.transport.BadRequest;
 import com.lightbend.lagom.javadsl.api.transport.NotFound;
+import com.lightbend.lagom.javadsl.api.transport.RequestHeader;
+import com.lightbend.lagom.javadsl.api.transport.ResponseHeader;
 import com.lightbend.lagom.javadsl.api.transport.TransportErrorCode;
 import com.lightbend.lagom.javadsl.api.transport.TransportException;
-import com.lightbend.lagom.javadsl.persistence.jpa.JpaSession;
-import io.vavr.Tuple;
+import com.lightbend.lagom.javadsl.server.HeaderServiceCall;
 import io.vavr.Tuple2;
-import io.vavr.Value;
 import io.vavr.collection.HashMap;
 import io.vavr.collection.List;
 import io.vavr.collection.Map;
-import org.apache.maven.artifact.versioning.ComparableVersion;
+import io.vavr.control.Option;
 import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifact.api.ArtifactRevision;
+import org.spongepowered.downloads.artifact.api.MavenCoordinates;
+import org.spongepowered.downloads.http.ConditionalResponses;
+import org.spongepowered.downloads.replica.ReadOnlySession;
 import org.spongepowered.downloads.versions.query.api.VersionsQueryService;
+import org.spongepowered.downloads.versions.query.api.models.QueryBatch;
+import org.spongepowered.downloads.versions.query.api.models.QuerySearch;
 import org.spongepowered.downloads.versions.query.api.models.QueryVersions;
-import org.spongepowered.downloads.versions.query.impl.models.JpaTaggedVersion;
-import org.spongepowered.downloads.versions.query.impl.models.JpaVersionedArtifactView;
+import org.spongepowered.downloads.versions.query.api.models.TagCollection;
+import org.spongepowered.downloads.versions.query.impl.models.JpaArtifactVersionSummary;
+import org.spongepowered.downloads.versions.query.impl.models.VersionKey;
+import org.spongepowered.downloads.versions.query.impl.models.VersionRow;
 
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceException;
-import java.util.Comparator;
+import javax.persistence.Query;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-public record VersionQueryServiceImpl(JpaSession session)
-    implements VersionsQueryService {
+public record VersionQueryServiceImpl(
+    ReadOnlySession session,
+    VersionIndexCache index,
+    InFlightQueries inFlight,
+    SharedResponseCache sharedCache,
+    ArtifactSearch artifactSearch
+) implements VersionsQueryService {
 
     @Inject
     public VersionQueryServiceImpl {
     }
 
     @Override
-    public ServiceCall<NotUsed, QueryVersions.VersionInfo> artifactVersions(
+    public HeaderServiceCall<NotUsed, QueryVersions.VersionInfo> artifactVersions(
         final String groupId,
         final String artifactId,
         final Optional<String> tags,
         final Optional<Integer> limit,
         final Optional<Integer> offset,
-        final Optional<Boolean> recommended
+        final Optional<Boolean> recommended,
+        final Optional<String> cursor,
+        final Optional<String> range,
+        final Optional<String> since
     ) {
-        return request -> this.session.withTransaction(
-            t -> {
-                if (groupId.isBlank() || artifactId.isBlank()) {
-                    throw new NotFound("unknown artifact");
-                }
-                try {
-                    final var query = new VersionQuery(groupId, artifactId, tags, limit, offset, recommended);
-
-                    if (query.tags.isEmpty()) {
-                        return getUntaggedVersions(t, query);
-                    }
-                    return getTaggedVersions(t, query);
-                } catch (PersistenceException e) {
-                    throw new TransportException(
-                        TransportErrorCode.InternalServerError, new ExceptionMessage("Internal Server Error", ""));
-                }
-            });
+        if (this.index.enabled()) {
+            return (header, request) -> this.indexFor(groupId, artifactId)
+                .thenApply(index -> ConditionalResponses.respond(index.revision(), header, () -> index.page(
+                    new VersionQuery(groupId, artifactId, tags, limit, offset, recommended, cursor, range, since))));
+        }
+        return (header, request) -> this.coalesced(
+            VERSIONS,
+            () -> new VersionQuery(groupId, artifactId, tags, limit, offset, recommended, cursor, range, since),
+            header,
+            (em, query) -> query.tags.isEmpty() && query.range.isEmpty()
+                ? getUntaggedVersions(em, query)
+                : getFilteredVersions(em, query)
+        );
     }
 
     @Override
-    public ServiceCall<NotUsed, QueryVersions.VersionDetails> latestArtifact(
+    public HeaderServiceCall<NotUsed, QueryVersions.VersionDetails> latestArtifact(
         final String groupId,
         final String artifactId,
         final Optional<String> tags,
         final Optional<Boolean> recommended
     ) {
-        return request -> this.session.withTransaction(
-            t -> {
-                if (groupId.isBlank() || artifactId.isBlank()) {
-                    throw new NotFound("unknown artifact");
-                }
-                try {
+        if (this.index.enabled()) {
+            return (header, request) -> this.indexFor(groupId, artifactId)
+                .thenCompose(index -> ConditionalResponses.respondAsync(index.revision(), header, () -> {
                     final var query = new VersionQuery(groupId, artifactId, tags, recommended.orElse(true));
-
-                    final var info = query.tags.isEmpty() ? getUntaggedVersions(t, query) : getTaggedVersions(t, query);
-                    final var version = info.artifacts().keySet().head();
-                    final var coordinates = query.coordinates.version(version);
-                    final var versionedArtifact = t.createNamedQuery(
-                            "VersionedArtifactView.findExplicitly", JpaVersionedArtifactView.class)
-                        .setParameter("groupId", coordinates.groupId)
-                        .setParameter("artifactId", coordinates.artifactId)
-                        .setParameter("version", coordinates.version)
-                        .getSingleResult();
-                    return new QueryVersions.VersionDetails(
-                        coordinates, versionedArtifact.asArtifactList(),
-                        versionedArtifact.getTagValues(), versionedArtifact.isRecommended()
+                    final var coordinates = query.coordinates.version(index.latest(query));
+                    return index.details(
+                        coordinates.version,
+                        v -> this.session.withTransaction(em -> getLatestDetails(em, coordinates))
                     );
-                } catch (PersistenceException e) {
-                    throw new TransportException(
-                        TransportErrorCode.InternalServerError, new ExceptionMessage("Internal Server Error", ""));
-                }
-            });
+                }));
+        }
+        return (header, request) -> this.coalesced(
+            LATEST,
+            () -> new VersionQuery(groupId, artifactId, tags, recommended.orElse(true)),
+            header,
+            VersionQueryServiceImpl::findLatestDetails
+        );
     }
 
     @Override
-    public ServiceCall<NotUsed, QueryVersions.VersionDetails> versionDetails(
+    public HeaderServiceCall<NotUsed, QueryVersions.VersionDetails> versionDetails(
         final String groupId, final String artifactId, final String version
     ) {
-        return notUsed -> this.session.withTransaction(em -> {
+        return (header, notUsed) -> this.session.withTransaction(em -> {
             final var sanitizedGroupId = groupId.toLowerCase(Locale.ROOT).trim();
             final var sanitizedArtifactId = artifactId.toLowerCase(Locale.ROOT).trim();
             final var sanitizedVersion = version.trim();
-            return em.createNamedQuery("VersionedArtifactView.findFullVersionDetails", JpaVersionedArtifactView.class)
-                .setParameter("groupId", sanitizedGroupId)
-                .setParameter("artifactId", sanitizedArtifactId)
-                .setParameter("version", sanitizedVersion)
-                .getResultList()
-                .stream()
-                .findFirst()
-                .map(versionView -> {
-                    final var coordinates = versionView.asMavenCoordinates();
-                    final var assets = versionView.asArtifactList();
-                    final var tags = versionView.getTagValues();
-                    return new QueryVersions.VersionDetails(coordinates, assets, tags, versionView.isRecommended());
-                })
-                .orElseThrow(() -> new NotFound("group or artifact or version not found"));
+            final var coordinates = new ArtifactCoordinates(sanitizedGroupId, sanitizedArtifactId);
+            final var key = new VersionKey(sanitizedGroupId, sanitizedArtifactId, sanitizedVersion);
+            final var revision = findRevision(em, coordinates, header);
+            return ConditionalResponses.respond(revision, header, () -> VersionProjections
+                .details(em, List.of(key))
+                .get(key)
+                .getOrElseThrow(() -> new NotFound("group or artifact or version not found")));
+        });
+    }
+
+    @Override
+    public ServiceCall<QueryBatch.LatestRequest, QueryBatch.LatestResponse> latestArtifacts() {
+        return request -> {
+            final var queries = checkBatchSize(request.artifacts())
+                .map(latest -> new VersionQuery(
+                    latest.groupId(), latest.artifactId(), latest.tags(), latest.recommended().orElse(true)));
+            return this.session.withTransaction(em -> {
+                final var latest = findLatestVersions(em, queries);
+                final var details = VersionProjections.details(em, latest.flatMap(version -> version).distinct());
+                return new QueryBatch.LatestResponse(queries.zip(latest)
+                    .map(result -> new QueryBatch.LatestResult(
+                        result._1.coordinates, result._2.flatMap(details::get).toJavaOptional())));
+            });
+        };
+    }
+
+    @Override
+    public ServiceCall<QueryBatch.DetailsRequest, QueryBatch.DetailsResponse> batchVersionDetails() {
+        return request -> {
+            final var requested = checkBatchSize(request.versions());
+            final var sanitized = requested.map(coordinates -> new VersionKey(
+                coordinates.groupId.toLowerCase(Locale.ROOT).trim(),
+                coordinates.artifactId.toLowerCase(Locale.ROOT).trim(),
+                coordinates.version.trim()
+            ));
+            return this.session.withTransaction(em -> {
+                final var details = VersionProjections.details(em, sanitized.distinct());
+                final var missing = requested.zip(sanitized)
+                    .filter(coordinates -> !details.containsKey(coordinates._2))
+                    .map(Tuple2::_1);
+                return new QueryBatch.DetailsResponse(sanitized.flatMap(details::get), missing);
+            });
+        };
+    }
+
+    @Override
+    public ServiceCall<NotUsed, QuerySearch.Results> search(
+        final Optional<String> query, final Optional<Integer> limit
+    ) {
+        return notUsed -> {
+            if (!this.artifactSearch.enabled()) {
+                throw new NotFound("search is not enabled");
+            }
+            final var text = query.map(String::strip)
+                .filter(q -> !q.isEmpty())
+                .orElseThrow(() -> new BadRequest("a search needs a query"));
+            // Every word is matched against the whole dictionary, so both are bounded before any work
+            if (text.length() > QuerySearch.MAX_QUERY_LENGTH) {
+                throw new BadRequest("a search query may be at most " + QuerySearch.MAX_QUERY_LENGTH + " characters");
+            }
+            final var words = SearchIndex.words(text);
+            if (words.size() > QuerySearch.MAX_WORDS) {
+                throw new BadRequest("a search query may have at most " + QuerySearch.MAX_WORDS + " words");
+            }
+            final var index = this.artifactSearch.current()
+                .orElseThrow(() -> new TransportException(
+                    TransportErrorCode.ServiceUnavailable,
+                    new ExceptionMessage("Service Unavailable", "the search index is still being built")
+                ));
+            final var size = limit.map(l -> Math.min(Math.max(l, 1), QuerySearch.MAX_LIMIT)).orElse(10);
+            return CompletableFuture.completedFuture(new QuerySearch.Results(text, index.search(words, size)));
+        };
+    }
+
+    static <T> List<T> checkBatchSize(final List<T> batch) {
+        if (batch.size() > QueryBatch.MAX_BATCH_SIZE) {
+            throw new BadRequest("a batch is limited to " + QueryBatch.MAX_BATCH_SIZE + " entries");
+        }
+        return batch;
+    }
+
+    /*
+    Untagged lookups are answered by the version summaries in one query, and every
+    tagged lookup becomes one branch of a single union, so a batch costs at most two
+    queries regardless of its size. The in lists select a superset of the requested
+    artifacts, the lookup by coordinates drops the rest.
+     */
+    static List<Option<VersionKey>> findLatestVersions(EntityManager em, List<VersionQuery> queries) {
+        final var untagged = queries.filter(query -> query.tags.isEmpty()).map(VersionQuery::coordinates);
+        final Map<ArtifactCoordinates, JpaArtifactVersionSummary> summaries = untagged.isEmpty()
+            ? HashMap.empty()
+            : List.ofAll(em.createNamedQuery(
+                        "ArtifactVersionSummary.findByArtifacts", JpaArtifactVersionSummary.class)
+                    .setParameter("groupIds", untagged.map(artifact -> artifact.groupId).distinct().asJava())
+                    .setParameter("artifactIds", untagged.map(artifact -> artifact.artifactId).distinct().asJava())
+                    .getResultList())
+                .toMap(JpaArtifactVersionSummary::coordinates, summary -> summary);
+
+        final var tagged = queries.zipWithIndex().filter(query -> !query._1.tags.isEmpty());
+        final Map<Integer, String> taggedLatest;
+        if (tagged.isEmpty()) {
+            taggedLatest = HashMap.empty();
+        } else {
+            final var union = tagged
+                .map(query -> filteredVersionsQuery(
+                    query._1, "select " + query._2 + " as entry, v.version\n", true, "_" + query._2))
+                .mkString("(", "limit 1\n) union all (", "limit 1\n)");
+            final var nativeQuery = em.createNativeQuery(union);
+            tagged.forEach(query -> bindFilteredVersions(nativeQuery, query._1, "_" + query._2));
+            @SuppressWarnings("unchecked") final java.util.List<Object[]> rows = nativeQuery.getResultList();
+            taggedLatest = List.ofAll(rows).toMap(row -> ((Number) row[0]).intValue(), row -> (String) row[1]);
+        }
+
+        return queries.zipWithIndex().map(query -> {
+            final Option<String> latest = query._1.tags.isEmpty()
+                ? summaries.get(query._1.coordinates).flatMap(summary -> Option.ofOptional(
+                    summary.latest(query._1.recommended)))
+                : taggedLatest.get(query._2);
+            return latest.map(version -> new VersionKey(
+                query._1.coordinates.groupId, query._1.coordinates.artifactId, version));
         });
     }
 
-    private static record ParameterizedTag(String tagName, String tagValue) {
+    /*
+    Conditional requests are answered from the artifact's revision alone, before any of
+    the version queries run.
+     */
+    static ArtifactRevision findRevision(EntityManager em, ArtifactCoordinates coordinates) {
+        return em.createNamedQuery("ArtifactRevision.findByArtifact", ArtifactRevision.class)
+            .setParameter("groupId", coordinates.groupId)
+            .setParameter("artifactId", coordinates.artifactId)
+            .getResultStream()
+            .findFirst()
+            .orElseThrow(() -> new NotFound("group or artifact not found"));
+    }
+
+    /*
+    A client holding a newer revision than the replica has replayed would be answered
+    with something older than what it has already seen, so the primary answers it.
+     */
+    private static ArtifactRevision findRevision(
+        EntityManager em, ArtifactCoordinates coordinates, RequestHeader request
+    ) {
+        final var revision = findRevision(em, coordinates);
+        ReadOnlySession.requireFresh(!ConditionalResponses.precedes(revision, request));
+        return revision;
+    }
+
+    /*
+    The kinds of response answered through the shared cache, and how each is held by it.
+     */
+    private static final record Shape<T>(
+        String name,
+        Function<CachedResponse, Optional<T>> read,
+        BiFunction<ArtifactRevision, T, CachedResponse> write
+    ) {
     }
 
-    private static record VersionQuery(
+    private static final Shape<QueryVersions.VersionInfo> VERSIONS =
+        new Shape<>("versions", CachedResponse::versions, CachedResponse::ofVersions);
+    private static final Shape<QueryVersions.VersionDetails> LATEST =
+        new Shape<>("latest", CachedResponse::latest, CachedResponse::ofLatest);
+
+    /*
+    A response held by the shared cache is answered without the database, unless the
+    client has already seen a newer revision than the one it was read at.
+     */
+    private <T> CompletionStage<Pair<ResponseHeader, T>> coalesced(
+        final Shape<T> shape,
+        final Supplier<VersionQuery> parse,
+        final RequestHeader header,
+        final BiFunction<EntityManager, VersionQuery, T> body
+    ) {
+        final VersionQuery query;
+        try {
+            query = parse.get();
+        } catch (TransportException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        final var coordinates = query.coordinates;
+        if (coordinates.groupId.isBlank() || coordinates.artifactId.isBlank()) {
+            return CompletableFuture.failedFuture(new NotFound("unknown artifact"));
+        }
+        final var key = shape.name + "|" + query.canonical();
+        if (!this.sharedCache.enabled()) {
+            return this.fromDatabase(shape, key, query, header, body);
+        }
+        return this.sharedCache.get(coordinates, key).thenCompose(cached -> {
+            final var hit = cached.flatMap(response -> shape.read.apply(response)
+                .map(value -> Pair.create(response.artifactRevision(), value)));
+            if (hit.isPresent() && !ConditionalResponses.precedes(hit.get().first(), header)) {
+                return CompletableFuture.completedFuture(
+                    ConditionalResponses.respond(hit.get().first(), header, hit.get()::second));
+            }
+            return this.fromDatabase(shape, key, query, header, body);
+        });
+    }
+
+    /*
+    Identical queries running at the same time share one lookup of the revision, which
+    answers conditional requests on its own, and one query of the body at that revision.
+    A client that has seen a newer revision than the lookup found is answered on its own,
+    so the replica guard can hand it to the primary.
+     */
+    private <T> CompletionStage<Pair<ResponseHeader, T>> fromDatabase(
+        final Shape<T> shape,
+        final String key,
+        final VersionQuery query,
+        final RequestHeader header,
+        final BiFunction<EntityManager, VersionQuery, T> body
+    ) {
+        final var coordinates = query.coordinates;
+        return this.inFlight.join(
+                "revision|" + coordinates.groupId + ":" + coordinates.artifactId,
+                () -> this.read(em -> findRevision(em, coordinates))
+            )
+            .thenCompose(revision -> {
+                if (ConditionalResponses.precedes(revision, header)) {
+                    return this.read(em -> ConditionalResponses.respond(
+                        findRevision(em, coordinates, header), header, () -> body.apply(em, query)));
+                }
+                if (ConditionalResponses.isNotModified(revision, header)) {
+                    return CompletableFuture.completedFuture(
+                        ConditionalResponses.<T>respond(revision, header, () -> null));
+                }
+                return this.inFlight.join(
+                        revision.revision() + "|" + key,
+                        () -> this.read(em -> Pair.create(findRevision(em, coordinates), body.apply(em, query)))
+                            .thenApply(result -> {
+                                if (this.sharedCache.enabled()) {
+                                    this.sharedCache.put(
+                                        coordinates, key, shape.write.apply(result.first(), result.second()));
+                                }
+                                return result;
+                            })
+                    )
+                    .thenApply(result -> ConditionalResponses.respond(result.first(), header, result::second));
+            });
+    }
+
+    private <T> CompletionStage<T> read(final Function<EntityManager, T> block) {
+        return this.session.withTransaction(em -> {
+            try {
+                return block.apply(em);
+            } catch (PersistenceException e) {
+                throw new TransportException(
+                    TransportErrorCode.InternalServerError, new ExceptionMessage("Internal Server Error", ""));
+            }
+        });
+    }
+
+    private CompletionStage<VersionIndex> indexFor(final String groupId, final String artifactId) {
+        if (groupId.isBlank() || artifactId.isBlank()) {
+            return CompletableFuture.failedFuture(new NotFound("unknown artifact"));
+        }
+        final var coordinates = new ArtifactCoordinates(
+            groupId.toLowerCase(Locale.ROOT), artifactId.toLowerCase(Locale.ROOT));
+        return this.index.get(coordinates)
+            .thenApply(found -> found.orElseThrow(() -> new NotFound("group or artifact not found")));
+    }
+
+    private static QueryVersions.VersionDetails findLatestDetails(EntityManager em, VersionQuery query) {
+        if (query.tags.isEmpty()) {
+            final var latest = findSummary(em, query.coordinates)
+                .flatMap(summary -> summary.latest(query.recommended))
+                .orElseThrow(() -> new NotFound("group or artifact not found"));
+            return getLatestDetails(em, query.coordinates.version(latest));
+        }
+        final var info = getFilteredVersions(em, query);
+        final var version = info.artifacts().keySet().headOption()
+            .getOrElseThrow(() -> new NotFound("no version matches the tags"));
+        return getLatestDetails(em, query.coordinates.version(version));
+    }
+
+    private static QueryVersions.VersionDetails getLatestDetails(EntityManager em, MavenCoordinates coordinates) {
+        final var key = VersionKey.of(coordinates);
+        return VersionProjections.details(em, List.of(key))
+            .get(key)
+            .getOrElseThrow(() -> new NotFound("group or artifact or version not found"));
+    }
+
+    static record ParameterizedTag(String tagName, String tagValue) {
+    }
+
+    static record VersionQuery(
         ArtifactCoordinates coordinates,
         int limit,
         int offset,
         Optional<Boolean> recommended,
-        List<ParameterizedTag> tags) {
+        List<ParameterizedTag> tags,
+        List<SortKeyRange> range,
+        Optional<VersionCursor> after) {
 
         VersionQuery(
             String groupId, String artifactId,
@@ -166,7 +442,9 @@ public record VersionQueryServiceImpl(JpaSession session)
                 25,
                 0,
                 Optional.of(recommended),
-                gatherTags(tags)
+                gatherTags(tags),
+                List.empty(),
+                Optional.empty()
             );
         }
 
@@ -175,17 +453,65 @@ public record VersionQueryServiceImpl(JpaSession session)
             final Optional<String> tags,
             final Optional<Integer> limitOpt,
             final Optional<Integer> offsetOpt,
-            final Optional<Boolean> recommended
+            final Optional<Boolean> recommended,
+            final Optional<String> cursor,
+            final Optional<String> range,
+            final Optional<String> since
         ) {
             this(
                 new ArtifactCoordinates(groupId.toLowerCase(Locale.ROOT), artifactId.toLowerCase(Locale.ROOT)),
                 limitOpt.map(l -> Math.min(Math.max(l, 1), 25)).orElse(25),
                 offsetOpt.map(o -> Math.max(o, 0)).orElse(0),
                 recommended,
-                gatherTags(tags)
+                gatherTags(tags),
+                SortKeyRange.parse(range, since),
+                VersionCursor.decode(cursor)
             );
         }
 
+        VersionQuery {
+            if (after.isPresent()) {
+                final var filter = filter(coordinates, recommended, tags, range);
+                if (!after.get().filter().equals(filter)) {
+                    throw new BadRequest("cursor does not match the query");
+                }
+                offset = after.get().position();
+            }
+        }
+
+        /*
+        A canonical rendering of everything that narrows the result set, a cursor
+        is only valid for the same filter it was issued for.
+         */
+        private static String filter(
+            ArtifactCoordinates coordinates, Optional<Boolean> recommended, List<ParameterizedTag> tags,
+            List<SortKeyRange> range
+        ) {
+            return coordinates.groupId + ":" + coordinates.artifactId
+                + "|" + recommended.map(String::valueOf).orElse("")
+                + "|" + tags.map(tag -> tag.tagName + ":" + tag.tagValue).sorted().mkString(",")
+                + "|" + range.map(SortKeyRange::canonical).mkString(",");
+        }
+
+        /*
+        Everything the response depends on besides the revision, identical queries
+        share a key.
+         */
+        String canonical() {
+            return filter(this.coordinates, this.recommended, this.tags, this.range)
+                + "|" + this.limit + "|" + this.offset
+                + "|" + this.after.map(VersionCursor::encode).orElse("");
+        }
+
+        Optional<String> nextCursor(final int total, final int pageSize, final byte[] sortKey, final String version) {
+            final var position = this.offset + pageSize;
+            if (pageSize < this.limit || position >= total || sortKey == null) {
+                return Optional.empty();
+            }
+            final var filter = filter(this.coordinates, this.recommended, this.tags, this.range);
+            return Optional.of(new VersionCursor(position, total, filter, sortKey, version).encode());
+        }
+
         private static List<ParameterizedTag> gatherTags(Optional<String> tags) {
             return tags.map(rw -> rw.split(","))
                 .map(List::of).orElseGet(List::of)
@@ -198,92 +524,194 @@ public record VersionQueryServiceImpl(JpaSession session)
     private static QueryVersions.VersionInfo getUntaggedVersions(
         EntityManager em, VersionQuery query
     ) {
-        final int totalCount = query.recommended
-            .map(isRecommended -> em.createNamedQuery("VersionedArtifactView.recommendedCount", Long.class)
-                .setParameter("recommended", isRecommended)
-            )
-            .orElseGet(() -> em.createNamedQuery("VersionedArtifactView.count", Long.class))
-            .setParameter("groupId", query.coordinates.groupId)
-            .setParameter("artifactId", query.coordinates.artifactId)
-            .getSingleResult().intValue();
+        if (query.after.isPresent()) {
+            return getUntaggedVersionsAfter(em, query, query.after.get());
+        }
+        final int totalCount = findSummary(em, query.coordinates)
+            .map(summary -> summary.count(query.recommended))
+            .orElse(0);
         if (totalCount <= 0) {
             throw new NotFound("group or artifact not found");
         }
-        final var untaggedVersions = query.recommended
-            .map(isRecommended -> em.createNamedQuery(
-                        "VersionedArtifactView.findByArtifactAndRecommendation",
-                        JpaVersionedArtifactView.class
-                    )
-                    .setParameter("recommended", isRecommended)
+        // Ordering and paging are done by the database on the persisted sort key
+        @SuppressWarnings("unchecked") final java.util.List<VersionRow> page = query.recommended
+            .map(isRecommended -> em.createNamedQuery("VersionedArtifactView.pageByArtifactAndRecommendation")
+                .setParameter("recommended", isRecommended)
             )
-            .orElseGet(() -> em.createNamedQuery(
-                "VersionedArtifactView.findByArtifact", JpaVersionedArtifactView.class
-            ))
+            .orElseGet(() -> em.createNamedQuery("VersionedArtifactView.pageByArtifact"))
             .setParameter("groupId", query.coordinates.groupId)
             .setParameter("artifactId", query.coordinates.artifactId)
+            .setFirstResult(query.offset)
+            .setMaxResults(query.limit)
             .getResultList();
-        final var mappedByCoordinates = untaggedVersions.stream()
-            .sorted(Comparator.comparing((JpaVersionedArtifactView coords) -> {
-                return new ComparableVersion(coords.version());
-            }).reversed())
-            .collect(List.collector())
-            .drop(query.offset)
-            .take(query.limit);
-        final var versionsWithTags = mappedByCoordinates
-            .toSortedMap(
-                Comparator.comparing(ComparableVersion::new).reversed(),
-                JpaVersionedArtifactView::version,
-                JpaVersionedArtifactView::asTagCollection
-            );
-        return new QueryVersions.VersionInfo(versionsWithTags, query.offset, query.limit, totalCount);
+        return asVersionInfo(em, query, List.ofAll(page), totalCount);
     }
 
-    private static QueryVersions.VersionInfo getTaggedVersions(
-        EntityManager em, VersionQuery query
+    private static Optional<JpaArtifactVersionSummary> findSummary(EntityManager em, ArtifactCoordinates coordinates) {
+        return em.createNamedQuery("ArtifactVersionSummary.findByArtifact", JpaArtifactVersionSummary.class)
+            .setParameter("groupId", coordinates.groupId)
+            .setParameter("artifactId", coordinates.artifactId)
+            .getResultStream()
+            .findFirst();
+    }
+
+    private static QueryVersions.VersionInfo getUntaggedVersionsAfter(
+        EntityManager em, VersionQuery query, VersionCursor cursor
     ) {
-        // Otherwise, get the tagged versions that match the given tags
-        // which is a little advanced, because we'll have to literally gather the versioned values
-        // that match the tags, then do a shake down
-        final var map = query.tags.map(tag -> query.recommended.map(
-                recommended -> em.createNamedQuery(
-                        "TaggedVersion.findMatchingTagValuesAndRecommendation",
-                        JpaTaggedVersion.class
-                    )
-                    .setParameter("recommended", recommended))
-            .orElseGet(() -> em.createNamedQuery(
-                "TaggedVersion.findAllMatchingTagValues", JpaTaggedVersion.class
-            ))
+        // Seek past the last version handed out instead of skipping an offset, the
+        // total is the one observed when the walk started.
+        @SuppressWarnings("unchecked") final java.util.List<VersionRow> page = query.recommended
+            .map(isRecommended -> em.createNamedQuery("VersionedArtifactView.pageByArtifactAndRecommendationAfter")
+                .setParameter("recommended", isRecommended)
+            )
+            .orElseGet(() -> em.createNamedQuery("VersionedArtifactView.pageByArtifactAfter"))
             .setParameter("groupId", query.coordinates.groupId)
             .setParameter("artifactId", query.coordinates.artifactId)
-            .setParameter("tagName", tag.tagName)
-            .setParameter("tagValue", tag.tagValue + "%")
-            .getResultStream()
-            .map(tv -> Tuple.of(tv, Tuple.of(tv.getTagName(), tv.getTagValue())))
-            .collect(List.collector())
-        ).flatMap(Value::toStream);
-        if (map.isEmpty()) {
+            .setParameter("sortKey", cursor.sortKey())
+            .setParameter("version", cursor.version())
+            .setMaxResults(query.limit)
+            .getResultList();
+        return asVersionInfo(em, query, List.ofAll(page), cursor.total());
+    }
+
+    private static QueryVersions.VersionInfo asVersionInfo(
+        EntityManager em, VersionQuery query, List<VersionRow> page, int totalCount
+    ) {
+        final var tags = VersionProjections.tags(em, page.map(VersionRow::key));
+        final var versionsWithTags = page.toLinkedMap(VersionRow::version, row -> new TagCollection(
+            tags.getOrElse(row.key(), HashMap.empty()), row.recommended()));
+        final var next = page.lastOption()
+            .toJavaOptional()
+            .flatMap(last -> query.nextCursor(totalCount, page.size(), last.sortKey(), last.version()));
+        return new QueryVersions.VersionInfo(versionsWithTags, query.offset, query.limit, totalCount, next);
+    }
+
+    static QueryVersions.VersionInfo getFilteredVersions(
+        EntityManager em, VersionQuery query
+    ) {
+        // A version matches when it has a matching value for every requested tag name, so the
+        // matching tag rows are grouped by version and only kept when every name is accounted for.
+        // Version ranges are bounds on the persisted sort key, on which ordering and paging happen
+        // in the same query.
+        final var select = filteredVersionsQuery(query, """
+            select v.artifact_id, v.group_id, v.version, v.recommended, v.manual_recommendation, v.sort_key,
+                count(*) over () as total_count
+            """, true);
+        @SuppressWarnings("unchecked") final java.util.List<Object[]> rows = bindFilteredVersions(
+            em.createNativeQuery(select, "VersionedArtifactView.pageWithTotal"), query)
+            .setFirstResult(query.after.isPresent() ? 0 : query.offset)
+            .setMaxResults(query.limit)
+            .getResultList();
+        final int totalCount;
+        if (query.after.isPresent()) {
+            totalCount = query.after.get().total();
+        } else if (!rows.isEmpty()) {
+            totalCount = ((Number) rows.get(0)[1]).intValue();
+        } else if (query.offset > 0) {
+            totalCount = ((Number) bindFilteredVersions(
+                em.createNativeQuery(filteredVersionsQuery(query, "select count(*)", false)), query)
+                .getSingleResult()).intValue();
+        } else {
+            totalCount = 0;
+        }
+        if (totalCount <= 0 && findSummary(em, query.coordinates).isEmpty()) {
             throw new NotFound("group or artifact not found");
         }
-        var versionedTags = HashMap.<String, Tuple2<JpaVersionedArtifactView, Map<String, String>>>empty();
+        return asVersionInfo(em, query, List.ofAll(rows).map(row -> (VersionRow) row[0]), totalCount);
+    }
 
-        for (final Tuple2<JpaTaggedVersion, Tuple2<String, String>> tagged : map) {
-            versionedTags = versionedTags.put(
-                tagged._1.getMavenVersion(),
-                tagged.map(JpaTaggedVersion::getVersion, HashMap::of),
-                (o, i) -> Tuple.of(o._1, o._2.merge(i._2))
-            );
+    private static String filteredVersionsQuery(VersionQuery query, String select, boolean ordered) {
+        return filteredVersionsQuery(query, select, ordered, "");
+    }
+
+    /*
+    The suffix is appended to every parameter name, so the same query can appear
+    several times within a single statement.
+     */
+    private static String filteredVersionsQuery(VersionQuery query, String select, boolean ordered, String suffix) {
+        final var tagNames = query.tags.map(ParameterizedTag::tagName).distinct();
+        final var sql = new StringBuilder(select)
+            .append("""
+                from version.versioned_artifacts v
+                where v.group_id = :groupId%1$s and v.artifact_id = :artifactId%1$s
+                """.formatted(suffix));
+        query.recommended.ifPresent(r -> sql.append("""
+            and (v.recommended = :recommended%1$s or v.manual_recommendation = :recommended%1$s)
+            """.formatted(suffix)));
+        query.after.ifPresent(cursor -> sql.append("""
+            and v.sort_key <= :sortKey%1$s and (v.sort_key < :sortKey%1$s or v.version collate "C" < :version%1$s)
+            """.formatted(suffix)));
+        if (!query.range.isEmpty()) {
+            sql.append(query.range.zipWithIndex()
+                .map(range -> range._1.predicate(range._2, suffix))
+                .mkString("and (", " or ", ")\n"));
         }
-        final var wantedTagNames = query.tags.map(ParameterizedTag::tagName);
-        final var validatedVersion = versionedTags
-            .filter((coordinates, tagMap) -> tagMap._2.keySet().containsAll(wantedTagNames));
-        final var versionsForQuery = validatedVersion
-            .toSortedMap(Comparator.comparing(ComparableVersion::new).reversed(), tuple -> tuple._1, tuple -> tuple._2)
-            .drop(query.offset)
-            .take(query.limit);
-        return new QueryVersions.VersionInfo(
-            versionsForQuery.mapValues(tuple -> tuple._1.asTagCollection()), query.offset, query.limit,
-            validatedVersion.size()
-        );
+        if (!query.tags.isEmpty()) {
+            sql.append("""
+                and v.version in (
+                    select t.maven_version from version.versioned_tags t
+                    where t.maven_group_id = :groupId%1$s and t.maven_artifact_id = :artifactId%1$s
+                    and (
+                """.formatted(suffix));
+            sql.append(query.tags.zipWithIndex()
+                .map(tag -> {
+                    final var start = "(t.tag_name = :tagName%1$d%2$s and t.tag_value ~>=~ :tagValue%1$d%2$s";
+                    final var end = prefixUpperBound(tag._1.tagValue).isPresent()
+                        ? " and t.tag_value ~<~ :tagValueEnd%1$d%2$s)"
+                        : ")";
+                    return String.format(start + end, tag._2, suffix);
+                })
+                .mkString("    ", "\n    or ", "\n"));
+            sql.append("""
+                    )
+                    group by t.maven_version
+                    having count(distinct t.tag_name) =\s""").append(tagNames.size()).append("\n)\n");
+        }
+        if (ordered) {
+            sql.append("order by v.sort_key desc, v.version collate \"C\" desc\n");
+        }
+        return sql.toString();
+    }
+
+    private static Query bindFilteredVersions(Query nativeQuery, VersionQuery query) {
+        return bindFilteredVersions(nativeQuery, query, "");
+    }
+
+    private static Query bindFilteredVersions(Query nativeQuery, VersionQuery query, String suffix) {
+        nativeQuery.setParameter("groupId" + suffix, query.coordinates.groupId)
+            .setParameter("artifactId" + suffix, query.coordinates.artifactId);
+        query.recommended.ifPresent(recommended -> nativeQuery.setParameter("recommended" + suffix, recommended));
+        query.after.ifPresent(cursor -> nativeQuery
+            .setParameter("sortKey" + suffix, cursor.sortKey())
+            .setParameter("version" + suffix, cursor.version()));
+        query.range.zipWithIndex().forEach(range -> range._1.bind(nativeQuery, range._2, suffix));
+        query.tags.zipWithIndex().forEach(tag -> {
+            nativeQuery.setParameter("tagName" + tag._2 + suffix, tag._1.tagName)
+                .setParameter("tagValue" + tag._2 + suffix, tag._1.tagValue);
+            prefixUpperBound(tag._1.tagValue)
+                .ifPresent(end -> nativeQuery.setParameter("tagValueEnd" + tag._2 + suffix, end));
+        });
+        return nativeQuery;
+    }
+
+    /*
+    The smallest string greater than every string starting with the prefix, in code point
+    order, which is the byte order text_pattern_ops compares UTF-8 values in. A prefix
+    filter then becomes the range [prefix, upper bound) and is served by the prefix index.
+     */
+    static Optional<String> prefixUpperBound(final String prefix) {
+        final var codePoints = prefix.codePoints().toArray();
+        for (int i = codePoints.length - 1; i >= 0; i--) {
+            var next = codePoints[i] + 1;
+            if (next >= Character.MIN_SURROGATE && next <= Character.MAX_SURROGATE) {
+                next = Character.MAX_SURROGATE + 1;
+            }
+            if (next <= Character.MAX_CODE_POINT) {
+                codePoints[i] = next;
+                return Optional.of(new String(codePoints, 0, i + 1));
+            }
+        }
+        return Optional.empty();
     }
 
 }
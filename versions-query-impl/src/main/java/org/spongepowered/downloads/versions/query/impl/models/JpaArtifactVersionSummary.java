@@ -0,0 +1,129 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl.models;
+
+import org.hibernate.annotations.Immutable;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+
+@Immutable
+@Entity(name = "ArtifactVersionSummary")
+@Table(name = "versioned_artifact_summaries",
+    schema = "version")
+@NamedQueries({
+    @NamedQuery(
+        name = "ArtifactVersionSummary.findByArtifact",
+        query = """
+                select s from ArtifactVersionSummary s where s.groupId = :groupId and s.artifactId = :artifactId
+                """
+    ),
+    @NamedQuery(
+        name = "ArtifactVersionSummary.findByArtifacts",
+        query = """
+                select s from ArtifactVersionSummary s where s.groupId in :groupIds and s.artifactId in :artifactIds
+                """
+    )
+})
+public class JpaArtifactVersionSummary implements Serializable {
+
+    @Id
+    @Column(name = "group_id",
+        updatable = false)
+    private String groupId;
+
+    @Id
+    @Column(name = "artifact_id",
+        updatable = false)
+    private String artifactId;
+
+    @Column(name = "version_count")
+    private int versionCount;
+
+    @Column(name = "recommended_count")
+    private int recommendedCount;
+
+    @Column(name = "unrecommended_count")
+    private int unrecommendedCount;
+
+    @Column(name = "latest_version")
+    private String latestVersion;
+
+    @Column(name = "latest_recommended_version")
+    private String latestRecommendedVersion;
+
+    @Column(name = "latest_unrecommended_version")
+    private String latestUnrecommendedVersion;
+
+    public ArtifactCoordinates coordinates() {
+        return new ArtifactCoordinates(this.groupId, this.artifactId);
+    }
+
+    /**
+     * Gets the number of versions matching the
+     * {@code (recommended = :recommended or manual_recommendation = :recommended)}
+     * filter used by the version queries, or all versions if there is none.
+     *
+     * @param recommended The recommendation filter
+     * @return The number of matching versions
+     */
+    public int count(final Optional<Boolean> recommended) {
+        return recommended
+            .map(isRecommended -> isRecommended ? this.recommendedCount : this.unrecommendedCount)
+            .orElse(this.versionCount);
+    }
+
+    public Optional<String> latest(final Optional<Boolean> recommended) {
+        if (recommended.isEmpty()) {
+            return Optional.ofNullable(this.latestVersion);
+        }
+        return Optional.ofNullable(recommended.get() ? this.latestRecommendedVersion : this.latestUnrecommendedVersion);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        JpaArtifactVersionSummary that = (JpaArtifactVersionSummary) o;
+        return Objects.equals(groupId, that.groupId) && Objects.equals(artifactId, that.artifactId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupId, artifactId);
+    }
+}
@@ -44,34 +44,24 @@ import java.util.Objects;
 @Immutable
 @Table(name = "versioned_tags", schema = "version")
 @NamedQueries({
-    @NamedQuery(name = "TaggedVersion.findAllForVersion",
+    @NamedQuery(name = "TaggedVersion.findRows",
         query =
             """
-            select view from TaggedVersion view
-            where view.mavenGroupId = :groupId and view.mavenArtifactId = :artifactId and view.version = :version
+            select new org.spongepowered.downloads.versions.query.impl.models.TagRow(
+                t.mavenGroupId, t.mavenArtifactId, t.version, t.tagName, t.tagValue
+            )
+            from TaggedVersion t
+            where t.mavenGroupId in :groupIds and t.mavenArtifactId in :artifactIds and t.version in :versions
             """
     ),
-    @NamedQuery(
-        name = "TaggedVersion.findAllMatchingTagValues",
+    @NamedQuery(name = "TaggedVersion.findRowsByArtifact",
         query =
             """
-            select view from TaggedVersion view
-            where view.mavenGroupId = :groupId
-            and view.mavenArtifactId = :artifactId
-            and view.tagName = :tagName
-            and view.tagValue like :tagValue
-            """
-    ),
-    @NamedQuery(
-        name = "TaggedVersion.findMatchingTagValuesAndRecommendation",
-        query =
-            """
-            select view from TaggedVersion view
-            where view.mavenGroupId = :groupId
-            and view.mavenArtifactId = :artifactId
-            and view.tagName = :tagName
-            and view.tagValue like :tagValue
-            and (view.versionView.recommended = :recommended or view.versionView.manuallyRecommended = :recommended)
+            select new org.spongepowered.downloads.versions.query.impl.models.TagRow(
+                t.mavenGroupId, t.mavenArtifactId, t.version, t.tagName, t.tagValue
+            )
+            from TaggedVersion t
+            where t.mavenGroupId = :groupId and t.mavenArtifactId = :artifactId
             """
     )
 })
@@ -24,77 +24,148 @@
  */
 package org.spongepowered.downloads.versions.query.impl.models;
 
-import io.vavr.Tuple;
-import io.vavr.collection.HashMap;
-import io.vavr.collection.List;
-import io.vavr.collection.Map;
 import org.hibernate.annotations.Immutable;
-import org.spongepowered.downloads.artifact.api.Artifact;
-import org.spongepowered.downloads.artifact.api.MavenCoordinates;
-import org.spongepowered.downloads.versions.query.api.models.TagCollection;
+import org.hibernate.annotations.Type;
 
-import javax.persistence.CascadeType;
 import javax.persistence.Column;
+import javax.persistence.ColumnResult;
+import javax.persistence.ConstructorResult;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.NamedNativeQueries;
+import javax.persistence.NamedNativeQuery;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
-import javax.persistence.OneToMany;
+import javax.persistence.SqlResultSetMapping;
+import javax.persistence.SqlResultSetMappings;
 import javax.persistence.Table;
 import java.io.Serializable;
-import java.net.URI;
-import java.util.Comparator;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
 
+/**
+ * The mapping of {@code versioned_artifacts} the version queries are declared
+ * on. Queries project into {@link VersionRow}, {@link TagRow} and
+ * {@link AssetRow} rather than hydrating this view.
+ */
 @Immutable
 @Entity(name = "VersionedArtifactView")
 @Table(name = "versioned_artifacts",
     schema = "version")
 @NamedQueries({
     @NamedQuery(
-        name = "VersionedArtifactView.count",
+        name = "VersionedArtifactView.findRows",
         query = """
-                select count(v) from VersionedArtifactView v
-                where v.groupId = :groupId and v.artifactId = :artifactId
-                 """
+                select new org.spongepowered.downloads.versions.query.impl.models.VersionRow(
+                    v.groupId, v.artifactId, v.version, v.recommended, v.manuallyRecommended, v.sortKey
+                )
+                from VersionedArtifactView v
+                where v.groupId in :groupIds and v.artifactId in :artifactIds and v.version in :versions
+                """
     ),
     @NamedQuery(
-        name = "VersionedArtifactView.recommendedCount",
+        name = "VersionedArtifactView.findRowsByArtifact",
         query = """
-                select count(v) from VersionedArtifactView v
-                where v.groupId = :groupId and v.artifactId = :artifactId and v.recommended = :recommended
+                select new org.spongepowered.downloads.versions.query.impl.models.VersionRow(
+                    v.groupId, v.artifactId, v.version, v.recommended, v.manuallyRecommended, v.sortKey
+                )
+                from VersionedArtifactView v
+                where v.groupId = :groupId and v.artifactId = :artifactId
                 """
+    )
+})
+@SqlResultSetMappings({
+    @SqlResultSetMapping(
+        name = "VersionedArtifactView.row",
+        classes = @ConstructorResult(targetClass = VersionRow.class, columns = {
+            @ColumnResult(name = "group_id", type = String.class),
+            @ColumnResult(name = "artifact_id", type = String.class),
+            @ColumnResult(name = "version", type = String.class),
+            @ColumnResult(name = "recommended", type = Boolean.class),
+            @ColumnResult(name = "manual_recommendation", type = Boolean.class),
+            @ColumnResult(name = "sort_key", type = byte[].class)
+        })
     ),
-    @NamedQuery(
-        name = "VersionedArtifactView.findByArtifact",
+    @SqlResultSetMapping(
+        name = "VersionedArtifactView.pageWithTotal",
+        classes = @ConstructorResult(targetClass = VersionRow.class, columns = {
+            @ColumnResult(name = "group_id", type = String.class),
+            @ColumnResult(name = "artifact_id", type = String.class),
+            @ColumnResult(name = "version", type = String.class),
+            @ColumnResult(name = "recommended", type = Boolean.class),
+            @ColumnResult(name = "manual_recommendation", type = Boolean.class),
+            @ColumnResult(name = "sort_key", type = byte[].class)
+        }),
+        columns = @ColumnResult(name = "total_count", type = Long.class)
+    )
+})
+@NamedNativeQueries({
+    @NamedNativeQuery(
+        name = "VersionedArtifactView.pageByArtifact",
         query = """
-                select v from VersionedArtifactView v where v.artifactId = :artifactId and v.groupId = :groupId
-                """
+                select v.group_id, v.artifact_id, v.version, v.recommended, v.manual_recommendation, v.sort_key
+                from version.versioned_artifacts v
+                where v.group_id = :groupId and v.artifact_id = :artifactId
+                order by v.sort_key desc, v.version collate "C" desc
+                """,
+        resultSetMapping = "VersionedArtifactView.row"
     ),
-    @NamedQuery(
-        name = "VersionedArtifactView.findByArtifactAndRecommendation",
+    @NamedNativeQuery(
+        name = "VersionedArtifactView.pageByArtifactAndRecommendation",
         query = """
-                select v from VersionedArtifactView v
-                where v.artifactId = :artifactId and v.groupId = :groupId and (v.recommended = :recommended or v.manuallyRecommended = :recommended)
-                """
+                select v.group_id, v.artifact_id, v.version, v.recommended, v.manual_recommendation, v.sort_key
+                from version.versioned_artifacts v
+                where v.group_id = :groupId and v.artifact_id = :artifactId
+                and (v.recommended = :recommended or v.manual_recommendation = :recommended)
+                order by v.sort_key desc, v.version collate "C" desc
+                """,
+        resultSetMapping = "VersionedArtifactView.row"
     ),
-    @NamedQuery(
-        name = "VersionedArtifactView.findExplicitly",
+    @NamedNativeQuery(
+        name = "VersionedArtifactView.pageByArtifactAfter",
         query = """
-                select v from VersionedArtifactView v
-                inner join fetch v.tags
-                where v.artifactId = :artifactId and v.groupId = :groupId and v.version = :version
+                select v.group_id, v.artifact_id, v.version, v.recommended, v.manual_recommendation, v.sort_key
+                from version.versioned_artifacts v
+                where v.group_id = :groupId and v.artifact_id = :artifactId
+                and v.sort_key <= :sortKey and (v.sort_key < :sortKey or v.version collate "C" < :version)
+                order by v.sort_key desc, v.version collate "C" desc
+                """,
+        resultSetMapping = "VersionedArtifactView.row"
+    ),
+    @NamedNativeQuery(
+        name = "VersionedArtifactView.pageByArtifactAndRecommendationAfter",
+        query = """
+                select v.group_id, v.artifact_id, v.version, v.recommended, v.manual_recommendation, v.sort_key
+                from version.versioned_artifacts v
+                where v.group_id = :groupId and v.artifact_id = :artifactId
+                and (v.recommended = :recommended or v.manual_recommendation = :recommended)
+                and v.sort_key <= :sortKey and (v.sort_key < :sortKey or v.version collate "C" < :version)
+                order by v.sort_key desc, v.version collate "C" desc
+                """,
+        resultSetMapping = "VersionedArtifactView.row"
+    ),
+    @NamedNativeQuery(
+        name = "VersionedArtifactView.exportByArtifact",
+        query = """
+                select v.version, v.recommended or v.manual_recommendation, t.tag_name, t.tag_value
+                from version.versioned_artifacts v
+                left join version.versioned_tags t
+                    on t.maven_group_id = v.group_id and t.maven_artifact_id = v.artifact_id
+                    and t.maven_version = v.version
+                where v.group_id = :groupId and v.artifact_id = :artifactId
+                order by v.sort_key desc, v.version collate "C" desc
                 """
     ),
-    @NamedQuery(
-        name = "VersionedArtifactView.findFullVersionDetails",
+    @NamedNativeQuery(
+        name = "VersionedArtifactView.exportByArtifactAfter",
         query = """
-                select v from VersionedArtifactView v
-                inner join fetch v.tags
-                inner join fetch v.assets
-                where v.artifactId = :artifactId and v.groupId = :groupId and v.version = :version
+                select v.version, v.recommended or v.manual_recommendation, t.tag_name, t.tag_value
+                from version.versioned_artifacts v
+                left join version.versioned_tags t
+                    on t.maven_group_id = v.group_id and t.maven_artifact_id = v.artifact_id
+                    and t.maven_version = v.version
+                where v.group_id = :groupId and v.artifact_id = :artifactId
+                and v.sort_key <= :sortKey and (v.sort_key < :sortKey or v.version collate "C" < :version)
+                order by v.sort_key desc, v.version collate "C" desc
                 """
     )
 })
@@ -121,71 +192,10 @@ public class JpaVersionedArtifactView implements Serializable {
     @Column(name = "manual_recommendation")
     private boolean manuallyRecommended;
 
-    @OneToMany(
-        targetEntity = JpaTaggedVersion.class,
-        cascade = CascadeType.ALL,
-        orphanRemoval = true,
-        mappedBy = "versionView")
-    private Set<JpaTaggedVersion> tags;
-
-    @OneToMany(
-        targetEntity = JpaVersionedAsset.class,
-        cascade = CascadeType.ALL,
-        orphanRemoval = true,
-        mappedBy = "versionView"
-    )
-    private Set<JpaVersionedAsset> assets;
-
-    public Set<JpaTaggedVersion> getTags() {
-        return tags;
-    }
-
-    public String version() {
-        return this.version;
-    }
-
-    public Map<String, String> getTagValues() {
-        final var results = this.getTags();
-        final var tuple2Stream = results.stream().map(
-            taggedVersion -> Tuple.of(taggedVersion.getTagName(), taggedVersion.getTagValue()));
-        return tuple2Stream
-            .collect(HashMap.collector());
-    }
-
-    public TagCollection asTagCollection() {
-        final var results = this.getTags();
-        final var tuple2Stream = results.stream().map(
-            taggedVersion -> Tuple.of(taggedVersion.getTagName(), taggedVersion.getTagValue()));
-        return new TagCollection(tuple2Stream
-            .collect(HashMap.collector()), this.recommended);
-    }
-
-    public boolean isRecommended() {
-        return this.recommended || this.manuallyRecommended;
-    }
-
-    public MavenCoordinates asMavenCoordinates() {
-        return new MavenCoordinates(this.groupId + ":" + this.artifactId + ":" + this.version);
-    }
-
-    Set<JpaVersionedAsset> getAssets() {
-        return assets;
-    }
-
-    public List<Artifact> asArtifactList() {
-        return this.getAssets()
-            .stream()
-            .map(
-                asset -> new Artifact(
-                    Optional.ofNullable(asset.getClassifier()),
-                    URI.create(asset.getDownloadUrl()),
-                    new String(asset.getMd5()),
-                    new String(asset.getSha1()),
-                    asset.getExtension()
-                )
-            ).collect(List.collector())
-            .sorted(Comparator.comparing(artifact -> artifact.classifier().orElse("")));
-    }
+    @Type(type = "org.hibernate.type.BinaryType")
+    @Column(name = "sort_key",
+        updatable = false)
+    private byte[] sortKey;
 
     @Override
     public boolean equals(final Object o) {
@@ -35,6 +35,8 @@ import javax.persistence.JoinColumn;
 import javax.persistence.JoinColumns;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import java.io.Serializable;
 import java.util.Arrays;
@@ -44,6 +46,18 @@ import java.util.Objects;
 @Entity(name = "VersionedAsset")
 @Table(name = "artifact_versioned_assets",
     schema = "version")
+@NamedQueries({
+    @NamedQuery(
+        name = "VersionedAsset.findRows",
+        query = """
+                select new org.spongepowered.downloads.versions.query.impl.models.AssetRow(
+                    a.groupId, a.artifactId, a.version, a.classifier, a.extension, a.downloadUrl, a.md5, a.sha1
+                )
+                from VersionedAsset a
+                where a.groupId in :groupIds and a.artifactId in :artifactIds and a.version in :versions
+                """
+    )
+})
 public class JpaVersionedAsset implements Serializable {
 
     @Id
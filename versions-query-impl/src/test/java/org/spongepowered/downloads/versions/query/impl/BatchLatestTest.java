@@ -0,0 +1,178 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.lightbend.lagom.javadsl.api.transport.BadRequest;
+import io.vavr.collection.List;
+import io.vavr.control.Option;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.versions.query.api.models.QueryBatch;
+import org.spongepowered.downloads.versions.query.impl.models.VersionKey;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public final class BatchLatestTest {
+
+    private static final Pattern PARAMETER = Pattern.compile(":([A-Za-z][A-Za-z0-9_]*)");
+
+    /**
+     * Records the statements a batch issues, answering the native one with the
+     * given rows and every named query with nothing.
+     */
+    private static final class Recorder {
+        final java.util.List<String> nativeQueries = new ArrayList<>();
+        final java.util.List<String> namedQueries = new ArrayList<>();
+        final Map<String, Object> parameters = new HashMap<>();
+        final java.util.List<Object[]> rows;
+
+        Recorder(final java.util.List<Object[]> rows) {
+            this.rows = rows;
+        }
+
+        EntityManager entityManager() {
+            return proxy(EntityManager.class, (method, args) -> switch (method) {
+                case "createNativeQuery" -> {
+                    this.nativeQueries.add((String) args[0]);
+                    yield this.query(Query.class, this.rows);
+                }
+                case "createNamedQuery" -> {
+                    this.namedQueries.add((String) args[0]);
+                    yield this.query(TypedQuery.class, java.util.List.of());
+                }
+                default -> throw new UnsupportedOperationException(method);
+            });
+        }
+
+        private <Q> Q query(final Class<Q> type, final java.util.List<?> results) {
+            final var self = new Object[1];
+            self[0] = proxy(type, (method, args) -> switch (method) {
+                case "setParameter" -> {
+                    this.parameters.put((String) args[0], args[1]);
+                    yield self[0];
+                }
+                case "getResultList" -> results;
+                default -> throw new UnsupportedOperationException(method);
+            });
+            return type.cast(self[0]);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(final Class<T> type, final Handler handler) {
+        return type.cast(Proxy.newProxyInstance(
+            BatchLatestTest.class.getClassLoader(), new Class<?>[]{type},
+            (proxy, method, args) -> handler.invoke(method.getName(), args)
+        ));
+    }
+
+    private static VersionQueryServiceImpl.VersionQuery latest(final String artifactId, final String tags) {
+        return new VersionQueryServiceImpl.VersionQuery(
+            "org.spongepowered", artifactId, Optional.ofNullable(tags), true);
+    }
+
+    @Test
+    public void answersTaggedLookupsWithOneUnionInRequestOrder() {
+        final var recorder = new Recorder(java.util.List.of(
+            new Object[]{2, "1.16.5-8.0.0"},
+            new Object[]{0, "1.12.2-7.4.7"}
+        ));
+        final var queries = List.of(
+            latest("spongeforge", "minecraft:1.12.2"),
+            latest("spongevanilla", "minecraft:1.17"),
+            latest("spongevanilla", "minecraft:1.16.5,api:8")
+        );
+
+        final var results = VersionQueryServiceImpl.findLatestVersions(recorder.entityManager(), queries);
+
+        assertEquals(List.of(
+            Option.of(new VersionKey("org.spongepowered", "spongeforge", "1.12.2-7.4.7")),
+            Option.none(),
+            Option.of(new VersionKey("org.spongepowered", "spongevanilla", "1.16.5-8.0.0"))
+        ), results);
+        assertEquals(1, recorder.nativeQueries.size());
+        assertTrue(recorder.namedQueries.isEmpty());
+    }
+
+    @Test
+    public void bindsEveryParameterOfEveryBranch() {
+        final var recorder = new Recorder(java.util.List.of());
+        final var queries = List.of(
+            latest("spongeforge", "minecraft:1.12.2"),
+            latest("spongevanilla", "minecraft:1.16.5,api:8"),
+            latest("spongevanilla", "minecraft:1.16.5")
+        );
+
+        VersionQueryServiceImpl.findLatestVersions(recorder.entityManager(), queries);
+
+        final Set<String> named = new HashSet<>();
+        PARAMETER.matcher(recorder.nativeQueries.get(0)).results().forEach(match -> named.add(match.group(1)));
+        assertEquals(named, recorder.parameters.keySet());
+        // The same artifact twice must not share parameters between branches
+        assertEquals("spongevanilla", recorder.parameters.get("artifactId_1"));
+        assertEquals("spongevanilla", recorder.parameters.get("artifactId_2"));
+        assertEquals("8", recorder.parameters.get("tagValue1_1"));
+        assertEquals("1.16.5", recorder.parameters.get("tagValue0_2"));
+    }
+
+    @Test
+    public void readsUntaggedLookupsFromTheSummariesAlone() {
+        final var recorder = new Recorder(java.util.List.of());
+        final var queries = List.of(latest("spongeforge", null), latest("spongevanilla", null));
+
+        final var results = VersionQueryServiceImpl.findLatestVersions(recorder.entityManager(), queries);
+
+        assertEquals(List.of(Option.none(), Option.none()), results);
+        assertEquals(java.util.List.of("ArtifactVersionSummary.findByArtifacts"), recorder.namedQueries);
+        assertTrue(recorder.nativeQueries.isEmpty());
+        assertEquals(List.of("org.spongepowered"), List.ofAll((Iterable<?>) recorder.parameters.get("groupIds")));
+        assertEquals(
+            List.of("spongeforge", "spongevanilla"), List.ofAll((Iterable<?>) recorder.parameters.get("artifactIds")));
+    }
+
+    @Test
+    public void limitsTheBatchSize() {
+        final var full = List.fill(QueryBatch.MAX_BATCH_SIZE, 0);
+        assertEquals(full, VersionQueryServiceImpl.checkBatchSize(full));
+        assertThrows(BadRequest.class, () -> VersionQueryServiceImpl.checkBatchSize(full.append(0)));
+    }
+}
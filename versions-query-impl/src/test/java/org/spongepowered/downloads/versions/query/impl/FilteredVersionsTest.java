@@ -0,0 +1,236 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.lightbend.lagom.javadsl.api.transport.NotFound;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.artifact.api.VersionSortKey;
+import org.spongepowered.downloads.versions.query.impl.models.JpaArtifactVersionSummary;
+import org.spongepowered.downloads.versions.query.impl.models.TagRow;
+import org.spongepowered.downloads.versions.query.impl.models.VersionRow;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public final class FilteredVersionsTest {
+
+    private static final Pattern PARAMETER = Pattern.compile(":([A-Za-z][A-Za-z0-9_]*)");
+    private static final String GROUP = "org.spongepowered";
+    private static final String ARTIFACT = "spongevanilla";
+
+    /**
+     * Records the statements a listing issues, answering the paged query with the
+     * given rows, the count query with the given count and the summary lookup with
+     * a summary only when the artifact exists.
+     */
+    private static final class Recorder {
+        final java.util.List<String> nativeQueries = new ArrayList<>();
+        final java.util.List<Map<String, Object>> parameters = new ArrayList<>();
+        final Map<String, Integer> paging = new HashMap<>();
+        final java.util.List<Object[]> rows;
+        final java.util.List<TagRow> tags;
+        final long count;
+        final boolean exists;
+
+        Recorder(final java.util.List<Object[]> rows, final java.util.List<TagRow> tags, final long count,
+            final boolean exists
+        ) {
+            this.rows = rows;
+            this.tags = tags;
+            this.count = count;
+            this.exists = exists;
+        }
+
+        EntityManager entityManager() {
+            return proxy(EntityManager.class, (method, args) -> switch (method) {
+                case "createNativeQuery" -> {
+                    this.nativeQueries.add((String) args[0]);
+                    final Map<String, Object> bound = new HashMap<>();
+                    this.parameters.add(bound);
+                    yield this.query(Query.class, bound, this.rows);
+                }
+                case "createNamedQuery" -> this.query(TypedQuery.class, new HashMap<>(), switch ((String) args[0]) {
+                    case "ArtifactVersionSummary.findByArtifact" -> this.exists
+                        ? java.util.List.of(new JpaArtifactVersionSummary())
+                        : java.util.List.of();
+                    case "TaggedVersion.findRows" -> this.tags;
+                    default -> throw new UnsupportedOperationException((String) args[0]);
+                });
+                default -> throw new UnsupportedOperationException(method);
+            });
+        }
+
+        private <Q> Q query(final Class<Q> type, final Map<String, Object> bound, final java.util.List<?> results) {
+            final var self = new Object[1];
+            self[0] = proxy(type, (method, args) -> switch (method) {
+                case "setParameter" -> {
+                    bound.put((String) args[0], args[1]);
+                    yield self[0];
+                }
+                case "setFirstResult", "setMaxResults" -> {
+                    this.paging.put(method, (Integer) args[0]);
+                    yield self[0];
+                }
+                case "getResultList" -> results;
+                case "getResultStream" -> results.stream();
+                case "getSingleResult" -> this.count;
+                default -> throw new UnsupportedOperationException(method);
+            });
+            return type.cast(self[0]);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(final Class<T> type, final Handler handler) {
+        return type.cast(Proxy.newProxyInstance(
+            FilteredVersionsTest.class.getClassLoader(), new Class<?>[]{type},
+            (proxy, method, args) -> handler.invoke(method.getName(), args)
+        ));
+    }
+
+    private static VersionQueryServiceImpl.VersionQuery query(
+        final String tags, final int offset, final Optional<String> cursor
+    ) {
+        return new VersionQueryServiceImpl.VersionQuery(
+            GROUP, ARTIFACT, Optional.ofNullable(tags), Optional.of(2), Optional.of(offset), Optional.of(true),
+            cursor, Optional.of("[8.0,9.0)"), Optional.empty()
+        );
+    }
+
+    private static Object[] row(final String version, final long total) {
+        return new Object[]{
+            new VersionRow(GROUP, ARTIFACT, version, true, false, VersionSortKey.of(version)), total
+        };
+    }
+
+    private static Set<String> named(final String sql) {
+        final Set<String> names = new HashSet<>();
+        PARAMETER.matcher(sql).results().forEach(match -> names.add(match.group(1)));
+        return names;
+    }
+
+    @Test
+    public void bindsEveryParameterAndRequiresEveryTagName() {
+        final var recorder = new Recorder(java.util.List.of(), java.util.List.of(), 0, true);
+
+        VersionQueryServiceImpl.getFilteredVersions(
+            recorder.entityManager(), query("minecraft:1.16,minecraft:1.17,api:8", 0, Optional.empty()));
+
+        final var sql = recorder.nativeQueries.get(0);
+        assertEquals(named(sql), recorder.parameters.get(0).keySet());
+        // Alternatives of the same tag name count once
+        assertTrue(sql.contains("having count(distinct t.tag_name) = 2"), sql);
+        assertEquals("1.16", recorder.parameters.get(0).get("tagValue0"));
+        assertEquals("1.17", recorder.parameters.get(0).get("tagValueEnd0"));
+        assertEquals("minecraft", recorder.parameters.get(0).get("tagName1"));
+    }
+
+    @Test
+    public void pagesInTheDatabaseAndTakesTheTotalFromTheWindowCount() {
+        final var recorder = new Recorder(
+            java.util.List.of(row("8.1.0", 5), row("8.0.0", 5)),
+            java.util.List.of(new TagRow(GROUP, ARTIFACT, "8.1.0", "minecraft", "1.16.5")),
+            0,
+            true
+        );
+
+        final var info = VersionQueryServiceImpl.getFilteredVersions(
+            recorder.entityManager(), query("minecraft:1.16", 2, Optional.empty()));
+
+        assertEquals(1, recorder.nativeQueries.size());
+        assertEquals(2, recorder.paging.get("setFirstResult"));
+        assertEquals(2, recorder.paging.get("setMaxResults"));
+        assertEquals(5, info.size());
+        assertEquals(List.of("8.1.0", "8.0.0"), info.artifacts().keySet().toList());
+        assertEquals("1.16.5", info.artifacts().get("8.1.0").get().tagValues().get("minecraft").get());
+        assertTrue(info.artifacts().get("8.0.0").get().tagValues().isEmpty());
+        assertTrue(info.cursor().isPresent());
+    }
+
+    @Test
+    public void countsSeparatelyOnlyWhenPagedPastTheEnd() {
+        final var recorder = new Recorder(java.util.List.of(), java.util.List.of(), 3, true);
+
+        final var info = VersionQueryServiceImpl.getFilteredVersions(
+            recorder.entityManager(), query("minecraft:1.16", 4, Optional.empty()));
+
+        assertEquals(2, recorder.nativeQueries.size());
+        final var count = recorder.nativeQueries.get(1);
+        assertTrue(count.startsWith("select count(*)"), count);
+        assertTrue(!count.contains("order by"), count);
+        assertEquals(named(count), recorder.parameters.get(1).keySet());
+        assertEquals(3, info.size());
+        assertTrue(info.artifacts().isEmpty());
+    }
+
+    @Test
+    public void answersAnEmptyPageForAnExistingArtifact() {
+        final var existing = new Recorder(java.util.List.of(), java.util.List.of(), 0, true);
+        final var info = VersionQueryServiceImpl.getFilteredVersions(
+            existing.entityManager(), query("minecraft:1.8", 0, Optional.empty()));
+        assertEquals(0, info.size());
+        assertTrue(info.artifacts().isEmpty());
+        assertEquals(1, existing.nativeQueries.size());
+
+        final var missing = new Recorder(java.util.List.of(), java.util.List.of(), 0, false);
+        assertThrows(NotFound.class, () -> VersionQueryServiceImpl.getFilteredVersions(
+            missing.entityManager(), query("minecraft:1.8", 0, Optional.empty())));
+    }
+
+    @Test
+    public void seeksPastTheCursorWithTheTotalItWasIssuedFor() {
+        final var first = query("minecraft:1.16", 0, Optional.empty());
+        final var cursor = first.nextCursor(7, 2, VersionSortKey.of("8.1.0"), "8.1.0");
+        final var recorder = new Recorder(java.util.List.of(row("8.0.0", 6)), java.util.List.of(), 0, true);
+
+        final var info = VersionQueryServiceImpl.getFilteredVersions(
+            recorder.entityManager(), query("minecraft:1.16", 0, cursor));
+
+        final var sql = recorder.nativeQueries.get(0);
+        assertEquals(named(sql), recorder.parameters.get(0).keySet());
+        assertEquals("8.1.0", recorder.parameters.get(0).get("version"));
+        assertEquals(0, recorder.paging.get("setFirstResult"));
+        assertEquals(7, info.size());
+        assertEquals(List.of("8.0.0"), info.artifacts().keySet().toList());
+    }
+}
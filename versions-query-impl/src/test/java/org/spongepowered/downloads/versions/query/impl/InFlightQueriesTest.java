@@ -0,0 +1,136 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public final class InFlightQueriesTest {
+
+    @Test
+    public void identicalQueriesShareOneRun() throws Exception {
+        final var queries = queries(true);
+        final var running = new CompletableFuture<String>();
+        final var runs = new AtomicInteger();
+
+        final var first = queries.join("key", counted(runs, () -> running));
+        final var second = queries.join("key", counted(runs, () -> CompletableFuture.completedFuture("second")));
+        running.complete("first");
+
+        assertEquals(1, runs.get());
+        assertEquals("first", first.toCompletableFuture().get(1, TimeUnit.SECONDS));
+        assertEquals("first", second.toCompletableFuture().get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void differentQueriesRunApart() throws Exception {
+        final var queries = queries(true);
+        final var runs = new AtomicInteger();
+
+        queries.join("a", counted(runs, CompletableFuture::new));
+        final var other = queries.join("b", counted(runs, () -> CompletableFuture.completedFuture("b")));
+
+        assertEquals(2, runs.get());
+        assertEquals("b", other.toCompletableFuture().get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void finishedQueriesAreNotReused() throws Exception {
+        final var queries = queries(true);
+        final var runs = new AtomicInteger();
+
+        queries.join("key", counted(runs, () -> CompletableFuture.completedFuture("first"))).toCompletableFuture()
+            .get(1, TimeUnit.SECONDS);
+        final var second = queries.join("key", counted(runs, () -> CompletableFuture.completedFuture("second")));
+
+        assertEquals(2, runs.get());
+        assertEquals("second", second.toCompletableFuture().get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void waitingPastMaxWaitRunsItsOwnQuery() throws Exception {
+        final var queries = queries(true);
+        final var runs = new AtomicInteger();
+
+        final var stuck = queries.join("key", counted(runs, CompletableFuture::new));
+        final var waiting = queries.join("key", counted(runs, () -> CompletableFuture.completedFuture("own")));
+
+        assertEquals("own", waiting.toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertEquals(2, runs.get());
+        assertFalse(stuck.toCompletableFuture().isDone());
+    }
+
+    @Test
+    public void failuresReachEveryCaller() {
+        final var queries = queries(true);
+        final var running = new CompletableFuture<String>();
+        final var failure = new IllegalStateException("connection lost");
+
+        final var first = queries.join("key", () -> running).toCompletableFuture();
+        final var second = queries.join("key", () -> CompletableFuture.completedFuture("second"))
+            .toCompletableFuture();
+        running.completeExceptionally(failure);
+
+        assertSame(failure, assertThrows(ExecutionException.class, first::get).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, second::get).getCause());
+    }
+
+    @Test
+    public void disabledRunsEveryQuery() {
+        final var queries = queries(false);
+        final var runs = new AtomicInteger();
+
+        queries.join("key", counted(runs, CompletableFuture::new));
+        queries.join("key", counted(runs, CompletableFuture::new));
+
+        assertEquals(2, runs.get());
+    }
+
+    private static InFlightQueries queries(final boolean enabled) {
+        return new InFlightQueries(ConfigFactory.parseString(
+            "systemofadownload.version-query.coalesce { enabled = " + enabled + ", max-wait = 100ms }"));
+    }
+
+    private static <T> Supplier<CompletionStage<T>> counted(
+        final AtomicInteger runs, final Supplier<? extends CompletionStage<T>> query
+    ) {
+        return () -> {
+            runs.incrementAndGet();
+            return query.get();
+        };
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+public final class PrefixUpperBoundTest {
+
+    private static final String MAX = new String(Character.toChars(Character.MAX_CODE_POINT));
+
+    @Test
+    public void incrementsTheLastCodePoint() {
+        assertEquals(Optional.of("1.17"), VersionQueryServiceImpl.prefixUpperBound("1.16"));
+        assertEquals(Optional.of("1.16."), VersionQueryServiceImpl.prefixUpperBound("1.16-"));
+    }
+
+    @Test
+    public void skipsSurrogates() {
+        assertEquals(Optional.of("a\uE000"), VersionQueryServiceImpl.prefixUpperBound("a\uD7FF"));
+        assertEquals(
+            Optional.of("a" + new String(Character.toChars(0x10000))),
+            VersionQueryServiceImpl.prefixUpperBound("a\uFFFF")
+        );
+    }
+
+    @Test
+    public void carriesPastTheLastCodePoint() {
+        assertEquals(Optional.of("b"), VersionQueryServiceImpl.prefixUpperBound("a" + MAX));
+        assertEquals(Optional.of("b"), VersionQueryServiceImpl.prefixUpperBound("a" + MAX + MAX));
+    }
+
+    @Test
+    public void noBoundWithoutAnythingToIncrement() {
+        assertEquals(Optional.empty(), VersionQueryServiceImpl.prefixUpperBound(""));
+        assertEquals(Optional.empty(), VersionQueryServiceImpl.prefixUpperBound(MAX));
+    }
+
+    @Test
+    public void boundsEveryValueWithThePrefix() {
+        final var prefix = "1.16\uFFFF";
+        final var bound = utf8(VersionQueryServiceImpl.prefixUpperBound(prefix).orElseThrow());
+        for (final String value : List.of(prefix, prefix + "5", prefix + MAX, prefix + "\uFFFF\uFFFF")) {
+            // text_pattern_ops compares the UTF-8 bytes
+            assertTrue(Arrays.compareUnsigned(utf8(value), bound) < 0, value);
+            assertTrue(Arrays.compareUnsigned(utf8(prefix), utf8(value)) <= 0, value);
+        }
+    }
+
+    private static byte[] utf8(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
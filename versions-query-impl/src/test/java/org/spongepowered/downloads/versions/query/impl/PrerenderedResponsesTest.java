@@ -0,0 +1,125 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import akka.util.ByteString;
+import io.vavr.control.Option;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.artifact.api.ArtifactRevision;
+import play.http.HttpEntity;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import java.time.Instant;
+
+public final class PrerenderedResponsesTest {
+
+    private static final ArtifactRevision REVISION = new ArtifactRevision(42, Instant.parse("2021-06-01T12:00:00Z"));
+    private static final String LAST_MODIFIED = "Tue, 1 Jun 2021 12:00:00 GMT";
+    private static final ByteString BODY = ByteString.fromString("{\"versions\":{}}");
+    private static final ByteString GZIPPED = ByteString.fromString("gzipped");
+
+    @Test
+    public void identityBodyCarriesTheRevisionTag() {
+        final var result = rendered(true).respond(request());
+
+        assertEquals(Http.Status.OK, result.status());
+        assertEquals("\"42\"", result.header(Http.HeaderNames.ETAG).orElseThrow());
+        assertFalse(result.header(Http.HeaderNames.CONTENT_ENCODING).isPresent());
+        assertEquals(Http.HeaderNames.ACCEPT_ENCODING, result.header(Http.HeaderNames.VARY).orElseThrow());
+        assertEquals(BODY, body(result));
+    }
+
+    @Test
+    public void gzippedBodyCarriesItsOwnTag() {
+        final var identity = rendered(true).respond(request());
+        final var gzipped = rendered(true).respond(request(Http.HeaderNames.ACCEPT_ENCODING, "br, gzip"));
+
+        assertEquals("\"42-gzip\"", gzipped.header(Http.HeaderNames.ETAG).orElseThrow());
+        assertEquals("gzip", gzipped.header(Http.HeaderNames.CONTENT_ENCODING).orElseThrow());
+        assertEquals(GZIPPED, body(gzipped));
+        assertNotEquals(identity.header(Http.HeaderNames.ETAG), gzipped.header(Http.HeaderNames.ETAG));
+    }
+
+    @Test
+    public void refusedGzipIsAnsweredWithTheIdentityBody() {
+        final var result = rendered(true).respond(request(Http.HeaderNames.ACCEPT_ENCODING, "gzip;q=0"));
+
+        assertEquals("\"42\"", result.header(Http.HeaderNames.ETAG).orElseThrow());
+        assertEquals(BODY, body(result));
+    }
+
+    @Test
+    public void eitherTagOfTheRevisionIsNotModified() {
+        final var identity = rendered(true).respond(request(Http.HeaderNames.IF_NONE_MATCH, "\"42\""));
+        final var gzipped = rendered(true).respond(request(
+            Http.HeaderNames.ACCEPT_ENCODING, "gzip", Http.HeaderNames.IF_NONE_MATCH, "\"42-gzip\""));
+
+        assertEquals(Http.Status.NOT_MODIFIED, identity.status());
+        assertEquals("\"42\"", identity.header(Http.HeaderNames.ETAG).orElseThrow());
+        assertEquals(Http.Status.NOT_MODIFIED, gzipped.status());
+        assertEquals("\"42-gzip\"", gzipped.header(Http.HeaderNames.ETAG).orElseThrow());
+    }
+
+    @Test
+    public void olderRevisionIsAnsweredInFull() {
+        final var result = rendered(true).respond(request(Http.HeaderNames.IF_NONE_MATCH, "\"41-gzip\""));
+
+        assertEquals(Http.Status.OK, result.status());
+        assertEquals(BODY, body(result));
+    }
+
+    @Test
+    public void withoutGzipNothingVaries() {
+        final var result = rendered(false).respond(request(Http.HeaderNames.ACCEPT_ENCODING, "gzip"));
+
+        assertEquals("\"42\"", result.header(Http.HeaderNames.ETAG).orElseThrow());
+        assertFalse(result.header(Http.HeaderNames.VARY).isPresent());
+        assertEquals(BODY, body(result));
+    }
+
+    private static PrerenderedResponses.Rendered rendered(final boolean gzip) {
+        return new PrerenderedResponses.Rendered(
+            BODY, gzip ? Option.some(GZIPPED) : Option.none(), Http.MimeTypes.JSON, REVISION, LAST_MODIFIED);
+    }
+
+    private static Http.RequestHeader request(final String... headers) {
+        final var builder = new Http.RequestBuilder()
+            .method("GET")
+            .uri("/api/v2/groups/org.spongepowered/artifacts/spongevanilla/latest");
+        for (int i = 0; i < headers.length; i += 2) {
+            builder.header(headers[i], headers[i + 1]);
+        }
+        return builder.build();
+    }
+
+    private static ByteString body(final Result result) {
+        return ((HttpEntity.Strict) result.body()).data();
+    }
+}
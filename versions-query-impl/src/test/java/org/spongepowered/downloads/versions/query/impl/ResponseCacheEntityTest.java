@@ -0,0 +1,196 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import akka.actor.testkit.typed.javadsl.SerializationTestKit;
+import akka.actor.testkit.typed.javadsl.TestKitJunitResource;
+import akka.actor.testkit.typed.javadsl.TestProbe;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.javadsl.Adapter;
+import akka.serialization.SerializationExtension;
+import akka.serialization.jackson.JacksonJsonSerializer;
+import com.typesafe.config.ConfigFactory;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.artifact.api.Artifact;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifact.api.ArtifactRevision;
+import org.spongepowered.downloads.artifact.api.MavenCoordinates;
+import org.spongepowered.downloads.versions.query.api.models.QueryVersions;
+import org.spongepowered.downloads.versions.query.api.models.TagCollection;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Optional;
+
+public final class ResponseCacheEntityTest {
+
+    // Every message is serialized on the way, as it would be between nodes
+    private static final TestKitJunitResource testkit = new TestKitJunitResource(ConfigFactory.parseString("""
+            akka.actor.provider = local
+            akka.actor.serialize-messages = on
+            akka.actor.serialization-bindings {
+                "com.lightbend.lagom.serialization.Jsonable" = jackson-json
+            }
+            """)
+        .withFallback(ConfigFactory.load())
+        .resolve());
+
+    private static final ArtifactCoordinates ARTIFACT = new ArtifactCoordinates("org.spongepowered", "spongevanilla");
+    private static final Instant MODIFIED = Instant.parse("2021-06-01T12:00:00.250Z");
+
+    @AfterAll
+    public static void shutdown() {
+        testkit.system().terminate();
+    }
+
+    private static CachedResponse versions(final long revision) {
+        return CachedResponse.ofVersions(
+            new ArtifactRevision(revision, MODIFIED),
+            new QueryVersions.VersionInfo(
+                HashMap.of("1.16.5-8.0.0", new TagCollection(HashMap.of("minecraft", "1.16.5"), true)),
+                0, 25, 1, Optional.of("AgAAABkAAAAB")
+            )
+        );
+    }
+
+    private static CachedResponse latest(final long revision) {
+        return CachedResponse.ofLatest(
+            new ArtifactRevision(revision, MODIFIED),
+            new QueryVersions.VersionDetails(
+                new MavenCoordinates("org.spongepowered", "spongevanilla", "1.16.5-8.0.0"),
+                List.of(new Artifact(
+                    Optional.of("universal"),
+                    URI.create("https://repo.spongepowered.org/spongevanilla-1.16.5-8.0.0-universal.jar"),
+                    "d41d8cd98f00b204e9800998ecf8427e",
+                    "da39a3ee5e6b4b0d3255bfef95601890afd80709",
+                    "jar"
+                )),
+                HashMap.of("minecraft", "1.16.5"),
+                true
+            )
+        );
+    }
+
+    private static ActorRef<ResponseCacheEntity.Command> spawn(final String timeToLive, final int maxEntries) {
+        return testkit.spawn(ResponseCacheEntity.create(new SharedCacheSettings(ConfigFactory.parseString("""
+            enabled = true
+            time-to-live = %s
+            max-entries = %d
+            ask-timeout = 3s
+            """.formatted(timeToLive, maxEntries)))));
+    }
+
+    private static Optional<CachedResponse> get(
+        final ActorRef<ResponseCacheEntity.Command> entity, final String key
+    ) {
+        final TestProbe<ResponseCacheEntity.Found> probe = testkit.createTestProbe();
+        entity.tell(new ResponseCacheEntity.Get(key, probe.ref()));
+        return probe.receiveMessage().response();
+    }
+
+    @Test
+    public void messagesRoundTripThroughJackson() {
+        final TestProbe<ResponseCacheEntity.Found> probe = testkit.createTestProbe();
+        final var serialization = SerializationExtension.get(Adapter.toClassic(testkit.system()));
+        final var verifier = new SerializationTestKit(testkit.system());
+        for (final Object message : java.util.List.of(
+            new ResponseCacheEntity.Get("versions|25|0", probe.ref()),
+            new ResponseCacheEntity.Put("versions|25|0", versions(3)),
+            new ResponseCacheEntity.Put("latest|true", latest(3)),
+            new ResponseCacheEntity.Invalidate(ARTIFACT),
+            new ResponseCacheEntity.Found(Optional.of(versions(3))),
+            new ResponseCacheEntity.Found(Optional.empty())
+        )) {
+            assertEquals(JacksonJsonSerializer.class, serialization.findSerializerFor(message).getClass());
+            verifier.verifySerialization(message, true);
+        }
+    }
+
+    @Test
+    public void answersWhatWasPut() {
+        final var entity = spawn("1m", 8);
+
+        entity.tell(new ResponseCacheEntity.Put("versions", versions(3)));
+        entity.tell(new ResponseCacheEntity.Put("latest", latest(3)));
+
+        assertEquals(Optional.of(versions(3)), get(entity, "versions"));
+        assertEquals(Optional.of(latest(3)), get(entity, "latest"));
+        assertEquals(Optional.empty(), get(entity, "versions|10|0"));
+    }
+
+    @Test
+    public void keepsTheNewerRevision() {
+        final var entity = spawn("1m", 8);
+
+        entity.tell(new ResponseCacheEntity.Put("versions", versions(5)));
+        entity.tell(new ResponseCacheEntity.Put("versions", versions(4)));
+        assertEquals(Optional.of(versions(5)), get(entity, "versions"));
+
+        entity.tell(new ResponseCacheEntity.Put("versions", versions(6)));
+        assertEquals(Optional.of(versions(6)), get(entity, "versions"));
+    }
+
+    @Test
+    public void invalidationDropsEveryResponse() {
+        final var entity = spawn("1m", 8);
+        entity.tell(new ResponseCacheEntity.Put("versions", versions(3)));
+        entity.tell(new ResponseCacheEntity.Put("latest", latest(3)));
+
+        entity.tell(new ResponseCacheEntity.Invalidate(ARTIFACT));
+
+        assertEquals(Optional.empty(), get(entity, "versions"));
+        assertEquals(Optional.empty(), get(entity, "latest"));
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyRead() {
+        final var entity = spawn("1m", 2);
+        entity.tell(new ResponseCacheEntity.Put("a", versions(1)));
+        entity.tell(new ResponseCacheEntity.Put("b", versions(1)));
+        get(entity, "a");
+
+        entity.tell(new ResponseCacheEntity.Put("c", versions(1)));
+
+        assertEquals(Optional.of(versions(1)), get(entity, "a"));
+        assertEquals(Optional.empty(), get(entity, "b"));
+        assertEquals(Optional.of(versions(1)), get(entity, "c"));
+    }
+
+    @Test
+    public void expiresAfterTheTimeToLive() throws InterruptedException {
+        final var entity = spawn("50ms", 8);
+        entity.tell(new ResponseCacheEntity.Put("versions", versions(3)));
+        assertEquals(Optional.of(versions(3)), get(entity, "versions"));
+
+        Thread.sleep(100);
+
+        assertEquals(Optional.empty(), get(entity, "versions"));
+    }
+}
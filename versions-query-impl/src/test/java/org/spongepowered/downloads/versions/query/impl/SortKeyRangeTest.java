@@ -0,0 +1,121 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.lightbend.lagom.javadsl.api.transport.BadRequest;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.artifact.api.VersionSortKey;
+
+import java.util.Optional;
+
+public final class SortKeyRangeTest {
+
+    @Test
+    public void closedRange() {
+        final var ranges = SortKeyRange.parse(Optional.of("[8.0,9.0]"), Optional.empty());
+
+        assertEquals(1, ranges.size());
+        assertEquals("(v.sort_key >= :rangeLower0 and v.sort_key <= :rangeUpper0)", ranges.head().predicate(0, ""));
+        assertTrue(contains(ranges.head(), "8.0"));
+        assertTrue(contains(ranges.head(), "8.5.1"));
+        assertTrue(contains(ranges.head(), "9.0.0"));
+        assertFalse(contains(ranges.head(), "8.0-RC1"));
+        assertFalse(contains(ranges.head(), "9.0.1"));
+    }
+
+    @Test
+    public void halfOpenRange() {
+        final var range = SortKeyRange.parse(Optional.of("(8.0,9.0)"), Optional.empty()).head();
+
+        assertEquals("(v.sort_key > :rangeLower2_a and v.sort_key < :rangeUpper2_a)", range.predicate(2, "_a"));
+        assertFalse(contains(range, "8.0"));
+        assertTrue(contains(range, "8.0.1"));
+        assertTrue(contains(range, "9.0-RC1"));
+        assertFalse(contains(range, "9.0"));
+    }
+
+    @Test
+    public void openBounds() {
+        final var ranges = SortKeyRange.parse(Optional.of("(,1.0],[1.2,)"), Optional.empty());
+
+        assertEquals(2, ranges.size());
+        assertEquals("(true and v.sort_key <= :rangeUpper0)", ranges.get(0).predicate(0, ""));
+        assertEquals("(v.sort_key >= :rangeLower1 and true)", ranges.get(1).predicate(1, ""));
+        assertTrue(contains(ranges.get(0), "0.1"));
+        assertTrue(contains(ranges.get(1), "100.0"));
+        assertFalse(ranges.exists(range -> contains(range, "1.1")));
+    }
+
+    @Test
+    public void sinceAlone() {
+        final var ranges = SortKeyRange.parse(Optional.empty(), Optional.of(" 8.0 "));
+
+        assertEquals(1, ranges.size());
+        assertEquals("(v.sort_key > :rangeLower0 and true)", ranges.head().predicate(0, ""));
+        assertFalse(contains(ranges.head(), "8.0"));
+        assertFalse(contains(ranges.head(), "8.0.0"));
+        assertTrue(contains(ranges.head(), "8.0.1"));
+    }
+
+    @Test
+    public void sinceNarrowsTheLowerBound() {
+        final var range = SortKeyRange.parse(Optional.of("[8.0,9.0]"), Optional.of("8.5")).head();
+
+        assertEquals("(v.sort_key > :rangeLower0 and v.sort_key <= :rangeUpper0)", range.predicate(0, ""));
+        assertFalse(contains(range, "8.5"));
+        assertTrue(contains(range, "8.6"));
+        assertTrue(contains(range, "9.0"));
+    }
+
+    @Test
+    public void sinceBelowTheRangeKeepsIt() {
+        final var range = SortKeyRange.parse(Optional.of("[8.0,9.0]"), Optional.of("7.0")).head();
+
+        assertEquals("(v.sort_key >= :rangeLower0 and v.sort_key <= :rangeUpper0)", range.predicate(0, ""));
+        assertTrue(contains(range, "8.0"));
+    }
+
+    @Test
+    public void noRangeWithoutEither() {
+        assertTrue(SortKeyRange.parse(Optional.empty(), Optional.empty()).isEmpty());
+        assertTrue(SortKeyRange.parse(Optional.of(" "), Optional.of("")).isEmpty());
+    }
+
+    @Test
+    public void rejectsInvalidRanges() {
+        assertThrows(BadRequest.class, () -> SortKeyRange.parse(Optional.of("8.0"), Optional.empty()));
+        assertThrows(BadRequest.class, () -> SortKeyRange.parse(Optional.of("[9.0,8.0]"), Optional.empty()));
+        assertThrows(BadRequest.class, () -> SortKeyRange.parse(Optional.of("[8.0,9.0"), Optional.empty()));
+    }
+
+    private static boolean contains(final SortKeyRange range, final String version) {
+        return range.contains(VersionSortKey.of(version));
+    }
+}
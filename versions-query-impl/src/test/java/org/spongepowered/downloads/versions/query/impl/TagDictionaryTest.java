@@ -0,0 +1,70 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+public final class TagDictionaryTest {
+
+    // The minecraft tag of versions in index order, null where a version has no such tag
+    private static final String[] COLUMN = {"1.16.5", "1.16.4", null, "1.12.2", "1.16.5", "1.8.9", "1.16"};
+
+    @Test
+    public void findsVersionsByPrefix() {
+        final var dictionary = VersionIndex.TagDictionary.of(COLUMN);
+
+        assertEquals(positions(0, 1, 4, 6), dictionary.startingWith("1.16"));
+        assertEquals(positions(0, 4), dictionary.startingWith("1.16.5"));
+        assertEquals(positions(0, 1, 3, 4, 6), dictionary.startingWith("1.1"));
+        assertEquals(positions(5), dictionary.startingWith("1.8"));
+    }
+
+    @Test
+    public void emptyPrefixMatchesEveryTaggedVersion() {
+        assertEquals(positions(0, 1, 3, 4, 5, 6), VersionIndex.TagDictionary.of(COLUMN).startingWith(""));
+    }
+
+    @Test
+    public void findsNothingPastEveryValue() {
+        final var dictionary = VersionIndex.TagDictionary.of(COLUMN);
+
+        assertEquals(positions(), dictionary.startingWith("1.16.5.1"));
+        assertEquals(positions(), dictionary.startingWith("2"));
+        assertEquals(positions(), dictionary.startingWith("0"));
+        assertEquals(positions(), VersionIndex.TagDictionary.of(new String[] {null, null}).startingWith(""));
+    }
+
+    private static BitSet positions(final int... positions) {
+        final var bits = new BitSet();
+        for (final int position : positions) {
+            bits.set(position);
+        }
+        return bits;
+    }
+}
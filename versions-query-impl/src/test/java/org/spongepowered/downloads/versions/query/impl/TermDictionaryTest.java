@@ -0,0 +1,114 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class TermDictionaryTest {
+
+    private static final String[] TERMS = {
+        "1.12.2", "1.16.5", "api", "forge", "sponge", "spongeapi", "spongeforge", "spongevanilla", "spotify",
+        "vanilla"
+    };
+
+    private final TermDictionary dictionary = new TermDictionary(TERMS);
+
+    @Test
+    public void exactPrefixes() {
+        assertEquals(List.of("sponge", "spongeapi", "spongeforge", "spongevanilla"), this.match("sponge", 0));
+        assertEquals(List.of("spongeforge"), this.match("spongef", 0));
+        assertEquals(List.of("1.12.2", "1.16.5"), this.match("1.1", 0));
+        assertEquals(List.of(), this.match("spongeb", 0));
+        assertEquals(List.of(), this.match("z", 0));
+    }
+
+    @Test
+    public void oneEdit() {
+        // Substitution, deletion and insertion
+        assertEquals(List.of("vanilla"), this.match("vanolla", 1));
+        assertEquals(List.of("vanilla"), this.match("vanila", 1));
+        assertEquals(List.of("sponge", "spongeapi", "spongeforge", "spongevanilla"), this.match("sponnge", 1));
+        assertEquals(List.of(), this.match("vanolka", 1));
+    }
+
+    @Test
+    public void editsAreLimited() {
+        assertEquals(List.of(), this.match("spnoge", 1));
+        assertEquals(List.of("sponge", "spongeapi", "spongeforge", "spongevanilla"), this.match("spnoge", 2));
+        assertEquals(List.of(), this.match("fprgr", 1));
+        assertEquals(List.of("forge"), this.match("fprgr", 2));
+    }
+
+    @Test
+    public void matchesLikeEditDistanceToAnyPrefix() {
+        final var queries = List.of("", "a", "sp", "spong", "spnge", "vanlla", "forg", "fofge", "api", "1.16", "1.61");
+        for (final String query : queries) {
+            for (int edits = 0; edits <= 2; edits++) {
+                final var expected = new ArrayList<String>();
+                for (final String term : TERMS) {
+                    if (withinEditsOfPrefix(query, term, edits)) {
+                        expected.add(term);
+                    }
+                }
+                assertEquals(expected, this.match(query, edits), query + " within " + edits);
+            }
+        }
+    }
+
+    private List<String> match(final String query, final int maxEdits) {
+        final var matched = new ArrayList<String>();
+        this.dictionary.matchPrefix(query, maxEdits, index -> matched.add(TERMS[index]));
+        return matched;
+    }
+
+    private static boolean withinEditsOfPrefix(final String query, final String term, final int maxEdits) {
+        for (int length = 0; length <= term.length(); length++) {
+            if (distance(query, term.substring(0, length)) <= maxEdits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int distance(final String a, final String b) {
+        final var table = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    table[i][j] = i + j;
+                } else {
+                    final var substitution = table[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                    table[i][j] = Math.min(substitution, Math.min(table[i - 1][j], table[i][j - 1]) + 1);
+                }
+            }
+        }
+        return table[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.lightbend.lagom.javadsl.api.transport.BadRequest;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.artifact.api.VersionSortKey;
+
+import java.util.Base64;
+import java.util.Optional;
+
+public final class VersionCursorTest {
+
+    @Test
+    public void decodesWhatItEncodes() {
+        final var sortKey = VersionSortKey.of("1.16.5-8.0.0-RC495");
+        final var cursor = new VersionCursor(25, 1200, "org.spongepowered:spongevanilla|true||", sortKey,
+            "1.16.5-8.0.0-RC495");
+
+        final var decoded = VersionCursor.decode(cursor.encode());
+
+        assertEquals(25, decoded.position());
+        assertEquals(1200, decoded.total());
+        assertEquals("org.spongepowered:spongevanilla|true||", decoded.filter());
+        assertArrayEquals(sortKey, decoded.sortKey());
+        assertEquals("1.16.5-8.0.0-RC495", decoded.version());
+    }
+
+    @Test
+    public void filtersOfAnyLengthRoundTrip() {
+        final var filter = "org.spongepowered:spongevanilla|true|" + "minecraft:1.16.5,".repeat(10_000) + "|";
+        final var cursor = new VersionCursor(25, 1200, filter, new byte[] {1}, "1.0");
+
+        assertEquals(filter, VersionCursor.decode(cursor.encode()).filter());
+    }
+
+    @Test
+    public void tokenIsUrlSafe() {
+        final var cursor = new VersionCursor(1, 2, "ÿþ", new byte[] {(byte) 0xfb, (byte) 0xff}, "?&/");
+
+        assertTrue(cursor.encode().matches("[A-Za-z0-9_-]+"), cursor::encode);
+    }
+
+    @Test
+    public void blankTokenIsNoCursor() {
+        assertEquals(Optional.empty(), VersionCursor.decode(Optional.empty()));
+        assertEquals(Optional.empty(), VersionCursor.decode(Optional.of(" ")));
+    }
+
+    @Test
+    public void rejectsMalformedTokens() {
+        final var valid = new VersionCursor(25, 50, "", new byte[] {1}, "1.0").encode();
+        final var bytes = Base64.getUrlDecoder().decode(valid);
+        bytes[0] = 1;
+        final var otherFormat = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        final var pastTotal = new VersionCursor(51, 50, "", new byte[] {1}, "1.0").encode();
+        final var overlongFilter = Base64.getUrlDecoder().decode(valid);
+        overlongFilter[12] = 0x7f;
+        final var filterPastEnd = Base64.getUrlEncoder().withoutPadding().encodeToString(overlongFilter);
+
+        assertThrows(BadRequest.class, () -> VersionCursor.decode("not a cursor"));
+        assertThrows(BadRequest.class, () -> VersionCursor.decode(valid.substring(0, valid.length() - 4)));
+        assertThrows(BadRequest.class, () -> VersionCursor.decode(otherFormat));
+        assertThrows(BadRequest.class, () -> VersionCursor.decode(pastTotal));
+        assertThrows(BadRequest.class, () -> VersionCursor.decode(filterPastEnd));
+    }
+
+    @Test
+    public void followedByOlderVersions() {
+        final var cursor = new VersionCursor(25, 50, "", VersionSortKey.of("1.0"), "1.0");
+
+        assertTrue(cursor.isFollowedBy(VersionSortKey.of("0.9"), "0.9"));
+        assertFalse(cursor.isFollowedBy(VersionSortKey.of("1.1"), "1.1"));
+        assertFalse(cursor.isFollowedBy(VersionSortKey.of("1.0"), "1.0"));
+        // Versions with the same sort key are ordered by their string, descending
+        assertTrue(cursor.isFollowedBy(VersionSortKey.of("1"), "1"));
+        assertFalse(cursor.isFollowedBy(VersionSortKey.of("1.0.0"), "1.0.0"));
+    }
+
+    @Test
+    public void resumesTheQueryItWasIssuedFor() {
+        final var first = query(Optional.of("minecraft:1.16"), Optional.empty());
+        final var next = first.nextCursor(60, 25, VersionSortKey.of("1.16.5-8.0.0"), "1.16.5-8.0.0");
+
+        assertTrue(next.isPresent());
+        assertEquals(25, query(Optional.of("minecraft:1.16"), next).offset());
+    }
+
+    @Test
+    public void tagOrderDoesNotChangeTheFilter() {
+        final var next = query(Optional.of("minecraft:1.16,api:8"), Optional.empty())
+            .nextCursor(60, 25, VersionSortKey.of("1.16.5-8.0.0"), "1.16.5-8.0.0");
+
+        assertEquals(25, query(Optional.of("api:8,minecraft:1.16"), next).offset());
+    }
+
+    @Test
+    public void rejectsCursorOfAnotherQuery() {
+        final var next = query(Optional.of("minecraft:1.16"), Optional.empty())
+            .nextCursor(60, 25, VersionSortKey.of("1.16.5-8.0.0"), "1.16.5-8.0.0");
+
+        assertThrows(BadRequest.class, () -> query(Optional.of("minecraft:1.12"), next));
+        assertThrows(BadRequest.class, () -> query(Optional.empty(), next));
+    }
+
+    @Test
+    public void noCursorPastTheLastPage() {
+        final var query = query(Optional.empty(), Optional.empty());
+
+        assertEquals(Optional.empty(), query.nextCursor(60, 10, VersionSortKey.of("1.0"), "1.0"));
+        assertEquals(Optional.empty(), query.nextCursor(25, 25, VersionSortKey.of("1.0"), "1.0"));
+    }
+
+    private static VersionQueryServiceImpl.VersionQuery query(
+        final Optional<String> tags, final Optional<String> cursor
+    ) {
+        return new VersionQueryServiceImpl.VersionQuery(
+            "org.spongepowered", "spongevanilla", tags, Optional.of(25), Optional.empty(), Optional.empty(),
+            cursor, Optional.empty(), Optional.empty()
+        );
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import akka.stream.QueueOfferResult;
+import akka.stream.javadsl.SourceQueueWithComplete;
+import akka.util.ByteString;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.ConfigFactory;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.List;
+import io.vavr.collection.Map;
+import io.vavr.jackson.datatype.VavrModule;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.artifact.api.ArtifactCoordinates;
+import org.spongepowered.downloads.artifact.api.VersionSortKey;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+public final class VersionExportTest {
+
+    private static final ArtifactCoordinates ARTIFACT = new ArtifactCoordinates("org.spongepowered", "spongevanilla");
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new VavrModule());
+
+    private final VersionExport export = new VersionExport(null, null, MAPPER, ConfigFactory.parseString("""
+        fetch-size = 10
+        buffer-size = 4
+        offer-timeout = 1s
+        """));
+
+    private record Version(String version, boolean recommended, Map<String, String> tags) {
+        byte[] sortKey() {
+            return VersionSortKey.of(this.version);
+        }
+    }
+
+    // Versions that share a sort key are only told apart by the tie break on the version itself
+    private static final List<Version> VERSIONS = List.of(
+        new Version("7.4.7", true, HashMap.of("minecraft", "1.12.2", "api", "7.4")),
+        new Version("8.0.0-RC1", false, HashMap.of("minecraft", "1.16.5")),
+        new Version("8", false, HashMap.empty()),
+        new Version("8.0", false, HashMap.empty()),
+        new Version("8.0.0", true, HashMap.of("minecraft", "1.16.5", "api", "8.0")),
+        new Version("8.0.0-ga", false, HashMap.empty()),
+        new Version("8.0.1", true, HashMap.of("minecraft", "1.16.5"))
+    );
+
+    /*
+    Evaluates the export queries the way Postgres would, bytea compared as unsigned bytes
+    and the version in "C" collation, which is its UTF-8 byte order.
+     */
+    private static EntityManager table(final List<Version> versions) {
+        return proxy(EntityManager.class, (method, args) -> {
+            if (!method.equals("createNamedQuery")) {
+                throw new UnsupportedOperationException(method);
+            }
+            final var name = (String) args[0];
+            final var parameters = new java.util.HashMap<String, Object>();
+            final var self = new Object[1];
+            self[0] = proxy(Query.class, (queryMethod, queryArgs) -> switch (queryMethod) {
+                case "setParameter" -> {
+                    parameters.put((String) queryArgs[0], queryArgs[1]);
+                    yield self[0];
+                }
+                case "setHint" -> self[0];
+                case "getResultStream" -> {
+                    assertEquals(ARTIFACT.groupId, parameters.get("groupId"));
+                    assertEquals(ARTIFACT.artifactId, parameters.get("artifactId"));
+                    var selected = versions;
+                    if (name.equals("VersionedArtifactView.exportByArtifactAfter")) {
+                        final var sortKey = (byte[]) parameters.get("sortKey");
+                        final var after = utf8((String) parameters.get("version"));
+                        selected = selected.filter(v -> {
+                            final var order = Arrays.compareUnsigned(v.sortKey(), sortKey);
+                            return order < 0 || order == 0 && Arrays.compareUnsigned(utf8(v.version()), after) < 0;
+                        });
+                    } else {
+                        assertEquals("VersionedArtifactView.exportByArtifact", name);
+                    }
+                    yield selected.sorted(EXPORT_ORDER).toJavaStream().flatMap(VersionExportTest::rows);
+                }
+                default -> throw new UnsupportedOperationException(queryMethod);
+            });
+            return self[0];
+        });
+    }
+
+    private static final Comparator<Version> EXPORT_ORDER = Comparator
+        .<Version, byte[]>comparing(Version::sortKey, Arrays::compareUnsigned)
+        .thenComparing(v -> utf8(v.version()), Arrays::compareUnsigned)
+        .reversed();
+
+    private static Stream<Object[]> rows(final Version version) {
+        if (version.tags().isEmpty()) {
+            return Stream.<Object[]>of(new Object[]{version.version(), version.recommended(), null, null});
+        }
+        return version.tags().toJavaStream()
+            .map(tag -> new Object[]{version.version(), version.recommended(), tag._1, tag._2});
+    }
+
+    /**
+     * A client that reads the given number of lines and then goes away.
+     */
+    private static final class Client {
+        final java.util.List<String> lines = new ArrayList<>();
+        final int reads;
+        int offers = 0;
+
+        Client(final int reads) {
+            this.reads = reads;
+        }
+
+        @SuppressWarnings("unchecked")
+        SourceQueueWithComplete<ByteString> queue() {
+            return proxy(SourceQueueWithComplete.class, (method, args) -> {
+                if (!method.equals("offer")) {
+                    throw new UnsupportedOperationException(method);
+                }
+                this.offers++;
+                if (this.lines.size() == this.reads) {
+                    return CompletableFuture.failedFuture(new CompletionException(new IllegalStateException("gone")));
+                }
+                this.lines.add(((ByteString) args[0]).utf8String());
+                return CompletableFuture.completedFuture(QueueOfferResult.enqueued());
+            });
+        }
+
+        List<String> versions() {
+            return List.ofAll(this.lines).map(line -> {
+                try {
+                    return MAPPER.readTree(line).get("version").asText();
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(final Class<T> type, final Handler handler) {
+        return type.cast(Proxy.newProxyInstance(
+            VersionExportTest.class.getClassLoader(), new Class<?>[]{type},
+            (proxy, method, args) -> handler.invoke(method.getName(), args)
+        ));
+    }
+
+    private static byte[] utf8(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Client export(final List<Version> versions, final Optional<String> after, final int reads) {
+        final var client = new Client(reads);
+        this.export.write(table(versions), ARTIFACT, after, client.queue());
+        return client;
+    }
+
+    @Test
+    public void writesOneLinePerVersionNewestFirst() throws JsonProcessingException {
+        final var client = this.export(VERSIONS, Optional.empty(), Integer.MAX_VALUE);
+
+        assertEquals(VERSIONS.sorted(EXPORT_ORDER).map(Version::version), client.versions());
+        assertEquals(VERSIONS.size(), client.lines.size());
+        client.lines.forEach(line -> assertEquals('\n', line.charAt(line.length() - 1)));
+        final var first = MAPPER.readTree(client.lines.get(0));
+        assertEquals("8.0.1", first.get("version").asText());
+        assertEquals("1.16.5", first.get("tags").get("minecraft").asText());
+        assertTrue(first.get("recommended").asBoolean());
+        final var tagged = MAPPER.readTree(client.lines.get(client.versions().indexOf("7.4.7")));
+        assertEquals(2, tagged.get("tags").size());
+        final var untagged = MAPPER.readTree(client.lines.get(client.versions().indexOf("8.0")));
+        assertEquals(0, untagged.get("tags").size());
+    }
+
+    @Test
+    public void resumingAfterTheLastLineReadMissesAndRepeatsNothing() {
+        final var full = this.export(VERSIONS, Optional.empty(), Integer.MAX_VALUE).versions();
+        for (int reads = 1; reads < full.size(); reads++) {
+            final var interrupted = this.export(VERSIONS, Optional.empty(), reads).versions();
+            final var resumed = this.export(VERSIONS, interrupted.lastOption().toJavaOptional(), Integer.MAX_VALUE);
+
+            assertEquals(full, interrupted.appendAll(resumed.versions()), "interrupted after " + reads);
+        }
+    }
+
+    @Test
+    public void resumesAfterAVersionThatNoLongerExists() {
+        final var full = this.export(VERSIONS, Optional.empty(), Integer.MAX_VALUE).versions();
+        final var remaining = VERSIONS.filter(version -> !version.version().equals("8.0"));
+
+        final var resumed = this.export(remaining, Optional.of("8.0"), Integer.MAX_VALUE).versions();
+
+        assertEquals(full.dropUntil(version -> version.equals("8.0")).tail(), resumed);
+    }
+
+    @Test
+    public void stopsReadingOnceTheClientIsGone() {
+        final var client = this.export(VERSIONS, Optional.empty(), 2);
+
+        assertEquals(2, client.lines.size());
+        assertEquals(3, client.offers);
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * This file is part of SystemOfADownload, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://spongepowered.org/>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.downloads.versions.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.lightbend.lagom.javadsl.api.transport.NotFound;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.downloads.artifact.api.ArtifactRevision;
+import org.spongepowered.downloads.artifact.api.VersionSortKey;
+import org.spongepowered.downloads.versions.query.api.models.TagCollection;
+import org.spongepowered.downloads.versions.query.impl.models.TagRow;
+import org.spongepowered.downloads.versions.query.impl.models.VersionRow;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Answers random queries from the index and from a direct evaluation of what
+ * the database is asked for the same query, which have to agree.
+ */
+public final class VersionIndexTest {
+
+    private static final String GROUP = "org.spongepowered";
+    private static final String ARTIFACT = "spongevanilla";
+
+    // Versions that share a sort key, only told apart by the version in "C" collation
+    private static final List<String> TIES = List.of("8", "8.0", "8.0.0", "8.0.0-ga", "8-É", "8-é");
+    private static final List<String> SUFFIXES = List.of("", "", "", "-RC1", "-RC12", "-SNAPSHOT", "-ga", ".0");
+    private static final List<String> MINECRAFT = List.of("1.12.2", "1.16.4", "1.16.5", "1.17", "1.17.1");
+    private static final List<String> API = List.of("7.4", "8.0", "8.1", "9.0");
+
+    private static final List<String> TAG_FILTERS = List.of(
+        "minecraft:1.16", "minecraft:1.16.5", "minecraft:1.12,minecraft:1.17", "MINECRAFT:1.17",
+        "api:8", "minecraft:1.16,api:8.0", "build:1", "build:", "unknown:1"
+    );
+    private static final List<String> RANGES = List.of(
+        "[8.0,9.0)", "(,8.0]", "[8.0-RC1,8.0]", "(7.1,)", "[8.0,8.0]", "(,7.0],[9.0,)"
+    );
+
+    private record Fixture(java.util.List<VersionRow> versions, java.util.List<TagRow> tags) {
+    }
+
+    private static Fixture generate(final Random random) {
+        final var names = new java.util.LinkedHashSet<String>(TIES.toJavaList());
+        while (names.size() < 80) {
+            names.add((7 + random.nextInt(3)) + "." + random.nextInt(3) + "." + random.nextInt(3)
+                + SUFFIXES.get(random.nextInt(SUFFIXES.size())));
+        }
+        final var versions = new java.util.ArrayList<VersionRow>();
+        final var tags = new java.util.ArrayList<TagRow>();
+        int build = 0;
+        for (final String version : names) {
+            versions.add(new VersionRow(
+                GROUP, ARTIFACT, version, random.nextBoolean(), random.nextInt(4) == 0, VersionSortKey.of(version)));
+            if (random.nextInt(5) != 0) {
+                final var minecraft = MINECRAFT.get(random.nextInt(MINECRAFT.size()));
+                tags.add(new TagRow(GROUP, ARTIFACT, version, "minecraft", minecraft));
+            }
+            if (random.nextBoolean()) {
+                tags.add(new TagRow(GROUP, ARTIFACT, version, "api", API.get(random.nextInt(API.size()))));
+            }
+            tags.add(new TagRow(GROUP, ARTIFACT, version, "build", Integer.toString(++build)));
+        }
+        return new Fixture(versions, tags);
+    }
+
+    private static VersionIndex index(final Fixture fixture) {
+        final var em = proxy(EntityManager.class, (method, args) -> {
+            final java.util.List<?> results = switch ((String) args[0]) {
+                case "ArtifactRevision.findByArtifact" -> java.util.List.of(new ArtifactRevision(1, Instant.EPOCH));
+                case "VersionedArtifactView.findRowsByArtifact" -> fixture.versions();
+                case "TaggedVersion.findRowsByArtifact" -> fixture.tags();
+                default -> throw new UnsupportedOperationException((String) args[0]);
+            };
+            final var self = new Object[1];
+            self[0] = proxy(TypedQuery.class, (queryMethod, queryArgs) -> switch (queryMethod) {
+                case "setParameter" -> self[0];
+                case "getResultList" -> results;
+                case "getResultStream" -> results.stream();
+                default -> throw new UnsupportedOperationException(queryMethod);
+            });
+            return self[0];
+        });
+        return VersionIndex.load(em, GROUP, ARTIFACT).orElseThrow();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(final Class<T> type, final Handler handler) {
+        return type.cast(Proxy.newProxyInstance(
+            VersionIndexTest.class.getClassLoader(), new Class<?>[]{type},
+            (proxy, method, args) -> handler.invoke(method.getName(), args)
+        ));
+    }
+
+    private static byte[] utf8(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // order by v.sort_key desc, v.version collate "C" desc
+    private static final Comparator<VersionRow> DATABASE_ORDER = Comparator
+        .<VersionRow, byte[]>comparing(VersionRow::sortKey, Arrays::compareUnsigned)
+        .thenComparing(row -> utf8(row.version()), Arrays::compareUnsigned)
+        .reversed();
+
+    /*
+    The versions the database selects for the query: the recommendation predicate, the
+    sort key bounds of the ranges, and for every tag name at least one matching value,
+    a prefix match being t.tag_value ~>=~ :prefix and t.tag_value ~<~ :upperBound in
+    byte order.
+     */
+    private static List<VersionRow> select(final Fixture fixture, final VersionQueryServiceImpl.VersionQuery query) {
+        final var byName = query.tags().groupBy(VersionQueryServiceImpl.ParameterizedTag::tagName);
+        return List.ofAll(fixture.versions())
+            .filter(row -> query.recommended()
+                .map(recommended -> row.recommended() == recommended || row.manuallyRecommended() == recommended)
+                .orElse(true))
+            .filter(row -> query.range().isEmpty() || query.range().exists(range ->
+                (range.lower() == null || above(row.sortKey(), range.lower(), range.lowerInclusive()))
+                    && (range.upper() == null || above(range.upper(), row.sortKey(), range.upperInclusive()))))
+            .filter(row -> byName.forAll(wanted -> List.ofAll(fixture.tags())
+                .filter(tag -> tag.version().equals(row.version()) && tag.tagName().equals(wanted._1))
+                .exists(tag -> wanted._2.exists(filter -> startsWith(tag.tagValue(), filter.tagValue())))))
+            .sorted(DATABASE_ORDER);
+    }
+
+    private static boolean above(final byte[] key, final byte[] bound, final boolean inclusive) {
+        final var compared = Arrays.compareUnsigned(key, bound);
+        return compared > 0 || compared == 0 && inclusive;
+    }
+
+    private static boolean startsWith(final String value, final String prefix) {
+        final var bytes = utf8(value);
+        return Arrays.compareUnsigned(bytes, utf8(prefix)) >= 0
+            && VersionQueryServiceImpl.prefixUpperBound(prefix)
+                .map(end -> Arrays.compareUnsigned(bytes, utf8(end)) < 0)
+                .orElse(true);
+    }
+
+    private static HashMap<String, String> tagsOf(final Fixture fixture, final String version) {
+        return HashMap.ofEntries(List.ofAll(fixture.tags())
+            .filter(tag -> tag.version().equals(version))
+            .map(tag -> io.vavr.Tuple.of(tag.tagName(), tag.tagValue())));
+    }
+
+    private static <T> Optional<T> sometimes(final Random random, final List<T> values) {
+        return random.nextBoolean() ? Optional.of(values.get(random.nextInt(values.size()))) : Optional.empty();
+    }
+
+    private record Parameters(
+        Optional<String> tags, Optional<Boolean> recommended, Optional<String> range, Optional<String> since
+    ) {
+        static Parameters random(final Random random) {
+            return new Parameters(
+                sometimes(random, TAG_FILTERS),
+                sometimes(random, List.of(true, false)),
+                random.nextInt(3) == 0 ? sometimes(random, RANGES) : Optional.empty(),
+                random.nextInt(4) == 0 ? Optional.of("8.0") : Optional.empty()
+            );
+        }
+
+        VersionQueryServiceImpl.VersionQuery query(
+            final int limit, final int offset, final Optional<String> cursor
+        ) {
+            return new VersionQueryServiceImpl.VersionQuery(
+                GROUP, ARTIFACT, this.tags, Optional.of(limit), Optional.of(offset), this.recommended, cursor,
+                this.range, this.since
+            );
+        }
+    }
+
+    @Test
+    public void pagesAndLatestMatchTheDatabase() {
+        for (int seed = 0; seed < 20; seed++) {
+            final var random = new Random(seed);
+            final var fixture = generate(random);
+            final var index = index(fixture);
+            for (int i = 0; i < 200; i++) {
+                final var parameters = Parameters.random(random);
+                final var query = parameters.query(1 + random.nextInt(25), random.nextInt(90), Optional.empty());
+                final var expected = select(fixture, query);
+                final var description = "seed " + seed + ", " + parameters + ", " + query.limit() + "@"
+                    + query.offset();
+
+                if (expected.isEmpty()) {
+                    assertThrows(NotFound.class, () -> index.latest(query), description);
+                } else {
+                    assertEquals(expected.head().version(), index.latest(query), description);
+                }
+                if (expected.isEmpty() && query.tags().isEmpty() && query.range().isEmpty()) {
+                    assertThrows(NotFound.class, () -> index.page(query), description);
+                    continue;
+                }
+                final var page = index.page(query);
+                final var rows = expected.drop(query.offset()).take(query.limit());
+                assertEquals(expected.size(), page.size(), description);
+                assertEquals(rows.map(VersionRow::version), page.artifacts().keySet().toList(), description);
+                rows.forEach(row -> assertEquals(
+                    new TagCollection(tagsOf(fixture, row.version()), row.recommended()),
+                    page.artifacts().get(row.version()).get(),
+                    description
+                ));
+            }
+        }
+    }
+
+    @Test
+    public void cursorsWalkEveryMatchOnce() {
+        for (int seed = 0; seed < 20; seed++) {
+            final var random = new Random(seed);
+            final var fixture = generate(random);
+            final var index = index(fixture);
+            for (int i = 0; i < 50; i++) {
+                final var parameters = Parameters.random(random);
+                final var limit = 1 + random.nextInt(10);
+                final var expected = select(fixture, parameters.query(limit, 0, Optional.empty()));
+                if (expected.isEmpty()) {
+                    continue;
+                }
+
+                var walked = List.<String>empty();
+                var page = index.page(parameters.query(limit, 0, Optional.empty()));
+                while (true) {
+                    walked = walked.appendAll(page.artifacts().keySet().toList());
+                    if (page.cursor().isEmpty()) {
+                        break;
+                    }
+                    page = index.page(parameters.query(limit, 0, page.cursor()));
+                }
+
+                assertEquals(expected.map(VersionRow::version), walked, "seed " + seed + ", " + parameters);
+            }
+        }
+    }
+}